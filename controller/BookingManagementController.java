@@ -1,11 +1,21 @@
 package controller;
 
+import model.Accommodation;
+import model.Booking;
 import model.BookingDataModel;
 import model.BookingException;
+import model.FlightBookingRequest;
+import model.HolidayBookingRequest;
+import model.ImportReport;
+import model.Money;
+import model.RecordType;
+import model.RepricingReport;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * This class works with the model and view to manage the flow of data
@@ -43,6 +53,56 @@ public class BookingManagementController {
         return this.model.getAccommodationList(destination);
     }
 
+    /**
+     * Method to get the cheapest accommodations at a destination within a
+     * budget per night.
+     * @param destination Destination entered by the user.
+     * @param minCost Lowest cost per night, inclusive.
+     * @param maxCost Highest cost per night, inclusive.
+     * @param limit Largest number of accommodations to return.
+     * @return Read-only list of accommodations, cheapest first.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public List<Accommodation> findAccommodations(String destination,
+                                                  Money minCost,
+                                                  Money maxCost,
+                                                  int limit) throws IOException {
+        return this.model.findAccommodations(destination, minCost, maxCost,
+                limit);
+    }
+
+    /**
+     * Method to get the destinations that start with the text entered by the
+     * user.
+     * @param type Kind of record the destination is needed for.
+     * @param prefix Start of a destination entered by the user.
+     * @param limit Largest number of destinations to return.
+     * @return List of destinations in alphabetical order.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public List<String> searchDestinations(RecordType type, String prefix,
+                                           int limit) throws IOException {
+        return this.model.searchDestinations(type, prefix, limit);
+    }
+
+    /**
+     * Method to get the destinations closest to a destination that was not
+     * found.
+     * @param type Kind of record the destination is needed for.
+     * @param destination Destination entered by the user.
+     * @param limit Largest number of destinations to return.
+     * @return List of destinations, closest first.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public List<String> suggestDestinations(RecordType type,
+                                            String destination, int limit)
+            throws IOException {
+        return this.model.suggestDestinations(type, destination, limit);
+    }
+
     /**
      * Method to create a FlightBooking object and add it to the array.
      * @param name Customer's name.
@@ -62,6 +122,29 @@ public class BookingManagementController {
                 departureDate, passengers);
     }
 
+    /**
+     * Overloaded method to create a FlightBooking object for a particular
+     * flight and add it to the array.
+     * @param name Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     * @return BookingID as determined by the program.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public int addFlightBooking(String name, String destination,
+                                 String flightNumber,
+                                 LocalDate departureDate,
+                                 ArrayList<String> passengers) throws BookingException, IOException {
+        return model.addFlightBooking(name, destination, flightNumber,
+                departureDate, passengers);
+    }
+
     /**
      * Method to create a HolidayBooking object and add it to the array.
      * @param customerName Customer's name.
@@ -89,6 +172,67 @@ public class BookingManagementController {
                 passengers, accommodationName, checkIn, checkOut);
     }
 
+    /**
+     * Overloaded method to create a HolidayBooking object with a particular
+     * flight and add it to the array.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers
+     * @param accommodationName Accommodation name provided by the records
+     *                          chosen by the user.
+     * @param checkIn Date of check-in entered by the user.
+     * @param checkOut Check-out date generated by the program by taking the
+     *                 number of nights from user.
+     * @return BookingID as determined by the program.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public int addHolidayBooking(String customerName, String destination,
+                                  String flightNumber,
+                                  LocalDate departureDate,
+                                  ArrayList<String> passengers,
+                                  String accommodationName,
+                                  LocalDate checkIn,
+                                  LocalDate checkOut) throws BookingException, IOException {
+        return model.addHolidayBooking(customerName, destination,
+                flightNumber, departureDate, passengers, accommodationName,
+                checkIn, checkOut);
+    }
+
+    /**
+     * Method to add a batch of FlightBooking objects with one commit.
+     * @param requests List of requested flight bookings.
+     * @return Array of bookingIDs, in the same order as the requests.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination. Then no booking is added.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files or writing the bookings.
+     */
+    public int[] addFlightBookings(List<FlightBookingRequest> requests)
+            throws BookingException, IOException {
+        return this.model.addFlightBookings(requests);
+    }
+
+    /**
+     * Method to add a batch of HolidayBooking objects with one commit.
+     * @param requests List of requested holiday bookings.
+     * @return Array of bookingIDs, in the same order as the requests.
+     * @throws BookingException propagates to user when a flight or an
+     *                          accommodation does not exist in a
+     *                          destination. Then no booking is added.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files or writing the bookings.
+     */
+    public int[] addHolidayBookings(List<HolidayBookingRequest> requests)
+            throws BookingException, IOException {
+        return this.model.addHolidayBookings(requests);
+    }
+
     /**
      * Method to print details of all the bookings.
      */
@@ -96,6 +240,46 @@ public class BookingManagementController {
         this.model.printAllBookingDetails();
     }
 
+    /**
+     * Method to get every booking made by a customer.
+     * @param customerName Customer's name.
+     * @return List of bookings in the order they were added.
+     */
+    public List<Booking> findBookingsByCustomer(String customerName) {
+        return this.model.findBookingsByCustomer(customerName);
+    }
+
+    /**
+     * Method to get every booking to a destination.
+     * @param destination Destination entered by the user.
+     * @return List of bookings in the order they were added.
+     */
+    public List<Booking> findBookingsByDestination(String destination) {
+        return this.model.findBookingsByDestination(destination);
+    }
+
+    /**
+     * Method to get every booking departing in a date range.
+     * @param from First departure date, inclusive.
+     * @param to Last departure date, inclusive.
+     * @return List of bookings ordered by departure date.
+     */
+    public List<Booking> findBookingsDepartingBetween(LocalDate from,
+                                                      LocalDate to) {
+        return this.model.findBookingsDepartingBetween(from, to);
+    }
+
+    /**
+     * Method to get every holiday booking checking in in a date range.
+     * @param from First check-in date, inclusive.
+     * @param to Last check-in date, inclusive.
+     * @return List of bookings ordered by check-in date.
+     */
+    public List<Booking> findHolidaysCheckingInBetween(LocalDate from,
+                                                       LocalDate to) {
+        return this.model.findHolidaysCheckingInBetween(from, to);
+    }
+
     /**
      * Method to print an itinerary containing flight information with
      * provided bookingID.
@@ -106,7 +290,8 @@ public class BookingManagementController {
     }
 
     /**
-     * Method to update a holiday booking check-in and check-out dates.
+     * Method to update a holiday booking check-in and check-out dates. The
+     * flight departure is moved to the check-in date if it is later.
      * @param bookingID BookingID entered by the user to find booking.
      * @param checkIn Date of check-in entered by the user.
      * @param checkOut Check-out date generated by the program by taking
@@ -158,11 +343,65 @@ public class BookingManagementController {
      * Method to set the departure date of a booking.
      * @param bookingID BookingID entered by the user.
      * @param departureDate Departure date entered by the user.
+     * @throws IOException propagates to user when an error occurs with
+     *                      writing the booking journal.
      */
-    public void setDepartureDate(int bookingID, LocalDate departureDate) {
+    public void setDepartureDate(int bookingID, LocalDate departureDate) throws IOException {
         this.model.setDepartureDate(bookingID, departureDate);
     }
 
+    /**
+     * Method to import a feed of bookings from a file.
+     * @param filename Path of the feed file entered by the user.
+     * @return ImportReport of the rows read, imported and rejected.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the record files or saving a batch.
+     */
+    public ImportReport importBookings(String filename) throws IOException {
+        return this.model.importBookings(filename);
+    }
+
+    /**
+     * Method to export bookings to a CSV or JSON Lines file.
+     * @param filename Path of the file entered by the user. Files ending
+     *                 with ".jsonl" or ".json" are written as JSON Lines.
+     * @param filter Predicate a booking must pass to be exported, or null
+     *               to export every booking.
+     * @return Number of bookings exported.
+     * @throws IOException propagates to user when an error occurs with
+     *                      writing the file.
+     */
+    public int exportBookings(String filename, Predicate<Booking> filter)
+            throws IOException {
+        return this.model.exportBookings(filename, filter);
+    }
+
+    /**
+     * Method to reprice the bookings with a new table of flight prices.
+     * @param filename Path of the file with the new flight prices entered by
+     *                 the user.
+     * @return RepricingReport of the bookings checked and changed.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the record files or writing the bookings.
+     */
+    public RepricingReport repriceBookings(String filename)
+            throws IOException {
+        return this.model.repriceBookings(filename);
+    }
+
+    /**
+     * Method to add up the total cost of bookings.
+     * @param filter Predicate a booking must pass to be counted, or null to
+     *               count every booking.
+     * @return Money value of the sum of the total costs.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading the bookings.
+     */
+    public Money getTotalRevenue(Predicate<Booking> filter)
+            throws IOException {
+        return this.model.getTotalRevenue(filter);
+    }
+
     /**
      * Method to save array data to files.
      * @throws IOException propagates to user when an error occurs with
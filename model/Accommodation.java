@@ -8,7 +8,16 @@ public class Accommodation {
     private String location;
     private String accommodationName;
     private String accommodationAddress;
-    private double costPerNight;
+    //Cost per night in cents.
+    private long costPerNight;
+
+    /**
+     * Method to get the location of the accommodation.
+     * @return A copy of the location.
+     */
+    public String getLocation() {
+        return location;
+    }
 
     /**
      * Method to get the accommodation name.
@@ -30,7 +39,15 @@ public class Accommodation {
      * Method to get the cost per night.
      * @return A copy of the cost per night.
      */
-    public double getCostPerNight() {
+    public Money getCostPerNight() {
+        return Money.ofCents(costPerNight);
+    }
+
+    /**
+     * Method to get the cost per night in cents.
+     * @return A copy of the cost per night in cents.
+     */
+    public long getCostPerNightCents() {
         return costPerNight;
     }
 
@@ -43,10 +60,10 @@ public class Accommodation {
      * @param costPerNight Cost per night at accommodation.
      */
     public Accommodation(String location, String accommodationName,
-                         String accommodationAddress, double costPerNight) {
+                         String accommodationAddress, Money costPerNight) {
         this.location = location;
         this.accommodationName = accommodationName;
         this.accommodationAddress = accommodationAddress;
-        this.costPerNight = costPerNight;
+        this.costPerNight = costPerNight.getCents();
     }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds every accommodation record from the holiday records file
+ * in memory. The file is read once and the accommodations are indexed by
+ * destination, with each destination indexed by accommodation name.
+ */
+public class AccommodationCatalog {
+    //Shared result for destinations that have no accommodations.
+    private static final HolidayRecords NO_ACCOMMODATIONS =
+            new HolidayRecords(new Accommodation[0]);
+    private HashMap<String, HolidayRecords> destinations;
+    private String filename;
+
+    /**
+     * Class constructor to read the holiday records file and build the
+     * destination index.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public AccommodationCatalog() throws IOException {
+        this("HolidayRecords.txt");
+    }
+
+    /**
+     * Overloaded class constructor to read a holiday records file other than the
+     * default one.
+     * @param filename Path of the holiday records file.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public AccommodationCatalog(String filename) throws IOException {
+        this.filename = filename;
+        this.destinations = new HashMap<>();
+        populateMap();
+    }
+
+    /**
+     * Method for extracting every accommodation from the holiday record file
+     * and grouping them by destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    private void populateMap() throws IOException {
+        //Accommodations are grouped first, then frozen into arrays.
+        LinkedHashMap<String, ArrayList<Accommodation>> grouped =
+                new LinkedHashMap<>();
+        String location = null;
+        ArrayList<Accommodation> group = null;
+        //Try-with-resources so the mapped file is closed after reading.
+        try (MappedRecordReader reader = new MappedRecordReader(this.filename,
+                '/')) {
+            while (reader.nextRecord()) {
+                //Lines for the same location are usually together, so the
+                // location and its group are only looked up when it changes.
+                if (location == null || !reader.fieldEquals(0, location)) {
+                    location = reader.getField(0);
+                    group = grouped.computeIfAbsent(
+                            FlightCatalog.normaliseDestination(location),
+                            key -> new ArrayList<>());
+                }
+                group.add(new Accommodation(location, reader.getField(1),
+                        reader.getField(2), reader.getMoneyField(3)));
+            }
+        }
+
+        for (Map.Entry<String, ArrayList<Accommodation>> entry :
+                grouped.entrySet()) {
+            ArrayList<Accommodation> list = entry.getValue();
+            this.destinations.put(entry.getKey(), new HolidayRecords(
+                    list.toArray(new Accommodation[0])));
+        }
+    }
+
+    /**
+     * Method to get the accommodations at a destination.
+     * @param destination Destination entered by the user.
+     * @return HolidayRecords object for the destination. It is empty if there
+     *         are no accommodations at the destination.
+     */
+    public HolidayRecords getHolidayRecords(String destination) {
+        HolidayRecords records =
+                this.destinations.get(FlightCatalog.normaliseDestination(
+                        destination));
+        if (records == null) {
+            records = NO_ACCOMMODATIONS;
+        }
+        return records;
+    }
+
+    /**
+     * Method to get a single accommodation at a destination.
+     * @param destination Destination entered by the user.
+     * @param accommodationName Accommodation name chosen by the user.
+     * @return Accommodation object, or null if it does not exist.
+     */
+    public Accommodation getAccommodation(String destination,
+                                          String accommodationName) {
+        return getHolidayRecords(destination).getAccommodation(
+                accommodationName);
+    }
+
+    /**
+     * Method to get the accommodations at a destination with a cost per
+     * night in a range, cheapest first.
+     * @param destination Destination entered by the user.
+     * @param minCost Lowest cost per night, inclusive.
+     * @param maxCost Highest cost per night, inclusive.
+     * @param limit Largest number of accommodations to return.
+     * @return Read-only list of accommodations.
+     */
+    public List<Accommodation> findAccommodations(String destination,
+                                                  Money minCost,
+                                                  Money maxCost, int limit) {
+        return getHolidayRecords(destination).findByCost(minCost, maxCost,
+                limit);
+    }
+
+    /**
+     * Method to get the names of every destination with accommodation.
+     * @return List of destination names as written in the records file.
+     */
+    public ArrayList<String> getDestinations() {
+        ArrayList<String> destinations = new ArrayList<>();
+        for (HolidayRecords records : this.destinations.values()) {
+            destinations.add(records.getAccommodations()[0].getLocation());
+        }
+        return destinations;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,377 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class reads and writes bookings in the binary storage format. A file
+ * starts with a header of a magic number and a format version, followed by
+ * one record per booking:
+ * a type byte ('F' or 'H'), the bookingID, customer name, booking date and
+ * invoice number, the flight number, destination and departure date, the
+ * number of passengers and their names, and the single and total flight
+ * cost. Holiday records go on with the accommodation name and address, the
+ * check-in and check-out dates, and the single night and total cost.
+ * Strings are length-prefixed modified UTF-8 as written by
+ * DataOutput.writeUTF, dates are int epoch days and costs are 8-byte
+ * counts of cents, so no field needs a separator and any character is
+ * allowed in names. Version 1 files stored costs as 8-byte doubles; they
+ * are still read, rounding each cost to the nearest cent.
+ */
+public class BinaryBookingFile {
+    //"TBKB" in ASCII, to recognise a bookings file.
+    public static final int MAGIC = 0x54424B42;
+    public static final int VERSION = 2;
+    //Oldest version that can still be read.
+    public static final int OLDEST_VERSION = 1;
+    //Size of the header in bytes.
+    public static final int HEADER_SIZE = 6;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte FLIGHT = 'F';
+    private static final byte HOLIDAY = 'H';
+
+    /**
+     * Method to write bookings to a file, replacing it if it exists.
+     * @param file Path of the file.
+     * @param bookings List of FlightBooking and HolidayBooking objects.
+     * @throws IOException propagates to user when the file cannot be
+     *                      written.
+     */
+    public static void write(Path file, List<Booking> bookings)
+            throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out, bookings);
+        }
+    }
+
+    /**
+     * Overloaded method to write bookings to a stream, for example one that
+     * compresses them. The stream is not closed.
+     * @param stream OutputStream to write to.
+     * @param bookings List of FlightBooking and HolidayBooking objects.
+     * @throws IOException propagates to user when the stream cannot be
+     *                      written.
+     */
+    public static void write(OutputStream stream, List<Booking> bookings)
+            throws IOException {
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(stream, BUFFER_SIZE));
+        writeHeader(out);
+        for (Booking booking : bookings) {
+            writeBooking(out, booking);
+        }
+        out.flush();
+    }
+
+    /**
+     * Method to read every booking in a file.
+     * @param file Path of the file.
+     * @return List of bookings in file order.
+     * @throws IOException propagates to user when the file cannot be read or
+     *                      is not a bookings file of a known version.
+     */
+    public static ArrayList<Booking> read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Overloaded method to read every booking from a stream, for example one
+     * that decompresses them. The stream is not closed.
+     * @param stream InputStream positioned at the header.
+     * @return List of bookings in stream order.
+     * @throws IOException propagates to user when the stream cannot be read
+     *                      or does not hold bookings of a known version.
+     */
+    public static ArrayList<Booking> read(InputStream stream)
+            throws IOException {
+        ArrayList<Booking> bookings = new ArrayList<>();
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(stream, BUFFER_SIZE));
+        int version = readHeader(in);
+        int type;
+        while ((type = in.read()) != -1) {
+            bookings.add(readBooking(in, type, version));
+        }
+        return bookings;
+    }
+
+    /**
+     * Method to write the header of a file.
+     * @param out DataOutput at the start of the file.
+     * @throws IOException when the file cannot be written.
+     */
+    static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+    }
+
+    /**
+     * Method to read and check the header of a file.
+     * @param in DataInput at the start of the file.
+     * @return Format version of the file.
+     * @throws IOException when the file is not a bookings file or was
+     *                      written by a newer version.
+     */
+    static int readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("File is not a bookings file.");
+        }
+        int version = in.readUnsignedShort();
+        if (version < OLDEST_VERSION || version > VERSION) {
+            throw new IOException("Bookings file version " + version +
+                    " is not supported.");
+        }
+        return version;
+    }
+
+    /**
+     * Method to write one booking as a record.
+     * @param out DataOutput to write to.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @throws IOException when the file cannot be written.
+     */
+    static void writeBooking(DataOutput out, Booking booking)
+            throws IOException {
+        if (booking instanceof HolidayBooking) {
+            HolidayBooking hb = (HolidayBooking) booking;
+            out.writeByte(HOLIDAY);
+            writeFlightFields(out, hb, hb.getFlight());
+            writeText(out, hb.getAccommodationName());
+            writeText(out, hb.getAccommodationAddress());
+            writeDate(out, hb.getCheckIn());
+            writeDate(out, hb.getCheckOut());
+            out.writeLong(hb.getSingleNightCostCents());
+            out.writeLong(hb.getTotalCostCents());
+        } else {
+            FlightBooking fb = (FlightBooking) booking;
+            out.writeByte(FLIGHT);
+            writeFlightFields(out, fb, fb);
+        }
+    }
+
+    /**
+     * Method to read one record of the current version after its type byte.
+     * @param in DataInput positioned just after the type byte.
+     * @param type Type byte of the record.
+     * @return FlightBooking or HolidayBooking object.
+     * @throws IOException when the record cannot be read.
+     */
+    static Booking readBooking(DataInput in, int type) throws IOException {
+        return readBooking(in, type, VERSION);
+    }
+
+    /**
+     * Overloaded method to read one record of a format version after its
+     * type byte.
+     * @param in DataInput positioned just after the type byte.
+     * @param type Type byte of the record.
+     * @param version Format version the record was written in.
+     * @return FlightBooking or HolidayBooking object.
+     * @throws IOException when the record cannot be read.
+     */
+    static Booking readBooking(DataInput in, int type, int version)
+            throws IOException {
+        if (type != FLIGHT && type != HOLIDAY) {
+            throw new IOException("Bookings file is malformed.");
+        }
+        FlightBooking flight = readFlightFields(in, version);
+        if (type == FLIGHT) {
+            return flight;
+        }
+        String accommodationName = in.readUTF();
+        String accommodationAddress = in.readUTF();
+        LocalDate checkIn = readDate(in);
+        LocalDate checkOut = readDate(in);
+        Money singleNightCost = readMoney(in, version);
+        Money totalCost = readMoney(in, version);
+        return new HolidayBooking(flight.getBookingID(),
+                flight.getCustomerName(), flight.getBookingDate(),
+                flight.getInvoiceNo(), flight, accommodationName,
+                accommodationAddress, checkIn, checkOut, singleNightCost,
+                totalCost);
+    }
+
+    /**
+     * Method to move a buffer past one record without decoding it, for
+     * building an index of the records in a file.
+     * @param buffer ByteBuffer positioned at the type byte of a record. It
+     *               is left positioned after the record.
+     * @return BookingID of the record.
+     * @throws IOException when the record has an unknown type.
+     * @throws java.nio.BufferUnderflowException when the record runs past
+     *                                           the end of the buffer.
+     */
+    static int skipBooking(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        if (type != FLIGHT && type != HOLIDAY) {
+            throw new IOException("Bookings file is malformed.");
+        }
+        int bookingID = buffer.getInt();
+        skipText(buffer);
+        //Booking date and invoice number.
+        skip(buffer, 8);
+        skipText(buffer);
+        skipText(buffer);
+        //Departure date.
+        skip(buffer, 4);
+        int passengerCount = buffer.getInt();
+        for (int i = 0; i < passengerCount; i++) {
+            skipText(buffer);
+        }
+        //Single and total flight cost.
+        skip(buffer, 16);
+        if (type == HOLIDAY) {
+            skipText(buffer);
+            skipText(buffer);
+            //Check-in and check-out dates, single night and total cost.
+            skip(buffer, 24);
+        }
+        return bookingID;
+    }
+
+    /**
+     * Method to move a buffer past a length-prefixed String.
+     * @param buffer ByteBuffer positioned at the String.
+     */
+    private static void skipText(ByteBuffer buffer) {
+        skip(buffer, Short.toUnsignedInt(buffer.getShort()));
+    }
+
+    /**
+     * Method to move a buffer forward.
+     * @param buffer ByteBuffer to move.
+     * @param count Number of bytes to move.
+     */
+    private static void skip(ByteBuffer buffer, int count) {
+        if (count > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        buffer.position(buffer.position() + count);
+    }
+
+    /**
+     * Method to write the fields shared by flight and holiday records.
+     * @param out DataOutput to write to.
+     * @param booking Booking object being written.
+     * @param fb FlightBooking object with the flight fields.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void writeFlightFields(DataOutput out, Booking booking,
+                                          FlightBooking fb)
+            throws IOException {
+        out.writeInt(booking.getBookingID());
+        writeText(out, booking.getCustomerName());
+        writeDate(out, booking.getBookingDate());
+        out.writeInt(booking.getInvoiceNo());
+        writeText(out, fb.getFlightNumber());
+        writeText(out, fb.getDestination());
+        writeDate(out, fb.getDepartureDate());
+        ArrayList<String> passengers = fb.getPassengers();
+        out.writeInt(passengers.size());
+        for (String passenger : passengers) {
+            writeText(out, passenger);
+        }
+        out.writeLong(fb.getSingleFlightCostCents());
+        out.writeLong(fb.getTotalCostCents());
+    }
+
+    /**
+     * Method to read the fields shared by flight and holiday records.
+     * @param in DataInput to read from.
+     * @param version Format version the record was written in.
+     * @return FlightBooking object.
+     * @throws IOException when the record cannot be read.
+     */
+    private static FlightBooking readFlightFields(DataInput in, int version)
+            throws IOException {
+        int bookingID = in.readInt();
+        String customerName = in.readUTF();
+        LocalDate bookingDate = readDate(in);
+        int invoiceNo = in.readInt();
+        String flightNumber = in.readUTF();
+        String destination = in.readUTF();
+        LocalDate departureDate = readDate(in);
+        int passengerCount = in.readInt();
+        if (passengerCount < 0) {
+            throw new IOException("Bookings file is malformed.");
+        }
+        ArrayList<String> passengers = new ArrayList<>(passengerCount);
+        for (int i = 0; i < passengerCount; i++) {
+            passengers.add(in.readUTF());
+        }
+        Money singleFlightCost = readMoney(in, version);
+        Money totalCost = readMoney(in, version);
+        return new FlightBooking(bookingID, customerName, bookingDate,
+                invoiceNo, flightNumber, destination, departureDate,
+                passengers, singleFlightCost, totalCost);
+    }
+
+    /**
+     * Method to read a cost, stored as cents or, in version 1 files, as a
+     * double.
+     * @param in DataInput to read from.
+     * @param version Format version the record was written in.
+     * @return Money value of the cost.
+     * @throws IOException when the record cannot be read.
+     */
+    private static Money readMoney(DataInput in, int version)
+            throws IOException {
+        if (version == 1) {
+            return Money.ofCents(Money.toCents(in.readDouble()));
+        }
+        return Money.ofCents(in.readLong());
+    }
+
+    /**
+     * Method to write a String. A field the booking does not have yet is
+     * written as "null", the same as in the text format.
+     * @param out DataOutput to write to.
+     * @param text String to write.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void writeText(DataOutput out, String text)
+            throws IOException {
+        out.writeUTF(text == null ? "null" : text);
+    }
+
+    /**
+     * Method to write a date as the number of days since 1970-01-01.
+     * @param out DataOutput to write to.
+     * @param date LocalDate object to write.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void writeDate(DataOutput out, LocalDate date)
+            throws IOException {
+        out.writeInt(Math.toIntExact(date.toEpochDay()));
+    }
+
+    /**
+     * Method to read a date written as an epoch day.
+     * @param in DataInput to read from.
+     * @return LocalDate object.
+     * @throws IOException when the record cannot be read.
+     */
+    private static LocalDate readDate(DataInput in) throws IOException {
+        try {
+            return LocalDate.ofEpochDay(in.readInt());
+        } catch (RuntimeException e) {
+            throw new IOException("Bookings file is malformed.", e);
+        }
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package model;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class contains the variables and methods that describe a Booking
@@ -10,9 +11,13 @@ public abstract class Booking {
     private String customerName;
     private LocalDate bookingDate;
     private int invoiceNo;
-    //These variables are static to increase bookingID and invoiceNo with
-    // every Booking created.
-    protected static int count = 1000, invCount = 9900;
+    //First bookingID and invoiceNo handed out.
+    private static final int FIRST_BOOKING_ID = 1000;
+    private static final int FIRST_INVOICE_NO = 9900;
+    //Shared sequence that increases with every Booking created. The
+    // bookingID and invoiceNo of a booking are taken from the same value,
+    // so concurrent bookings can never share either number.
+    private static final AtomicInteger sequence = new AtomicInteger();
 
     /**
      * Accessor method for bookingID
@@ -85,8 +90,9 @@ public abstract class Booking {
      * @param customerName Customer name typed by user.
      */
     public Booking (String customerName) {
-        this.bookingID = count;
-        this.invoiceNo = invCount;
+        int next = sequence.getAndIncrement();
+        this.bookingID = FIRST_BOOKING_ID + next;
+        this.invoiceNo = FIRST_INVOICE_NO + next;
         this.customerName = customerName;
         this.bookingDate = LocalDate.now();
     }
@@ -103,6 +109,40 @@ public abstract class Booking {
         this.bookingDate = null;
     }
 
+    /**
+     * Method to move the shared sequence past a booking loaded from file, so
+     * that new bookings do not reuse its bookingID or invoiceNo.
+     * @param bookingID BookingID of a loaded booking.
+     * @param invoiceNo Invoice number of a loaded booking.
+     */
+    public static void reserveLoadedNumbers(int bookingID, int invoiceNo) {
+        int used = Math.max(bookingID - FIRST_BOOKING_ID,
+                invoiceNo - FIRST_INVOICE_NO);
+        sequence.accumulateAndGet(used + 1, Math::max);
+    }
+
+    /**
+     * Method to reserve a block of consecutive bookingIDs and invoice
+     * numbers with one step of the shared sequence, for a batch of bookings
+     * created together.
+     * @param count Number of bookings in the batch.
+     * @return First reserved value, to be handed to setReservedNumbers. The
+     *         block runs up to, but not including, this value plus count.
+     */
+    public static int reserveNumbers(int count) {
+        return sequence.getAndAdd(count);
+    }
+
+    /**
+     * Mutator method to set the bookingID and invoiceNo from a value
+     * reserved with reserveNumbers.
+     * @param reserved Value from the reserved block.
+     */
+    public void setReservedNumbers(int reserved) {
+        this.bookingID = FIRST_BOOKING_ID + reserved;
+        this.invoiceNo = FIRST_INVOICE_NO + reserved;
+    }
+
     /**
      * Abstract method to calculate the booking cost.
      * @param fr FlightRecords object created from files.
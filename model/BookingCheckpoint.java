@@ -0,0 +1,452 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This class keeps the bookings recoverable in a bounded time. A snapshot
+ * file holds every booking in bookingID order, and every journal generation
+ * before its number has been folded into it. Snapshots are written in the
+ * StorageFormat chosen by the bookings.storage.format system property:
+ * journal lines in a ".txt" file or binary records in a ".dat" file. Either
+ * kind is read, so the format can be changed between runs. When the
+ * bookings.partitions system property names a partitions directory, a
+ * snapshot is written to the month partitions instead, so months that have
+ * ended are sealed and only the active months are read and written again.
+ * On loading, the latest snapshot is read and only the journal written
+ * after it is replayed.
+ * A background thread compacts the journal once it has grown: it rolls the
+ * journal, so bookings go on being appended to a new generation, then folds
+ * the closed generations into a new snapshot from the files alone. The
+ * booking store is never locked while compacting. In lazy mode the old
+ * snapshot is merged with the journal one booking at a time straight into
+ * the new file, which is always binary, so compacting never holds every
+ * booking in memory; the new file is then mapped and handed to a listener
+ * before the old one is deleted.
+ */
+public class BookingCheckpoint {
+    //How often the compactor checks the size of the journal.
+    public static final long DEFAULT_INTERVAL_MILLIS = 60 * 1000;
+    //Size the journal must reach before it is compacted.
+    public static final long DEFAULT_MIN_JOURNAL_BYTES = 1024 * 1024;
+    //Size the text snapshot buffer reaches before it is written to file.
+    private static final int WRITE_SIZE = 64 * 1024;
+    private final BookingJournal journal;
+    private final Path directory;
+    private final String prefix;
+    private final long intervalMillis;
+    private final long minJournalBytes;
+    private final StorageFormat format;
+    private final BookingPartitions partitions;
+    private ScheduledExecutorService compactor;
+    //Lazy file over the latest snapshot in lazy mode, or null.
+    private LazyBookingFile lazy;
+    private int lazyCacheSize;
+    private Consumer<LazyBookingFile> lazyListener;
+
+    /**
+     * Class constructor for the default snapshot files in the working
+     * directory.
+     * @param journal BookingJournal that is folded into the snapshots.
+     */
+    public BookingCheckpoint(BookingJournal journal) {
+        this(journal, "BookingSnapshot", DEFAULT_INTERVAL_MILLIS,
+                DEFAULT_MIN_JOURNAL_BYTES);
+    }
+
+    /**
+     * Overloaded class constructor for snapshot files in another location
+     * or compacting at other thresholds.
+     * @param journal BookingJournal that is folded into the snapshots.
+     * @param name Path of the snapshot files without the generation number,
+     *             for example "BookingSnapshot" for BookingSnapshot.3.dat.
+     * @param intervalMillis How often the size of the journal is checked.
+     * @param minJournalBytes Size the journal must reach to be compacted.
+     */
+    public BookingCheckpoint(BookingJournal journal, String name,
+                             long intervalMillis, long minJournalBytes) {
+        Path path = Paths.get(name).toAbsolutePath();
+        this.journal = journal;
+        this.directory = path.getParent();
+        this.prefix = path.getFileName() + ".";
+        this.intervalMillis = intervalMillis;
+        this.minJournalBytes = minJournalBytes;
+        this.format = StorageFormat.fromConfig();
+        this.partitions = BookingPartitions.fromConfig();
+    }
+
+    /**
+     * Method to recover the bookings from the latest snapshot and the
+     * journal written after it. Before the first snapshot exists, the
+     * bookings files are read instead.
+     * @return List of the latest version of every booking in bookingID
+     *         order.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the bookings files.
+     */
+    public synchronized ArrayList<Booking> load() throws IOException {
+        this.lazy = null;
+        int snapshot = getLatestSnapshot();
+        return merge(readSnapshot(snapshot), replayJournal(snapshot));
+    }
+
+    /**
+     * Method to recover the bookings for lazy mode. The latest snapshot is
+     * only indexed, not read; the journal written after it is replayed.
+     * @param cacheSize Largest number of decoded bookings kept in memory.
+     * @return LazyBookingFile over the latest snapshot, or null when it is
+     *         not a binary snapshot. Then nothing is read and load must be
+     *         used instead.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the bookings files.
+     */
+    public synchronized LazyBookingFile openLazy(int cacheSize)
+            throws IOException {
+        this.lazy = null;
+        int snapshot = getLatestSnapshot();
+        Path file = getFile(snapshot, StorageFormat.BINARY);
+        if (snapshot == 0 || !Files.exists(file)) {
+            return null;
+        }
+        this.lazy = new LazyBookingFile(file, cacheSize);
+        this.lazyCacheSize = cacheSize;
+        return this.lazy;
+    }
+
+    /**
+     * Method to set the listener given the new LazyBookingFile each time a
+     * compaction in lazy mode replaces the snapshot.
+     * @param listener Consumer of the new file, called before the old
+     *                 snapshot is deleted, or null for none.
+     */
+    public synchronized void setLazyListener(
+            Consumer<LazyBookingFile> listener) {
+        this.lazyListener = listener;
+    }
+
+    /**
+     * Method to read the bookings changed since the latest snapshot, for
+     * lazy mode.
+     * @return List of the latest version of every changed booking in
+     *         bookingID order.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the journal.
+     */
+    public ArrayList<Booking> loadChanges() throws IOException {
+        return new ArrayList<>(replayJournal(getLatestSnapshot()).values());
+    }
+
+    /**
+     * Method to start compacting the journal in the background.
+     */
+    public synchronized void start() {
+        if (this.compactor != null) {
+            return;
+        }
+        this.compactor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.compactor.scheduleWithFixedDelay(this::compactIfGrown,
+                this.intervalMillis, this.intervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to stop compacting the journal in the background.
+     */
+    public synchronized void stop() {
+        if (this.compactor != null) {
+            this.compactor.shutdown();
+            this.compactor = null;
+        }
+    }
+
+    /**
+     * Method to fold every closed journal generation into a new snapshot and
+     * delete the files it replaces. Bookings can be added while this runs.
+     * @throws IOException propagates to user when the snapshot cannot be
+     *                      written.
+     */
+    public void compact() throws IOException {
+        compactGenerations();
+    }
+
+    /**
+     * Method run by the background thread. The journal is only compacted
+     * once it is big enough to be worth it.
+     */
+    private void compactIfGrown() {
+        try {
+            if (this.journal.getSize() >= this.minJournalBytes) {
+                compactGenerations();
+            }
+        } catch (IOException e) {
+            System.out.println("The booking journal could not be compacted.");
+        }
+    }
+
+    /**
+     * Method to roll the journal and write a snapshot of every generation
+     * before the new one. Synchronized so only one compaction runs at a time.
+     * @throws IOException when a file cannot be read or written.
+     */
+    private synchronized void compactGenerations() throws IOException {
+        int snapshot = getLatestSnapshot();
+        int closed = this.journal.roll();
+        TreeMap<Integer, Booking> changes = new TreeMap<>();
+        for (int generation : this.journal.getGenerations()) {
+            if (generation >= snapshot && generation <= closed) {
+                for (Booking booking : this.journal.read(generation)) {
+                    changes.put(booking.getBookingID(), booking);
+                }
+            }
+        }
+        if (this.lazy != null) {
+            writeLazySnapshot(snapshot, closed + 1, changes);
+        } else {
+            writeSnapshot(closed + 1, merge(readSnapshot(snapshot), changes));
+        }
+        //The new snapshot replaces the older snapshots and generations.
+        this.journal.deleteThrough(closed);
+        for (StorageFormat stored : StorageFormat.values()) {
+            for (int older : BookingJournal.listGenerations(this.directory,
+                    this.prefix, stored.getExtension())) {
+                if (older <= closed) {
+                    Files.deleteIfExists(getFile(older, stored));
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to replay the journal from a snapshot onwards.
+     * @param snapshot Number of the snapshot the journal is replayed over.
+     * @return Map of bookingID to the latest version of a booking.
+     * @throws IOException when the journal cannot be read.
+     */
+    private TreeMap<Integer, Booking> replayJournal(int snapshot)
+            throws IOException {
+        TreeMap<Integer, Booking> changes = new TreeMap<>();
+        for (Booking booking : this.journal.replay(snapshot)) {
+            changes.put(booking.getBookingID(), booking);
+        }
+        return changes;
+    }
+
+    /**
+     * Method to merge the bookings of a snapshot with later changes in a
+     * single pass. Both are in bookingID order; a changed booking replaces
+     * the snapshot's booking with the same ID.
+     * @param bookings List of bookings in bookingID order.
+     * @param changes Map of bookingID to the latest version of a booking.
+     * @return List of merged bookings in bookingID order.
+     */
+    private static ArrayList<Booking> merge(ArrayList<Booking> bookings,
+                                            TreeMap<Integer, Booking> changes) {
+        ArrayList<Booking> merged = new ArrayList<>(bookings.size() +
+                changes.size());
+        Iterator<Booking> changed = changes.values().iterator();
+        Booking next = changed.hasNext() ? changed.next() : null;
+        for (Booking booking : bookings) {
+            while (next != null &&
+                    next.getBookingID() < booking.getBookingID()) {
+                merged.add(next);
+                next = changed.hasNext() ? changed.next() : null;
+            }
+            if (next != null &&
+                    next.getBookingID() == booking.getBookingID()) {
+                merged.add(next);
+                next = changed.hasNext() ? changed.next() : null;
+            } else {
+                merged.add(booking);
+            }
+        }
+        while (next != null) {
+            merged.add(next);
+            next = changed.hasNext() ? changed.next() : null;
+        }
+        return merged;
+    }
+
+    /**
+     * Method to read the bookings of a snapshot in whichever format it was
+     * written.
+     * @param generation Number of the snapshot, or 0 to read the bookings
+     *                   files instead.
+     * @return List of bookings in bookingID order.
+     * @throws IOException when the snapshot cannot be read.
+     */
+    private ArrayList<Booking> readSnapshot(int generation)
+            throws IOException {
+        if (generation == 0) {
+            return new LoadBookings().getBookings();
+        }
+        Path file = getFile(generation, StorageFormat.BINARY);
+        if (Files.exists(file)) {
+            return BinaryBookingFile.read(file);
+        }
+        Path text = getFile(generation, StorageFormat.TEXT);
+        if (this.partitions != null && !Files.exists(text)) {
+            ArrayList<Booking> bookings = this.partitions.readActive();
+            this.partitions.reserveNumbers();
+            return bookings;
+        }
+        return new ParallelBookingLoader().loadTagged(text);
+    }
+
+    /**
+     * Method to write a snapshot to a temporary file and move it into place
+     * in one step, so a crash never leaves a partial snapshot behind.
+     * @param generation Number of the snapshot.
+     * @param bookings List of bookings in bookingID order.
+     * @throws IOException when the file cannot be written.
+     */
+    private void writeSnapshot(int generation, ArrayList<Booking> bookings)
+            throws IOException {
+        if (this.partitions != null) {
+            //Each partition is moved into place whole; the checkpoint only
+            // counts once all of them are written.
+            this.partitions.write(bookings);
+            this.partitions.setCheckpoint(generation);
+            return;
+        }
+        Path temporary = this.directory.resolve(this.prefix + generation +
+                ".tmp");
+        if (this.format == StorageFormat.BINARY) {
+            BinaryBookingFile.write(temporary, bookings);
+        } else {
+            BookingRecordCodec codec = new BookingRecordCodec();
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                for (Booking booking : bookings) {
+                    codec.writeTagged(booking);
+                    if (codec.getLength() >= WRITE_SIZE) {
+                        out.write(codec.getBuffer(), 0, codec.getLength());
+                        codec.clear();
+                    }
+                }
+                out.write(codec.getBuffer(), 0, codec.getLength());
+            }
+        }
+        moveIntoPlace(temporary, generation, this.format);
+    }
+
+    /**
+     * Method to force a written snapshot onto the disk and move it into
+     * place in one step.
+     * @param temporary Path of the temporary file holding the snapshot.
+     * @param generation Number of the snapshot.
+     * @param stored StorageFormat the snapshot was written in.
+     * @return Path of the snapshot file.
+     * @throws IOException when the file cannot be forced or moved.
+     */
+    private Path moveIntoPlace(Path temporary, int generation,
+                               StorageFormat stored) throws IOException {
+        //The snapshot must be on the disk before the journal it replaces is
+        // deleted.
+        try (FileChannel file = FileChannel.open(temporary,
+                StandardOpenOption.WRITE)) {
+            file.force(true);
+        }
+        return Files.move(temporary, getFile(generation, stored),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method to write a snapshot in lazy mode, merging the old snapshot with
+     * the changes a booking at a time, then map it in place of the old one.
+     * @param snapshot Number of the binary snapshot being replaced.
+     * @param generation Number of the new snapshot.
+     * @param changes Map of bookingID to the latest version of a booking.
+     * @throws IOException when a file cannot be read or written.
+     */
+    private void writeLazySnapshot(int snapshot, int generation,
+                                   TreeMap<Integer, Booking> changes)
+            throws IOException {
+        //A second mapping without a cache, so each old booking is let go of
+        // once it is written.
+        LazyBookingFile old = new LazyBookingFile(
+                getFile(snapshot, StorageFormat.BINARY), 0);
+        Path temporary = this.directory.resolve(this.prefix + generation +
+                ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary),
+                        WRITE_SIZE))) {
+            BinaryBookingFile.writeHeader(out);
+            Iterator<Booking> changed = changes.values().iterator();
+            Booking next = changed.hasNext() ? changed.next() : null;
+            for (int i = 0; i < old.size(); i++) {
+                while (next != null &&
+                        next.getBookingID() < old.getBookingID(i)) {
+                    BinaryBookingFile.writeBooking(out, next);
+                    next = changed.hasNext() ? changed.next() : null;
+                }
+                if (next != null &&
+                        next.getBookingID() == old.getBookingID(i)) {
+                    BinaryBookingFile.writeBooking(out, next);
+                    next = changed.hasNext() ? changed.next() : null;
+                } else {
+                    BinaryBookingFile.writeBooking(out, old.read(i));
+                }
+            }
+            while (next != null) {
+                BinaryBookingFile.writeBooking(out, next);
+                next = changed.hasNext() ? changed.next() : null;
+            }
+        }
+        Path file = moveIntoPlace(temporary, generation,
+                StorageFormat.BINARY);
+        //Readers are moved to the new file before the old one is deleted.
+        LazyBookingFile replaced = this.lazy;
+        this.lazy = new LazyBookingFile(file, this.lazyCacheSize);
+        if (this.lazyListener != null) {
+            this.lazyListener.accept(this.lazy);
+        }
+        replaced.close();
+    }
+
+    /**
+     * Method to get the number of the latest snapshot in either format or
+     * in the partitions.
+     * @return Integer value of the snapshot number, or 0 if there is none.
+     * @throws IOException when the directory cannot be read.
+     */
+    private int getLatestSnapshot() throws IOException {
+        int latest = this.partitions != null ?
+                this.partitions.getCheckpoint() : 0;
+        for (StorageFormat stored : StorageFormat.values()) {
+            for (int generation : BookingJournal.listGenerations(
+                    this.directory, this.prefix, stored.getExtension())) {
+                latest = Math.max(latest, generation);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Method to get the file of a snapshot.
+     * @param generation Number of the snapshot.
+     * @param stored StorageFormat of the snapshot.
+     * @return Path of the snapshot file.
+     */
+    private Path getFile(int generation, StorageFormat stored) {
+        return this.directory.resolve(this.prefix + generation +
+                stored.getExtension());
+    }
+}
\ No newline at end of file
@@ -1,26 +1,122 @@
 package model;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
-
-import static model.Booking.count;
-import static model.Booking.invCount;
+import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
- * This class contains the array of all the bookings as well as the methods
- * to manipulate it.
+ * This class contains the store of all the bookings as well as the methods
+ * to manipulate it. Bookings can be added and looked up by many threads at
+ * once: no booking method keeps state in fields between calls. Every new or
+ * changed booking is marked dirty in the BookingWriter, which appends it to
+ * the BookingJournal in the background, so booking methods do not wait for
+ * the disk. Saving waits until every marked booking is in the journal.
+ * In lazy mode, chosen with -Dbookings.lazy=true, loading only indexes a
+ * binary snapshot and bookings are decoded when they are first used. The
+ * search indexes are then built the first time a search needs them, from
+ * the bookings as they are at that time; adding or changing a booking does
+ * not build them.
+ * With a BookingRepository, chosen with the bookings.repository system
+ * property, the bookings stay in the repository instead: lookups and
+ * searches are answered by it and the BookingWriter saves changes to it in
+ * batches. A new or changed booking is only kept in memory until the
+ * BookingWriter has saved it, so the bookings held stay bounded however
+ * many are imported or repriced.
  */
 public class BookingDataModel {
-    private ArrayList<Booking> bookings;
-    private FlightRecords fr;
-    private HolidayRecords hr;
+    //Name of the system property that turns on lazy mode.
+    public static final String LAZY_PROPERTY = "bookings.lazy";
+    //Name of the system property for the size of the lazy mode cache.
+    public static final String LAZY_CACHE_PROPERTY = "bookings.lazy.cache";
+    public static final int DEFAULT_LAZY_CACHE_SIZE = 10000;
+    private final BookingStore bookings;
+    private final BookingQueryIndex queryIndex;
+    private final BookingLocks locks;
+    private final RecordsReloadService records;
+    private final BookingJournal journal;
+    //Repository the bookings are kept in, or null to use the journal.
+    private final BookingRepository repository;
+    private final BookingWriter writer;
+    //BookingIDs saved to the repository that may still be in the store.
+    private final ConcurrentLinkedQueue<Integer> written;
+    private final BookingCheckpoint checkpoint;
+    //Number of decoded bookings cached in lazy mode, 0 when not lazy.
+    private final int lazyCacheSize;
+    private volatile boolean lazyIndexed;
+    //Write locked while the lazy indexes are built, read locked by methods
+    // that add or move bookings in them until they are built.
+    private final ReadWriteLock lazyIndexing;
 
     /**
-     * Class constructor of the BookingDataModel to instantiate a new ArrayList.
+     * Class constructor of the BookingDataModel to instantiate a new store.
      */
     public BookingDataModel() {
-        this.bookings = new ArrayList<>();
+        this(new BookingJournal(), BookingRepository.fromConfig());
+    }
+
+    /**
+     * Overloaded class constructor of the BookingDataModel for a journal
+     * other than the default one, for example with another sync policy.
+     * @param journal BookingJournal that new and changed bookings are
+     *                appended to.
+     */
+    public BookingDataModel(BookingJournal journal) {
+        this(journal, null);
+    }
+
+    /**
+     * Overloaded class constructor of the BookingDataModel for bookings kept
+     * in a BookingRepository instead of the journal.
+     * @param repository BookingRepository that bookings are read from and
+     *                   saved to.
+     */
+    public BookingDataModel(BookingRepository repository) {
+        this(new BookingJournal(), repository);
+    }
+
+    /**
+     * Overloaded class constructor of the BookingDataModel for the journal
+     * or a repository.
+     * @param journal BookingJournal used when there is no repository.
+     * @param repository BookingRepository that bookings are read from and
+     *                   saved to, or null to use the journal.
+     */
+    private BookingDataModel(BookingJournal journal,
+                             BookingRepository repository) {
+        this.bookings = new BookingStore();
+        this.queryIndex = new BookingQueryIndex();
+        this.locks = new BookingLocks();
+        this.records = new RecordsReloadService();
+        this.journal = journal;
+        this.repository = repository;
+        this.writer = repository != null ? new BookingWriter(repository) :
+                new BookingWriter(journal);
+        this.written = new ConcurrentLinkedQueue<>();
+        this.lazyIndexing = new ReentrantReadWriteLock();
+        if (repository != null) {
+            this.writer.setWrittenListener(this::releaseWritten);
+        }
+        this.checkpoint = new BookingCheckpoint(journal);
+        //Compaction in lazy mode moves the store onto the new snapshot.
+        this.checkpoint.setLazyListener(this.bookings::attach);
+        this.lazyCacheSize = Boolean.getBoolean(LAZY_PROPERTY) ?
+                Math.max(1, Integer.getInteger(LAZY_CACHE_PROPERTY,
+                        DEFAULT_LAZY_CACHE_SIZE)) : 0;
     }
 
     /**
@@ -33,14 +129,22 @@ public class BookingDataModel {
      *                      the record files.
      */
     public void checkFlightExists(String destination) throws BookingException, IOException {
-        this.fr = new FlightRecords(destination);
-        /*
-         * Throw a BookingException to the user if FlightRecords object is null.
-         */
-        if (this.fr.getFlightNumber() == null) {
-            throw new BookingException("***** Destination not found in " +
-                    "flights. *****");
-        }
+        checkFlightExists(destination, null);
+    }
+
+    /**
+     * Overloaded method to check if a particular flight exists to the
+     * destination entered by the user.
+     * @param destination String destination entered by the user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public void checkFlightExists(String destination, String flightNumber) throws BookingException, IOException {
+        findFlight(destination, flightNumber);
     }
 
     /**
@@ -49,24 +153,73 @@ public class BookingDataModel {
      * @return String array of accommodation names at destination.
      */
     public String[] getAccommodationList(String destination) {
-        this.hr = new HolidayRecords(destination);
-        ArrayList<Accommodation> accommodations =
-                this.hr.getAccommodationArrayList();
-        String[] accommodationList = new String[(accommodations.size())];
-
-        /*
-         * Taking accommodation name values from the ArrayList object to
-         * assign to string array.
-         */
-        for (int i = 0; i < accommodations.size(); i++) {
-            accommodationList[i] =
-                    accommodations.get(i).getAccommodationName();
+        String[] accommodationList = new String[0];
+        //Try-catch statement as the holiday records file is read on first use.
+        try {
+            accommodationList = getAccommodationCatalog().getHolidayRecords(
+                    destination).getAccommodationNames();
+        } catch (IOException e) {
+            System.out.println("An error has occurred.");
         }
         return accommodationList;
     }
 
     /**
-     * Method to add a FlightBooking object to the array.
+     * Method to get the destinations that start with the text entered by the
+     * user, for offering completions.
+     * @param type Kind of record the destination is needed for.
+     * @param prefix Start of a destination entered by the user.
+     * @param limit Largest number of destinations to return.
+     * @return List of destinations in alphabetical order.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public List<String> searchDestinations(RecordType type, String prefix,
+                                           int limit) throws IOException {
+        return getRecords().getDestinationIndex(type).complete(prefix, limit);
+    }
+
+    /**
+     * Method to get the destinations closest to a destination that was not
+     * found, in case it was misspelt. Short names allow one edit, longer
+     * names allow two.
+     * @param type Kind of record the destination is needed for.
+     * @param destination Destination entered by the user.
+     * @param limit Largest number of destinations to return.
+     * @return List of destinations, closest first.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public List<String> suggestDestinations(RecordType type,
+                                            String destination, int limit)
+            throws IOException {
+        int maxEdits = destination.length() <= 4 ? 1 : 2;
+        return getRecords().getDestinationIndex(type).suggest(destination,
+                maxEdits, limit);
+    }
+
+    /**
+     * Method to get the cheapest accommodations at a destination within a
+     * budget per night.
+     * @param destination Destination entered by user.
+     * @param minCost Lowest cost per night, inclusive.
+     * @param maxCost Highest cost per night, inclusive.
+     * @param limit Largest number of accommodations to return.
+     * @return Read-only list of accommodations, cheapest first.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public List<Accommodation> findAccommodations(String destination,
+                                                  Money minCost,
+                                                  Money maxCost,
+                                                  int limit) throws IOException {
+        return getAccommodationCatalog().findAccommodations(destination,
+                minCost, maxCost, limit);
+    }
+
+    /**
+     * Method to add a FlightBooking object to the array. The cheapest flight
+     * to the destination is booked.
      * @param customerName Customer's name.
      * @param destination Destination entered by user.
      * @param departureDate Date of departure entered by user.
@@ -80,18 +233,39 @@ public class BookingDataModel {
     public int addFlightBooking(String customerName, String destination,
                                 LocalDate departureDate,
                                 ArrayList<String> passengers) throws BookingException, IOException {
-        checkFlightExists(destination);
-        String flightNumber = this.fr.getFlightNumber();
-        String flightDestination = this.fr.getFlightDestination();
-        //Create the FlightBooking object.
-        FlightBooking fb = new FlightBooking(customerName, flightNumber,
-                flightDestination, departureDate, passengers);
-        fb.calculateBookingCost(this.fr);
-        //Add booking to array.
-        this.bookings.add(fb);
-        //BookingID and InvoiceNo increases with every booking created.
-        count++;
-        invCount++;
+        return addFlightBooking(customerName, destination, null,
+                departureDate, passengers);
+    }
+
+    /**
+     * Overloaded method to add a FlightBooking object for a particular flight
+     * to the array.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     * @return BookingID as determined by the program.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public int addFlightBooking(String customerName, String destination,
+                                String flightNumber, LocalDate departureDate,
+                                ArrayList<String> passengers) throws BookingException, IOException {
+        FlightRecords flight = findFlight(destination, flightNumber);
+        //Create the FlightBooking object. Its bookingID and invoiceNo are
+        // allocated by the constructor.
+        FlightBooking fb = new FlightBooking(customerName,
+                flight.getFlightNumber(), flight.getFlightDestination(),
+                departureDate, passengers);
+        fb.calculateBookingCost(flight);
+        //Mark the booking dirty before it can be seen, then add it to the
+        // store.
+        this.writer.markDirty(fb);
+        addBooking(fb);
         return fb.getBookingID();
     }
 
@@ -110,17 +284,40 @@ public class BookingDataModel {
     public FlightBooking addHolidayFlight(String customerName,
                                  String destination, LocalDate departureDate,
                                  ArrayList<String> passengers) throws BookingException, IOException {
+        return addHolidayFlight(customerName, destination, null,
+                departureDate, passengers);
+    }
+
+    /**
+     * Overloaded method to create a FlightBooking object for a particular
+     * flight for HolidayBooking objects.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     * @return FlightBooking object to be added to HolidayBooking object.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public FlightBooking addHolidayFlight(String customerName,
+                                 String destination, String flightNumber,
+                                 LocalDate departureDate,
+                                 ArrayList<String> passengers) throws BookingException, IOException {
 
-        checkFlightExists(destination);
-        String flightNumber = this.fr.getFlightNumber();
+        FlightRecords flight = findFlight(destination, flightNumber);
         //Create the FlightBooking object.
         FlightBooking flightObject = new FlightBooking(customerName,
-                flightNumber, departureDate, passengers);
+                flight.getFlightNumber(), departureDate, passengers);
         return flightObject;
     }
 
     /**
-     * Method to create a HolidayBooking object to be added to the array.
+     * Method to create a HolidayBooking object to be added to the array. The
+     * cheapest flight to the destination is booked.
      * @param customerName Customer's name.
      * @param destination Destination entered by user.
      * @param departureDate Date of departure entered by user.
@@ -142,30 +339,229 @@ public class BookingDataModel {
                                   String accommodationName,
                                   LocalDate checkIn,
                                   LocalDate checkOut) throws BookingException, IOException {
+        return addHolidayBooking(customerName, destination, null,
+                departureDate, passengers, accommodationName, checkIn,
+                checkOut);
+    }
+
+    /**
+     * Overloaded method to create a HolidayBooking object with a particular
+     * flight to be added to the array.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     * @param accommodationName Name of the accommodation provided by the
+     *                          program by user choice.
+     * @param checkIn Date of check-in entered by the user.
+     * @param checkOut Check-out date generated by the program by taking the
+     *                  number of nights from user.
+     * @return BookingID as determined by the program.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public int addHolidayBooking(String customerName, String destination,
+                                  String flightNumber,
+                                  LocalDate departureDate,
+                                  ArrayList<String> passengers,
+                                  String accommodationName,
+                                  LocalDate checkIn,
+                                  LocalDate checkOut) throws BookingException, IOException {
         String accommodationAddress;
-        double singleNightCost;
+        Money singleNightCost;
+        FlightRecords flight = findFlight(destination, flightNumber);
         //Create the FlightBooking object.
-        FlightBooking flightObject = addHolidayFlight(customerName,
-                destination, departureDate, passengers);
+        FlightBooking flightObject = new FlightBooking(customerName,
+                flight.getFlightNumber(), departureDate, passengers);
         flightObject.setDestination(destination);
+        HolidayRecords hr =
+                getAccommodationCatalog().getHolidayRecords(destination);
         accommodationAddress = hr.getAddress(accommodationName);
-        singleNightCost = this.hr.getCost(accommodationName);
-        //Create the HolidayBooking object.
+        singleNightCost = hr.getCost(accommodationName);
+        //Create the HolidayBooking object. It allocates the bookingID and
+        // invoiceNo for itself and its flight.
         HolidayBooking hb = new HolidayBooking(customerName, flightObject,
                 accommodationName, accommodationAddress, singleNightCost,
                 checkIn, checkOut);
 
-        hb.calculateBookingCost(this.fr);
-        //Add booking to array.
-        this.bookings.add(hb);
-        //BookingID and InvoiceNo increases with every booking created.
-        count++;
-        invCount++;
+        hb.calculateBookingCost(flight);
+        //Mark the booking dirty before it can be seen, then add it to the
+        // store.
+        this.writer.markDirty(hb);
+        addBooking(hb);
         return hb.getBookingID();
     }
 
     /**
-     * Method to update a holiday booking check-in and check-out dates.
+     * Method to add a batch of FlightBooking objects, for example for a
+     * group. Every flight is looked up once per distinct destination and
+     * flight number, and the whole batch is checked before anything is
+     * added. The bookings are given consecutive bookingIDs and invoice
+     * numbers and are written with one commit.
+     * @param requests List of requested flight bookings.
+     * @return Array of bookingIDs, in the same order as the requests.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination. Then no booking is added.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files or writing the bookings.
+     */
+    public int[] addFlightBookings(List<FlightBookingRequest> requests)
+            throws BookingException, IOException {
+        FlightRecords[] flights = findFlights(requests);
+        int first = Booking.reserveNumbers(requests.size());
+        ArrayList<Booking> batch = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            FlightBooking fb = createFlight(requests.get(i), flights[i],
+                    first + i);
+            fb.calculateBookingCost(flights[i]);
+            batch.add(fb);
+        }
+        addBookingBatch(batch);
+        return bookingIDs(batch);
+    }
+
+    /**
+     * Method to add a batch of HolidayBooking objects, for example for a
+     * group. Every flight and accommodation is looked up once per distinct
+     * destination, and the whole batch is checked before anything is
+     * added. The bookings are given consecutive bookingIDs and invoice
+     * numbers and are written with one commit.
+     * @param requests List of requested holiday bookings.
+     * @return Array of bookingIDs, in the same order as the requests.
+     * @throws BookingException propagates to user when a flight or an
+     *                          accommodation does not exist in a
+     *                          destination. Then no booking is added.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files or writing the bookings.
+     */
+    public int[] addHolidayBookings(List<HolidayBookingRequest> requests)
+            throws BookingException, IOException {
+        FlightRecords[] flights = findFlights(requests);
+        AccommodationCatalog catalog = getAccommodationCatalog();
+        HashMap<String, Accommodation> resolved = new HashMap<>();
+        Accommodation[] accommodations = new Accommodation[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            HolidayBookingRequest request = requests.get(i);
+            String key = FlightCatalog.normaliseDestination(
+                    request.getDestination()) + "," +
+                    request.getAccommodationName();
+            Accommodation accommodation = resolved.get(key);
+            if (accommodation == null) {
+                accommodation = catalog.getAccommodation(
+                        request.getDestination(),
+                        request.getAccommodationName());
+                if (accommodation == null) {
+                    throw new BookingException("***** Accommodation " +
+                            request.getAccommodationName() +
+                            " not found in " + request.getDestination() +
+                            ". *****");
+                }
+                resolved.put(key, accommodation);
+            }
+            accommodations[i] = accommodation;
+        }
+
+        int first = Booking.reserveNumbers(requests.size());
+        ArrayList<Booking> batch = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            HolidayBookingRequest request = requests.get(i);
+            FlightBooking flightObject = createFlight(request, flights[i],
+                    first + i);
+            Accommodation accommodation = accommodations[i];
+            HolidayBooking hb = new HolidayBooking(
+                    flightObject.getBookingID(), request.getCustomerName(),
+                    flightObject.getBookingDate(),
+                    flightObject.getInvoiceNo(), flightObject,
+                    accommodation.getAccommodationName(),
+                    accommodation.getAccommodationAddress(),
+                    request.getCheckIn(), request.getCheckOut(),
+                    accommodation.getCostPerNight(), Money.ZERO);
+            hb.calculateBookingCost(flights[i]);
+            batch.add(hb);
+        }
+        addBookingBatch(batch);
+        return bookingIDs(batch);
+    }
+
+    /**
+     * Method to find the flight for every request of a batch. Each distinct
+     * destination and flight number is looked up once.
+     * @param requests List of requested bookings.
+     * @return Array of flights, in the same order as the requests.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    private FlightRecords[] findFlights(
+            List<? extends FlightBookingRequest> requests)
+            throws BookingException, IOException {
+        FlightCatalog catalog = getFlightCatalog();
+        HashMap<String, FlightRecords> resolved = new HashMap<>();
+        FlightRecords[] flights = new FlightRecords[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            FlightBookingRequest request = requests.get(i);
+            String key = FlightCatalog.normaliseDestination(
+                    request.getDestination()) + "," +
+                    request.getFlightNumber();
+            FlightRecords flight = resolved.get(key);
+            if (flight == null) {
+                flight = catalog.getFlight(request.getDestination(),
+                        request.getFlightNumber());
+                if (flight == null) {
+                    throw new BookingException("***** Destination " +
+                            request.getDestination() +
+                            " not found in flights. *****");
+                }
+                resolved.put(key, flight);
+            }
+            flights[i] = flight;
+        }
+        return flights;
+    }
+
+    /**
+     * Method to create the FlightBooking object for a request of a batch,
+     * with numbers from a reserved block.
+     * @param request Requested booking.
+     * @param flight FlightRecords object found for the request.
+     * @param reserved Value from the block reserved for the batch.
+     * @return FlightBooking object, not yet priced.
+     */
+    private static FlightBooking createFlight(FlightBookingRequest request,
+                                              FlightRecords flight,
+                                              int reserved) {
+        //This constructor takes no numbers from the shared sequence.
+        FlightBooking fb = new FlightBooking(request.getCustomerName(),
+                flight.getFlightNumber(), request.getDepartureDate(),
+                request.getPassengers());
+        fb.setDestination(flight.getFlightDestination());
+        fb.setReservedNumbers(reserved);
+        return fb;
+    }
+
+    /**
+     * Method to get the bookingIDs of a batch.
+     * @param batch List of bookings.
+     * @return Array of bookingIDs, in the same order as the batch.
+     */
+    private static int[] bookingIDs(List<Booking> batch) {
+        int[] bookingIDs = new int[batch.size()];
+        for (int i = 0; i < bookingIDs.length; i++) {
+            bookingIDs[i] = batch.get(i).getBookingID();
+        }
+        return bookingIDs;
+    }
+
+    /**
+     * Method to update a holiday booking check-in and check-out dates. If
+     * the check-in is before the flight's departure date, the departure is
+     * moved to the check-in date. The dates and the new cost are applied
+     * together under the booking's lock, so no reader sees them half done.
      * @param bookingID BookingID entered by the user to find booking.
      * @param checkIn Date of check-in entered by the user.
      * @param checkOut Check-out date generated by the program by taking
@@ -175,19 +571,305 @@ public class BookingDataModel {
      */
     public void updateHolidayBooking(int bookingID, LocalDate checkIn,
                                      LocalDate checkOut) throws IOException {
-        HolidayBooking booking;
-
-         //Loop to find the booking that has the bookingID entered by the user.
-        for (Booking i: this.bookings) {
-            if (i.getBookingID() == bookingID) {
-                ((HolidayBooking) i).setCheckIn(checkIn);
-                ((HolidayBooking) i).setCheckOut(checkOut);
-                booking = (HolidayBooking) i;
-                this.fr = new FlightRecords(booking.getFlight().getDestination());
-                booking.calculateBookingCost(this.fr);
+        //Read the records before locking so no file I/O is done while the
+        // lock is held.
+        FlightCatalog catalog = getFlightCatalog();
+        Lock indexing = lockLazyIndexes();
+        Lock lock = this.locks.writeLock(bookingID);
+        lock.lock();
+        try {
+            Booking booking = getBookingForUpdate(bookingID);
+            //Only holiday bookings have check-in and check-out dates.
+            if (booking instanceof HolidayBooking) {
+                HolidayBooking holiday = (HolidayBooking) booking;
+                FlightBooking flightBooking = holiday.getFlight();
+                //Indexes that are not built yet pick up the new dates when
+                // they are.
+                if (checkIn.isBefore(flightBooking.getDepartureDate())) {
+                    if (this.lazyIndexed) {
+                        this.queryIndex.moveDeparture(bookingID,
+                                flightBooking.getDepartureDate(), checkIn);
+                    }
+                    flightBooking.setDepartureDate(checkIn);
+                }
+                if (this.lazyIndexed) {
+                    this.queryIndex.moveCheckIn(bookingID,
+                            holiday.getCheckIn(), checkIn);
+                }
+                holiday.setCheckIn(checkIn);
+                holiday.setCheckOut(checkOut);
+                FlightRecords flight = catalog.getFlight(
+                        flightBooking.getDestination(),
+                        flightBooking.getFlightNumber());
+                //Only reprice when the booked flight is still in the records.
+                if (flight != null) {
+                    holiday.calculateBookingCost(flight);
+                }
+                //Format the changed booking while no one else can change it.
+                markChanged(holiday);
+            }
+        } finally {
+            lock.unlock();
+            unlockLazyIndexes(indexing);
+        }
+    }
+
+    /**
+     * Method to import a feed of bookings from a file. Rows are checked
+     * against the records loaded now and added in batches; see
+     * BulkBookingImporter for the format of the feed.
+     * @param filename Path of the feed file.
+     * @return ImportReport of the rows read, imported and rejected.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the record files or saving a batch.
+     */
+    public ImportReport importBookings(String filename) throws IOException {
+        return new BulkBookingImporter(this, getRecords())
+                .importFile(filename);
+    }
+
+    /**
+     * Method to add a batch of new bookings. The batch is written with one
+     * commit before any of its bookings can be seen.
+     * @param batch List of priced bookings.
+     * @throws IOException propagates to user when the batch cannot be
+     *                      written.
+     */
+    void addBookingBatch(List<Booking> batch) throws IOException {
+        this.writer.commit(batch);
+        //A committed batch is already in the repository.
+        if (this.repository == null) {
+            for (Booking booking : batch) {
+                addBooking(booking);
+            }
+        }
+    }
+
+    /**
+     * Method to export bookings to a file, as JSON Lines if the file name
+     * ends with ".jsonl" or ".json" and as CSV otherwise.
+     * @param filename Path of the file to write. An existing file is
+     *                 replaced.
+     * @param filter Predicate a booking must pass to be exported, or null
+     *               to export every booking.
+     * @return Number of bookings exported.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading the bookings or writing the file.
+     */
+    public int exportBookings(String filename, Predicate<Booking> filter)
+            throws IOException {
+        Path file = Paths.get(filename);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return exportBookings(channel, ExportFormat.forFile(file), filter);
+        }
+    }
+
+    /**
+     * Overloaded method to export bookings to a channel. Bookings are
+     * written one at a time, each under its read lock, in the same order as
+     * printAllBookingDetails; no list of the bookings is built, so memory
+     * use does not grow with the number of bookings. The channel is left
+     * open.
+     * @param channel WritableByteChannel to write to.
+     * @param format ExportFormat to write in.
+     * @param filter Predicate a booking must pass to be exported, or null
+     *               to export every booking.
+     * @return Number of bookings exported.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading the bookings or writing the channel.
+     */
+    public int exportBookings(WritableByteChannel channel,
+                              ExportFormat format,
+                              Predicate<Booking> filter) throws IOException {
+        BookingExporter exporter = new BookingExporter(channel, format);
+        Consumer<Booking> export = booking -> {
+            Lock lock = this.locks.readLock(booking.getBookingID());
+            lock.lock();
+            try {
+                if (filter == null || filter.test(booking)) {
+                    exporter.write(booking);
+                }
+            } catch (IOException e) {
+                //Carried out of the Consumer and thrown again below.
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.unlock();
             }
+        };
+        try {
+            if (this.repository != null) {
+                //Changes still being written are exported with the rest.
+                this.writer.flush();
+                this.repository.forEach(export);
+            } else {
+                this.bookings.forEach(export);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
+        exporter.flush();
+        return exporter.getCount();
+    }
 
+    /**
+     * Method to reprice the bookings after flight prices change. The new
+     * prices are compared with the flight records loaded now, so this is
+     * run with the new table in a separate file before it replaces the
+     * flight records file.
+     * @param filename Path of the file with the new flight prices, in the
+     *                 same form as the flight records file.
+     * @return RepricingReport of the bookings checked and changed.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the record files or writing the bookings.
+     */
+    public RepricingReport repriceBookings(String filename)
+            throws IOException {
+        FlightCatalog newPrices;
+        //Malformed lines are reported the same way as unreadable files.
+        try {
+            newPrices = new FlightCatalog(filename);
+        } catch (RuntimeException e) {
+            throw new IOException("Records file is malformed.", e);
+        }
+        return repriceBookings(getFlightCatalog(), newPrices);
+    }
+
+    /**
+     * Overloaded method to reprice the bookings on every flight whose price
+     * differs between two price tables. Bookings are repriced in parallel,
+     * each under its write lock.
+     * @param oldPrices FlightCatalog the bookings were priced with, or null
+     *                  to check every booking.
+     * @param newPrices FlightCatalog with the new prices.
+     * @return RepricingReport of the bookings checked and changed.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading or writing the bookings.
+     */
+    public RepricingReport repriceBookings(FlightCatalog oldPrices,
+                                           FlightCatalog newPrices)
+            throws IOException {
+        return new RepricingEngine(this).reprice(oldPrices, newPrices);
+    }
+
+    /**
+     * Method to get the IDs of the bookings to a destination, from the
+     * repository or the query index.
+     * @param destination Destination, in any case.
+     * @return Array of bookingIDs.
+     * @throws IOException propagates to user when the repository cannot be
+     *                      read.
+     */
+    int[] findBookingIDsByDestination(String destination) throws IOException {
+        if (this.repository != null) {
+            this.writer.flush();
+            List<Booking> found = this.repository.findByDestination(
+                    destination);
+            int[] bookingIDs = new int[found.size()];
+            for (int i = 0; i < bookingIDs.length; i++) {
+                bookingIDs[i] = found.get(i).getBookingID();
+            }
+            return bookingIDs;
+        }
+        indexLazyBookings();
+        return this.queryIndex.findByDestination(destination);
+    }
+
+    /**
+     * Method to reprice one booking with a price table. The cost is worked
+     * out again under the booking's write lock, and the booking is marked
+     * dirty if it changed.
+     * @param bookingID BookingID of the booking.
+     * @param prices FlightCatalog with the new prices.
+     * @return Change of the booking's cost, or null if the booking or its
+     *         flight was not found or the cost did not change.
+     * @throws IOException propagates to user when the repository cannot be
+     *                      read.
+     */
+    RepricingReport.Change repriceBooking(int bookingID,
+                                          FlightCatalog prices)
+            throws IOException {
+        Lock lock = this.locks.writeLock(bookingID);
+        lock.lock();
+        try {
+            Booking booking = getBookingForUpdate(bookingID);
+            if (booking == null) {
+                return null;
+            }
+            FlightBooking flightBooking = booking instanceof HolidayBooking ?
+                    ((HolidayBooking) booking).getFlight() :
+                    (FlightBooking) booking;
+            FlightRecords flight = prices.getFlight(
+                    flightBooking.getDestination(),
+                    flightBooking.getFlightNumber());
+            //Flights that are not in the new table keep their prices.
+            if (flight == null) {
+                return null;
+            }
+            long oldTotal = getTotalCostCents(booking);
+            booking.calculateBookingCost(flight);
+            long newTotal = getTotalCostCents(booking);
+            if (newTotal == oldTotal) {
+                return null;
+            }
+            markChanged(booking);
+            return new RepricingReport.Change(bookingID,
+                    flightBooking.getDestination(),
+                    flightBooking.getFlightNumber(), Money.ofCents(oldTotal),
+                    Money.ofCents(newTotal));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to add up the total cost of bookings. Bookings are read one at
+     * a time, each under its read lock, and their costs are added as long
+     * cents, so the sum is exact and no list of the bookings is built.
+     * @param filter Predicate a booking must pass to be counted, or null to
+     *               count every booking.
+     * @return Money value of the sum of the total costs.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading the bookings.
+     * @throws ArithmeticException when the sum does not fit in a long.
+     */
+    public Money getTotalRevenue(Predicate<Booking> filter)
+            throws IOException {
+        //Array so the Consumer can add to it.
+        long[] revenue = new long[1];
+        Consumer<Booking> add = booking -> {
+            Lock lock = this.locks.readLock(booking.getBookingID());
+            lock.lock();
+            try {
+                if (filter == null || filter.test(booking)) {
+                    revenue[0] = Math.addExact(revenue[0],
+                            getTotalCostCents(booking));
+                }
+            } finally {
+                lock.unlock();
+            }
+        };
+        if (this.repository != null) {
+            //Changes still being written are counted with the rest.
+            this.writer.flush();
+            this.repository.forEach(add);
+        } else {
+            this.bookings.forEach(add);
+        }
+        return Money.ofCents(revenue[0]);
+    }
+
+    /**
+     * Method to get the total cost of a flight or holiday booking.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @return Total cost in cents.
+     */
+    private static long getTotalCostCents(Booking booking) {
+        if (booking instanceof HolidayBooking) {
+            return ((HolidayBooking) booking).getTotalCostCents();
+        }
+        return ((FlightBooking) booking).getTotalCostCents();
     }
 
     /**
@@ -195,35 +877,105 @@ public class BookingDataModel {
      */
     public void printAllBookingDetails() {
         int count = 1;
+        List<Booking> allBookings = this.repository != null ?
+                queryRepository(this.repository::findAll) :
+                this.bookings.toList();
         //Iterate the array to print every booking.
-        for (Booking i: this.bookings) {
+        for (Booking i: allBookings) {
             System.out.println("[BOOKING " + count + "]");
-            i.printBookingDetails();
+            Lock lock = this.locks.readLock(i.getBookingID());
+            lock.lock();
+            try {
+                i.printBookingDetails();
+            } finally {
+                lock.unlock();
+            }
             count++;
         }
         //Check if bookings array is empty.
-        if (this.bookings.size() == 0) {
+        if (allBookings.size() == 0) {
             System.out.println("There are no bookings recorded.");
         }
     }
 
+    /**
+     * Method to get every booking made by a customer.
+     * @param customerName Customer's name, in any case.
+     * @return List of bookings in the order they were added.
+     */
+    public List<Booking> findBookingsByCustomer(String customerName) {
+        if (this.repository != null) {
+            return queryRepository(() ->
+                    this.repository.findByCustomer(customerName));
+        }
+        indexLazyBookings();
+        return getBookings(this.queryIndex.findByCustomer(customerName));
+    }
+
+    /**
+     * Method to get every booking to a destination.
+     * @param destination Destination, in any case.
+     * @return List of bookings in the order they were added.
+     */
+    public List<Booking> findBookingsByDestination(String destination) {
+        if (this.repository != null) {
+            return queryRepository(() ->
+                    this.repository.findByDestination(destination));
+        }
+        indexLazyBookings();
+        return getBookings(this.queryIndex.findByDestination(destination));
+    }
+
+    /**
+     * Method to get every booking departing in a date range.
+     * @param from First departure date, inclusive.
+     * @param to Last departure date, inclusive.
+     * @return List of bookings ordered by departure date.
+     */
+    public List<Booking> findBookingsDepartingBetween(LocalDate from,
+                                                      LocalDate to) {
+        if (this.repository != null) {
+            return queryRepository(() ->
+                    this.repository.findDepartingBetween(from, to));
+        }
+        indexLazyBookings();
+        return getBookings(this.queryIndex.findDepartingBetween(from, to));
+    }
+
+    /**
+     * Method to get every holiday booking checking in in a date range.
+     * @param from First check-in date, inclusive.
+     * @param to Last check-in date, inclusive.
+     * @return List of bookings ordered by check-in date.
+     */
+    public List<Booking> findHolidaysCheckingInBetween(LocalDate from,
+                                                       LocalDate to) {
+        if (this.repository != null) {
+            return queryRepository(() ->
+                    this.repository.findCheckingInBetween(from, to));
+        }
+        indexLazyBookings();
+        return getBookings(this.queryIndex.findCheckingInBetween(from, to));
+    }
+
     /**
      * Method to print an itinerary containing flight information with
      * provided bookingID.
      * @param bookingID BookingID entered by the user to find booking.
      */
     public void printItinerary(int bookingID) {
-        //Iterate the array to find instances of FlightBooking objects.
-        for (Booking i: this.bookings) {
-            if (i instanceof FlightBooking) {
-                if (i.getBookingID() == bookingID) {
-                    i.printBookingDetails();
-                }
-            } else {
-                if (i.getBookingID() == bookingID) {
-                    ((HolidayBooking) i).getFlight().printBookingDetails();
-                }
+        Booking booking = getBooking(bookingID);
+        Lock lock = this.locks.readLock(bookingID);
+        lock.lock();
+        try {
+            //Holiday bookings print the itinerary of their flight.
+            if (booking instanceof FlightBooking) {
+                booking.printBookingDetails();
+            } else if (booking instanceof HolidayBooking) {
+                ((HolidayBooking) booking).getFlight().printBookingDetails();
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -232,10 +984,14 @@ public class BookingDataModel {
      * @param bookingID BookingID entered by the user.
      */
     public void viewSingleInvoice(int bookingID) {
-        //Iterate the array to find matching booking with bookingID provided.
-        for (Booking i: this.bookings) {
-            if (i.getBookingID() == bookingID) {
-                i.viewInvoice();
+        Booking booking = getBooking(bookingID);
+        if (booking != null) {
+            Lock lock = this.locks.readLock(bookingID);
+            lock.lock();
+            try {
+                booking.viewInvoice();
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -246,18 +1002,8 @@ public class BookingDataModel {
      * @return true if booking exists, false if it doesn't.
      */
     public boolean checkBookingIDExist(int bookingID) {
-        int idFound = 0;
-        boolean idExist = false;
-        //Iterate the array to find the booking.
-        for (Booking i: this.bookings) {
-            if (i.getBookingID() == bookingID) {
-                idFound++;
-            }
-        }
-        if (idFound > 0) {
-            idExist = true;
-        }
-        return idExist;
+        return this.bookings.contains(bookingID) ||
+                (this.repository != null && getBooking(bookingID) != null);
     }
 
     /**
@@ -266,41 +1012,87 @@ public class BookingDataModel {
      * @return true if booking is a HolidayBooking, false if it isn't.
      */
     public boolean checkBookingIsHoliday(int bookingID) {
-        boolean isHoliday = false;
-        //Iterate the array to find HolidayBooking with bookingID.
-        for (Booking i: this.bookings) {
-            if (i.getBookingID() == bookingID && i instanceof HolidayBooking) {
-                isHoliday = true;
-                break;
-            }
-        }
-        return isHoliday;
+        return getBooking(bookingID) instanceof HolidayBooking;
     }
 
     /**
-     * Method to instantiate the saving of array data into files.
+     * Method to save the bookings. Every change is already marked in the
+     * BookingWriter, so this waits for the marked bookings to be appended to
+     * the journal and forces the journal onto the disk.
      * @throws IOException  propagates to user when an error occurs with
      *                      opening the record files.
      */
     public void saveToFiles() throws IOException {
-        new SaveBookings(this.bookings);
+        this.writer.flush();
+        this.journal.sync();
     }
 
     /**
-     * Method to load data from files to array.
+     * Method to load data from files to array. The latest snapshot is read
+     * and the journal written after it is replayed, so the latest version of
+     * every booking is kept. The journal is then compacted in the background
+     * as it grows.
      * @throws IOException  propagates to user when an error occurs with
      *                      opening the record files.
      */
     public void loadFiles() throws IOException {
-        LoadBookings loading = new LoadBookings();
-        this.bookings = loading.getBookings();
-        //BookingID and invoiceNo updated to reflect continuous adding of
-        // bookings.
-        if (this.bookings.size() > 0) {
-            count = this.bookings.get(this.bookings.size() - 1).getBookingID()
-                    + 1;
-            invCount = this.bookings.get(this.bookings.size() - 1).getBookingID()
-                    + 1;
+        //Flight and holiday records are read into memory at startup and
+        // reloaded in the background whenever the files change.
+        getRecords();
+        //Bookings that are still being written are loaded back with the rest.
+        this.writer.flush();
+        if (this.repository != null) {
+            //Bookings are read from the repository when they are needed.
+            this.bookings.clear();
+            this.queryIndex.clear();
+            this.lazyIndexed = true;
+            Booking last = this.repository.findLast();
+            if (last != null) {
+                Booking.reserveLoadedNumbers(last.getBookingID(),
+                        last.getInvoiceNo());
+            }
+            return;
+        }
+        LazyBookingFile lazy = null;
+        if (this.lazyCacheSize > 0) {
+            lazy = this.checkpoint.openLazy(this.lazyCacheSize);
+        }
+        //Without a binary snapshot, lazy mode loads everything as usual.
+        ArrayList<Booking> loaded = lazy != null ?
+                this.checkpoint.loadChanges() : this.checkpoint.load();
+        //Rebuild the store and indexes for the loaded bookings.
+        this.bookings.clear();
+        this.queryIndex.clear();
+        this.lazyIndexed = lazy == null;
+        if (lazy != null && lazy.size() > 0) {
+            this.bookings.attach(lazy);
+            //The highest bookingID also has the highest invoice number.
+            Booking last = lazy.read(lazy.size() - 1);
+            Booking.reserveLoadedNumbers(last.getBookingID(),
+                    last.getInvoiceNo());
+        }
+        for (Booking booking : loaded) {
+            this.bookings.add(booking);
+            if (this.lazyIndexed) {
+                this.queryIndex.add(booking);
+            }
+            //New bookings continue after the highest numbers loaded.
+            Booking.reserveLoadedNumbers(booking.getBookingID(),
+                    booking.getInvoiceNo());
+        }
+        this.checkpoint.start();
+    }
+
+    /**
+     * Method to fold the journal into a new snapshot now instead of waiting
+     * for the background compactor.
+     * @throws IOException  propagates to user when an error occurs with
+     *                      writing the snapshot.
+     */
+    public void checkpoint() throws IOException {
+        this.writer.flush();
+        if (this.repository == null) {
+            this.checkpoint.compact();
         }
     }
 
@@ -312,10 +1104,15 @@ public class BookingDataModel {
      */
     public LocalDate getDepartureDate(int bookingID) {
         LocalDate date = null;
-        //Iterate the array to find the booking.
-        for (Booking i: this.bookings) {
-            if (i.getBookingID() == bookingID) {
-                date = ((HolidayBooking) i).getFlight().getDepartureDate();
+        Booking booking = getBooking(bookingID);
+        if (booking instanceof HolidayBooking) {
+            Lock lock = this.locks.readLock(bookingID);
+            lock.lock();
+            try {
+                date = ((HolidayBooking) booking).getFlight()
+                        .getDepartureDate();
+            } finally {
+                lock.unlock();
             }
         }
         return date;
@@ -326,12 +1123,298 @@ public class BookingDataModel {
      * enter an earlier check-in date.
      * @param bookingID BookingID provided by the user.
      * @param departureDate new departure date provided by the program.
+     * @throws IOException  propagates to user when an error occurs with
+     *                      writing the booking journal.
+     */
+    public void setDepartureDate(int bookingID, LocalDate departureDate) throws IOException {
+        Lock indexing = lockLazyIndexes();
+        Lock lock = this.locks.writeLock(bookingID);
+        lock.lock();
+        try {
+            Booking booking = getBookingForUpdate(bookingID);
+            if (booking instanceof HolidayBooking) {
+                FlightBooking flight = ((HolidayBooking) booking).getFlight();
+                if (this.lazyIndexed) {
+                    this.queryIndex.moveDeparture(bookingID,
+                            flight.getDepartureDate(), departureDate);
+                }
+                flight.setDepartureDate(departureDate);
+                markChanged(booking);
+            }
+        } finally {
+            lock.unlock();
+            unlockLazyIndexes(indexing);
+        }
+    }
+
+    /**
+     * Method to look up a flight in the current flight records.
+     * @param destination String destination entered by the user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @return FlightRecords object for the flight.
+     * @throws BookingException propagates to user when a flight does not exist
+     *                          in a destination.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    private FlightRecords findFlight(String destination, String flightNumber) throws BookingException, IOException {
+        FlightRecords flight = getFlightCatalog().getFlight(destination,
+                flightNumber);
+        /*
+         * Throw a BookingException to the user if FlightRecords object is null.
+         */
+        if (flight == null) {
+            throw new BookingException("***** Destination not found in " +
+                    "flights. *****");
+        }
+        return flight;
+    }
+
+    /**
+     * Method to add a booking to the store and to the query indexes.
+     * @param booking Booking object to add.
+     */
+    private void addBooking(Booking booking) {
+        //The repository has its own indexes.
+        if (this.repository == null) {
+            Lock indexing = lockLazyIndexes();
+            try {
+                this.bookings.add(booking);
+                if (this.lazyIndexed) {
+                    this.queryIndex.add(booking);
+                }
+            } finally {
+                unlockLazyIndexes(indexing);
+            }
+        } else {
+            this.bookings.add(booking);
+            if (!release(booking.getBookingID())) {
+                //The writer may have saved the booking before it was added.
+                this.written.add(booking.getBookingID());
+            }
+        }
+    }
+
+    /**
+     * Method to mark a changed booking dirty. With a repository the booking
+     * is kept in the store until the writer has saved it, so lookups do not
+     * read the older copy from the repository. It is called under the
+     * booking's write lock.
+     * @param booking Booking object that was changed.
+     * @throws IOException propagates to user when the thread is interrupted
+     *                      while waiting for the writer.
+     */
+    private void markChanged(Booking booking) throws IOException {
+        this.writer.markDirty(booking);
+        if (this.repository != null) {
+            this.bookings.addIfAbsent(booking);
+        }
+    }
+
+    /**
+     * Method called by the writer thread with the bookingIDs of a batch it
+     * has saved to the repository, to let go of the bookings held for them.
+     * Bookings that are locked are tried again after the next batch.
+     * @param bookingIDs Collection of the bookingIDs saved.
+     */
+    private void releaseWritten(Collection<Integer> bookingIDs) {
+        this.written.addAll(bookingIDs);
+        //Only try each waiting ID once, as locked ones are queued again.
+        for (int i = this.written.size(); i > 0; i--) {
+            Integer bookingID = this.written.poll();
+            if (bookingID == null) {
+                break;
+            }
+            if (!release(bookingID)) {
+                this.written.add(bookingID);
+            }
+        }
+    }
+
+    /**
+     * Method to remove a booking from the store if it has been saved to the
+     * repository and not changed since.
+     * @param bookingID BookingID of the booking.
+     * @return true if the booking was checked, false if its lock was held.
+     */
+    private boolean release(int bookingID) {
+        Lock lock = this.locks.writeLock(bookingID);
+        //Never wait, so the writer thread is not held up by a booking lock.
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (!this.writer.isDirty(bookingID)) {
+                this.bookings.remove(bookingID);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Method to get a booking from the store, or from the repository when
+     * it has not been added or changed while the program runs.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     */
+    private Booking getBooking(int bookingID) {
+        Booking booking = this.bookings.get(bookingID);
+        if (booking == null && this.repository != null) {
+            //Try-catch statement as the repository is read on demand.
+            try {
+                booking = this.repository.find(bookingID);
+            } catch (IOException e) {
+                System.out.println("An error has occurred.");
+            }
+        }
+        return booking;
+    }
+
+    /**
+     * Method to get a booking that is about to be changed. It is called
+     * under the booking's write lock, so a booking held in the store cannot
+     * be let go of before the change is marked. A booking read from the
+     * repository is only added to the store by markChanged.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     * @throws IOException when the repository cannot be read.
+     */
+    private Booking getBookingForUpdate(int bookingID) throws IOException {
+        Booking booking = this.bookings.getForUpdate(bookingID);
+        if (booking == null && this.repository != null) {
+            booking = this.repository.find(bookingID);
+        }
+        return booking;
+    }
+
+    /**
+     * Method to run a search on the repository once every marked booking
+     * has been saved to it, so the results include them.
+     * @param query RepositoryQuery to run.
+     * @return List of bookings found, empty if the repository cannot be
+     *         read.
+     */
+    private List<Booking> queryRepository(RepositoryQuery query) {
+        //Try-catch statement as searches do not throw to the user.
+        try {
+            this.writer.flush();
+            return query.run();
+        } catch (IOException e) {
+            System.out.println("An error has occurred.");
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Method to build the search indexes in lazy mode, the first time a
+     * search needs them. Every booking is indexed as it is now, so bookings
+     * added or changed before are indexed with their changes. Bookings only
+     * in the lazy file are decoded once for this and not kept.
      */
-    public void setDepartureDate(int bookingID, LocalDate departureDate) {
-        for (Booking i: this.bookings) {
-            if (i.getBookingID() == bookingID) {
-                ((HolidayBooking) i).getFlight().setDepartureDate(departureDate);
+    private void indexLazyBookings() {
+        if (this.lazyIndexed) {
+            return;
+        }
+        Lock indexing = this.lazyIndexing.writeLock();
+        indexing.lock();
+        try {
+            if (!this.lazyIndexed) {
+                this.bookings.forEach(this.queryIndex::add);
+                this.lazyIndexed = true;
             }
+        } finally {
+            indexing.unlock();
+        }
+    }
+
+    /**
+     * Method to stop the lazy search indexes from being built while a
+     * booking is added or changed, so the booking is either indexed by the
+     * build or moved in the built indexes, never both or neither.
+     * @return Lock to give to unlockLazyIndexes, or null when the indexes
+     *         are already built.
+     */
+    private Lock lockLazyIndexes() {
+        if (this.lazyIndexed) {
+            return null;
+        }
+        Lock indexing = this.lazyIndexing.readLock();
+        indexing.lock();
+        return indexing;
+    }
+
+    /**
+     * Method to let the lazy search indexes be built again.
+     * @param indexing Lock returned by lockLazyIndexes, or null.
+     */
+    private void unlockLazyIndexes(Lock indexing) {
+        if (indexing != null) {
+            indexing.unlock();
+        }
+    }
+
+    /**
+     * Method to turn bookingIDs found in an index into bookings.
+     * @param bookingIDs Array of bookingIDs.
+     * @return List of bookings in the same order as the IDs.
+     */
+    private List<Booking> getBookings(int[] bookingIDs) {
+        ArrayList<Booking> found = new ArrayList<>(bookingIDs.length);
+        for (int bookingID : bookingIDs) {
+            found.add(this.bookings.get(bookingID));
+        }
+        return found;
+    }
+
+    /**
+     * Method to get the current snapshot of the flight and holiday records.
+     * The records files are read and watched the first time they are needed;
+     * after that the snapshot is read without any file I/O or locking.
+     * @return RecordsSnapshot containing the current catalogs.
+     * @throws IOException  propagates to user when an error occurs with
+     *                      opening the record files.
+     */
+    private RecordsSnapshot getRecords() throws IOException {
+        RecordsSnapshot snapshot = this.records.getSnapshot();
+        if (snapshot == null) {
+            this.records.start();
+            snapshot = this.records.getSnapshot();
         }
+        return snapshot;
+    }
+
+    /**
+     * Method to get the current flight catalog.
+     * @return FlightCatalog object containing all flight records.
+     * @throws IOException  propagates to user when an error occurs with
+     *                      opening the record files.
+     */
+    private FlightCatalog getFlightCatalog() throws IOException {
+        return getRecords().getFlightCatalog();
+    }
+
+    /**
+     * Method to get the current accommodation catalog.
+     * @return AccommodationCatalog object containing all accommodations.
+     * @throws IOException  propagates to user when an error occurs with
+     *                      opening the record files.
+     */
+    private AccommodationCatalog getAccommodationCatalog() throws IOException {
+        return getRecords().getAccommodationCatalog();
+    }
+
+    /**
+     * This interface is a search run on the BookingRepository.
+     */
+    private interface RepositoryQuery {
+        /**
+         * Method to run the search.
+         * @return List of bookings found.
+         * @throws IOException when the repository cannot be read.
+         */
+        List<Booking> run() throws IOException;
     }
 }
\ No newline at end of file
@@ -0,0 +1,494 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * This class writes bookings to a channel as CSV or JSON Lines, one booking
+ * at a time. Each booking is encoded straight into a fixed-size byte
+ * buffer, which is written to the channel whenever it fills up, so the
+ * memory used is the same however many bookings are exported. Numbers and
+ * dates are written the same way as in the bookings files; text is written
+ * as UTF-8 and escaped for the format.
+ * An exporter keeps state between calls and must only be used by one
+ * thread at a time.
+ */
+public class BookingExporter implements Closeable {
+    //Size of the buffer filled before the channel is written.
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    //Names of the CSV columns. Flight bookings leave the accommodation
+    // columns empty.
+    private static final String[] COLUMNS = {
+            "type", "bookingID", "invoiceNo", "customerName", "bookingDate",
+            "flightNumber", "destination", "departureDate", "passengers",
+            "singleFlightCost", "accommodationName", "accommodationAddress",
+            "checkIn", "checkOut", "singleNightCost", "totalCost"
+    };
+    private static final byte[] HEX = "0123456789abcdef".getBytes(
+            StandardCharsets.US_ASCII);
+    private final WritableByteChannel channel;
+    private final ExportFormat format;
+    private final StringBuilder number;
+    private byte[] buffer;
+    private ByteBuffer wrapped;
+    private int length;
+    private int count;
+    //Whether the next JSON member is the first of its object.
+    private boolean firstMember;
+
+    /**
+     * Class constructor for an exporter with the default buffer size. A CSV
+     * export starts with its header line.
+     * @param channel WritableByteChannel the bookings are written to.
+     * @param format ExportFormat to write in.
+     * @throws IOException propagates to user when the header cannot be
+     *                      written.
+     */
+    public BookingExporter(WritableByteChannel channel, ExportFormat format)
+            throws IOException {
+        this(channel, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Overloaded class constructor for an exporter with a chosen buffer
+     * size.
+     * @param channel WritableByteChannel the bookings are written to.
+     * @param format ExportFormat to write in.
+     * @param bufferSize Number of bytes filled before the channel is
+     *                   written.
+     * @throws IOException propagates to user when the header cannot be
+     *                      written.
+     */
+    public BookingExporter(WritableByteChannel channel, ExportFormat format,
+                           int bufferSize) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.number = new StringBuilder(32);
+        allocate(Math.max(64, bufferSize));
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeAscii(COLUMNS[i]);
+            }
+            writeByte('\n');
+        }
+    }
+
+    /**
+     * Accessor method for count.
+     * @return number of bookings written.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Method to write a booking as one line.
+     * @param booking FlightBooking or HolidayBooking object to write.
+     * @throws IOException propagates to user when the channel cannot be
+     *                      written.
+     */
+    public void write(Booking booking) throws IOException {
+        HolidayBooking holiday = null;
+        FlightBooking flight;
+        if (booking instanceof HolidayBooking) {
+            holiday = (HolidayBooking) booking;
+            flight = holiday.getFlight();
+        } else {
+            flight = (FlightBooking) booking;
+        }
+        if (this.format == ExportFormat.CSV) {
+            writeCsv(booking, flight, holiday);
+        } else {
+            writeJson(booking, flight, holiday);
+        }
+        this.count++;
+    }
+
+    /**
+     * Method to write everything in the buffer to the channel.
+     * @throws IOException propagates to user when the channel cannot be
+     *                      written.
+     */
+    public void flush() throws IOException {
+        this.wrapped.clear().limit(this.length);
+        while (this.wrapped.hasRemaining()) {
+            this.channel.write(this.wrapped);
+        }
+        this.length = 0;
+    }
+
+    /**
+     * Method to flush the buffer and close the channel.
+     * @throws IOException propagates to user when the channel cannot be
+     *                      written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Method to write a booking as a CSV line.
+     * @param booking Booking being written.
+     * @param flight FlightBooking of the booking.
+     * @param holiday HolidayBooking, or null for a flight booking.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeCsv(Booking booking, FlightBooking flight,
+                          HolidayBooking holiday) throws IOException {
+        writeAscii(holiday != null ? "holiday," : "flight,");
+        writeNumber(booking.getBookingID());
+        writeByte(',');
+        writeNumber(booking.getInvoiceNo());
+        writeByte(',');
+        writeCsvText(booking.getCustomerName());
+        writeByte(',');
+        writeDate(booking.getBookingDate());
+        writeByte(',');
+        writeCsvText(flight.getFlightNumber());
+        writeByte(',');
+        writeCsvText(flight.getDestination());
+        writeByte(',');
+        writeDate(flight.getDepartureDate());
+        writeByte(',');
+        writeCsvText(joinPassengers(flight.getPassengers()));
+        writeByte(',');
+        writeMoney(flight.getSingleFlightCostCents());
+        writeByte(',');
+        if (holiday != null) {
+            writeCsvText(holiday.getAccommodationName());
+            writeByte(',');
+            writeCsvText(holiday.getAccommodationAddress());
+            writeByte(',');
+            writeDate(holiday.getCheckIn());
+            writeByte(',');
+            writeDate(holiday.getCheckOut());
+            writeByte(',');
+            writeMoney(holiday.getSingleNightCostCents());
+            writeByte(',');
+            writeMoney(holiday.getTotalCostCents());
+        } else {
+            writeAscii(",,,,,");
+            writeMoney(flight.getTotalCostCents());
+        }
+        writeByte('\n');
+    }
+
+    /**
+     * Method to write a booking as a JSON object on one line.
+     * @param booking Booking being written.
+     * @param flight FlightBooking of the booking.
+     * @param holiday HolidayBooking, or null for a flight booking.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeJson(Booking booking, FlightBooking flight,
+                           HolidayBooking holiday) throws IOException {
+        writeByte('{');
+        this.firstMember = true;
+        writeName("type");
+        writeJsonText(holiday != null ? "holiday" : "flight");
+        writeName("bookingID");
+        writeNumber(booking.getBookingID());
+        writeName("invoiceNo");
+        writeNumber(booking.getInvoiceNo());
+        writeName("customerName");
+        writeJsonText(booking.getCustomerName());
+        writeName("bookingDate");
+        writeJsonDate(booking.getBookingDate());
+        writeName("flightNumber");
+        writeJsonText(flight.getFlightNumber());
+        writeName("destination");
+        writeJsonText(flight.getDestination());
+        writeName("departureDate");
+        writeJsonDate(flight.getDepartureDate());
+        writeName("passengers");
+        writeByte('[');
+        ArrayList<String> passengers = flight.getPassengers();
+        if (passengers != null) {
+            for (int i = 0; i < passengers.size(); i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeJsonText(passengers.get(i));
+            }
+        }
+        writeByte(']');
+        writeName("singleFlightCost");
+        writeMoney(flight.getSingleFlightCostCents());
+        if (holiday != null) {
+            writeName("accommodationName");
+            writeJsonText(holiday.getAccommodationName());
+            writeName("accommodationAddress");
+            writeJsonText(holiday.getAccommodationAddress());
+            writeName("checkIn");
+            writeJsonDate(holiday.getCheckIn());
+            writeName("checkOut");
+            writeJsonDate(holiday.getCheckOut());
+            writeName("singleNightCost");
+            writeMoney(holiday.getSingleNightCostCents());
+            writeName("totalCost");
+            writeMoney(holiday.getTotalCostCents());
+        } else {
+            writeName("totalCost");
+            writeMoney(flight.getTotalCostCents());
+        }
+        writeAscii("}\n");
+    }
+
+    /**
+     * Method to join passengers into one CSV field.
+     * @param passengers ArrayList of passengers.
+     * @return Passengers separated by ";".
+     */
+    private static String joinPassengers(ArrayList<String> passengers) {
+        return passengers == null ? null : String.join(";", passengers);
+    }
+
+    /**
+     * Method to write the name of a JSON member and its colon, with a comma
+     * in front unless it is the first member.
+     * @param name Name of the member, in plain ASCII.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeName(String name) throws IOException {
+        if (!this.firstMember) {
+            writeByte(',');
+        }
+        this.firstMember = false;
+        writeByte('"');
+        writeAscii(name);
+        writeAscii("\":");
+    }
+
+    /**
+     * Method to write a date as a JSON string, or null if there is none.
+     * @param date LocalDate to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeJsonDate(LocalDate date) throws IOException {
+        if (date == null) {
+            writeAscii("null");
+            return;
+        }
+        writeByte('"');
+        writeDate(date);
+        writeByte('"');
+    }
+
+    /**
+     * Method to write a date in the same form as LocalDate.toString. A
+     * missing date is written as nothing.
+     * @param date LocalDate to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeDate(LocalDate date) throws IOException {
+        if (date == null) {
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            writeAscii(date.toString());
+            return;
+        }
+        ensureRoom(10);
+        writeDigits(year, 4);
+        this.buffer[this.length++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        this.buffer[this.length++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+    }
+
+    /**
+     * Method to write a number with a fixed number of digits.
+     * @param value Integer value to write.
+     * @param count Number of digits, padded with zeros in front.
+     */
+    private void writeDigits(int value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            this.buffer[this.length + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        this.length += count;
+    }
+
+    /**
+     * Method to write a whole number.
+     * @param value Integer value to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeNumber(int value) throws IOException {
+        this.number.setLength(0);
+        this.number.append(value);
+        writeAscii(this.number);
+    }
+
+    /**
+     * Method to write an amount of money with two decimals.
+     * @param cents Amount in cents.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeMoney(long cents) throws IOException {
+        this.number.setLength(0);
+        Money.appendTo(this.number, cents);
+        writeAscii(this.number);
+    }
+
+    /**
+     * Method to write a CSV field. A field holding a comma, quote or line
+     * break is quoted, with its quotes doubled. A missing field is written
+     * as nothing.
+     * @param text String to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeCsvText(String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        //Room for every character doubled or fully encoded, and the quotes.
+        ensureRoom(text.length() * 3 + 2);
+        if (quote) {
+            this.buffer[this.length++] = '"';
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                this.buffer[this.length++] = '"';
+            }
+            i = writeChar(text, i);
+        }
+        if (quote) {
+            this.buffer[this.length++] = '"';
+        }
+    }
+
+    /**
+     * Method to write a JSON string, escaping quotes, backslashes and
+     * control characters. A missing string is written as null.
+     * @param text String to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeJsonText(String text) throws IOException {
+        if (text == null) {
+            writeAscii("null");
+            return;
+        }
+        //Room for every character as a \\u escape, and the quotes.
+        ensureRoom(text.length() * 6 + 2);
+        this.buffer[this.length++] = '"';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                this.buffer[this.length++] = '\\';
+                this.buffer[this.length++] = (byte) c;
+            } else if (c < 0x20) {
+                this.buffer[this.length++] = '\\';
+                this.buffer[this.length++] = 'u';
+                this.buffer[this.length++] = '0';
+                this.buffer[this.length++] = '0';
+                this.buffer[this.length++] = HEX[c >> 4];
+                this.buffer[this.length++] = HEX[c & 0xF];
+            } else {
+                i = writeChar(text, i);
+            }
+        }
+        this.buffer[this.length++] = '"';
+    }
+
+    /**
+     * Method to encode one character of a String as UTF-8. The caller has
+     * already made room for it.
+     * @param text String being written.
+     * @param index Index of the character.
+     * @return Index of the last character used, which is the next one when
+     *         the two form a surrogate pair.
+     */
+    private int writeChar(String text, int index) {
+        char c = text.charAt(index);
+        if (c < 0x80) {
+            this.buffer[this.length++] = (byte) c;
+        } else if (c < 0x800) {
+            this.buffer[this.length++] = (byte) (0xC0 | (c >> 6));
+            this.buffer[this.length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && index + 1 < text.length()
+                && Character.isLowSurrogate(text.charAt(index + 1))) {
+            int code = Character.toCodePoint(c, text.charAt(index + 1));
+            this.buffer[this.length++] = (byte) (0xF0 | (code >> 18));
+            this.buffer[this.length++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+            this.buffer[this.length++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+            this.buffer[this.length++] = (byte) (0x80 | (code & 0x3F));
+            return index + 1;
+        } else if (Character.isSurrogate(c)) {
+            //A lone surrogate cannot be encoded, so it is replaced.
+            this.buffer[this.length++] = '?';
+        } else {
+            this.buffer[this.length++] = (byte) (0xE0 | (c >> 12));
+            this.buffer[this.length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            this.buffer[this.length++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return index;
+    }
+
+    /**
+     * Method to write text that is known to be plain ASCII.
+     * @param text CharSequence to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeAscii(CharSequence text) throws IOException {
+        ensureRoom(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            this.buffer[this.length++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Method to write a single byte.
+     * @param b Byte to write.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void writeByte(int b) throws IOException {
+        ensureRoom(1);
+        this.buffer[this.length++] = (byte) b;
+    }
+
+    /**
+     * Method to make room in the buffer, writing it to the channel when it
+     * is too full. The buffer only grows for a single field larger than it.
+     * @param needed Number of bytes about to be written.
+     * @throws IOException when the buffer cannot be flushed.
+     */
+    private void ensureRoom(int needed) throws IOException {
+        if (this.length + needed > this.buffer.length) {
+            flush();
+            if (needed > this.buffer.length) {
+                allocate(needed);
+            }
+        }
+    }
+
+    /**
+     * Method to create an empty buffer.
+     * @param size Number of bytes in the buffer.
+     */
+    private void allocate(int size) {
+        this.buffer = new byte[size];
+        this.wrapped = ByteBuffer.wrap(this.buffer);
+        this.length = 0;
+    }
+}
\ No newline at end of file
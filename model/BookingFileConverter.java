@@ -0,0 +1,104 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * This class converts the bookings files from one StorageFormat to the
+ * other. It is run from the directory holding the files:
+ * java model.BookingFileConverter binary
+ * reads FlightBookings.txt and HolidayBookings.txt and writes Bookings.dat;
+ * java model.BookingFileConverter text
+ * reads Bookings.dat and writes the two text files.
+ * java model.BookingFileConverter partitioned
+ * reads the bookings files of the format chosen by bookings.storage.format
+ * and writes them to BookingPartitions by departure month, in the directory
+ * named by bookings.partitions or "BookingPartitions" if it is not set.
+ * The files being read are left in place.
+ */
+public class BookingFileConverter {
+
+    //Partitions directory used when the bookings.partitions property is not
+    // set.
+    private static final String DEFAULT_PARTITIONS = "BookingPartitions";
+
+    /**
+     * Method to convert the bookings files to the format named by the first
+     * argument.
+     * @param args "binary", "text" or "partitioned". Binary is used when no
+     *             argument is given.
+     */
+    public static void main(String[] args) {
+        StorageFormat target = StorageFormat.BINARY;
+        if (args.length > 0 && args[0].trim().equalsIgnoreCase(
+                "partitioned")) {
+            BookingPartitions partitions = BookingPartitions.fromConfig();
+            if (partitions == null) {
+                partitions = new BookingPartitions(DEFAULT_PARTITIONS,
+                        Boolean.parseBoolean(System.getProperty(
+                                BookingPartitions.COMPRESS_PROPERTY,
+                                "true")));
+            }
+            try {
+                System.out.println("Converted " + partition(partitions) +
+                        " bookings to partitions.");
+            } catch (IOException | RuntimeException e) {
+                System.out.println("The bookings could not be converted: " +
+                        e.getMessage());
+            }
+            return;
+        }
+        if (args.length > 0) {
+            try {
+                target = StorageFormat.valueOf(
+                        args[0].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Usage: java model.BookingFileConverter " +
+                        "[binary|text|partitioned]");
+                return;
+            }
+        }
+        try {
+            int count = convert(target);
+            System.out.println("Converted " + count + " bookings to " +
+                    target.name().toLowerCase(Locale.ROOT) + ".");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("The bookings could not be converted: " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Method to read the bookings files of the other format and write them
+     * in the target format.
+     * @param target StorageFormat to write.
+     * @return Integer value of number of bookings converted.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the bookings files.
+     */
+    public static int convert(StorageFormat target) throws IOException {
+        StorageFormat source = target == StorageFormat.BINARY ?
+                StorageFormat.TEXT : StorageFormat.BINARY;
+        ArrayList<Booking> bookings = new LoadBookings(source).getBookings();
+        new SaveBookings(bookings, target);
+        return bookings.size();
+    }
+
+    /**
+     * Method to read the bookings files and write them to partitions by
+     * departure month. Months that have ended are sealed. The partitions
+     * directory must not hold partitions yet.
+     * @param partitions BookingPartitions to write.
+     * @return Integer value of number of bookings converted.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the bookings files.
+     */
+    public static int partition(BookingPartitions partitions)
+            throws IOException {
+        ArrayList<Booking> bookings =
+                new LoadBookings(StorageFormat.fromConfig()).getBookings();
+        partitions.archive(bookings);
+        return bookings.size();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package model;
+
+/**
+ * This class maps bookingIDs to bookings. The IDs are kept in a plain int
+ * array using open addressing with linear probing, so a lookup needs no
+ * Integer boxing and takes constant time however many bookings there are.
+ */
+public class BookingIndex {
+    //Table is grown when it becomes more than this fraction full.
+    private static final float LOAD_FACTOR = 0.6f;
+    private int[] keys;
+    private Booking[] values;
+    private int size;
+    private int threshold;
+
+    /**
+     * Class constructor to create an empty index.
+     */
+    public BookingIndex() {
+        this(16);
+    }
+
+    /**
+     * Overloaded class constructor to create an empty index sized for a
+     * number of bookings.
+     * @param expectedSize Number of bookings expected to be added.
+     */
+    public BookingIndex(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Method to get the number of bookings in the index.
+     * @return Integer value of number of bookings.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to get the booking with a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     */
+    public Booking get(int bookingID) {
+        int mask = this.keys.length - 1;
+        int slot = hash(bookingID) & mask;
+        //Probe until the ID or an empty slot is found.
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == bookingID) {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Method to check if a bookingID is in the index.
+     * @param bookingID BookingID of the booking.
+     * @return true if ID exists, false if it doesn't.
+     */
+    public boolean containsKey(int bookingID) {
+        return get(bookingID) != null;
+    }
+
+    /**
+     * Method to add a booking to the index. A booking with the same ID is
+     * replaced.
+     * @param booking Booking object to add.
+     * @return Booking that had the same ID before, or null if there was none.
+     */
+    public Booking put(Booking booking) {
+        if (this.size >= this.threshold) {
+            resize();
+        }
+        Booking previous = insert(booking);
+        if (previous == null) {
+            this.size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Method to remove the booking with a bookingID. Later bookings of the
+     * same probe run are moved back into the gap, so lookups still find
+     * them without marking the slot as deleted.
+     * @param bookingID BookingID of the booking.
+     * @return Booking that was removed, or null if no booking has the ID.
+     */
+    public Booking remove(int bookingID) {
+        int mask = this.keys.length - 1;
+        int slot = hash(bookingID) & mask;
+        while (this.values[slot] != null && this.keys[slot] != bookingID) {
+            slot = (slot + 1) & mask;
+        }
+        Booking removed = this.values[slot];
+        if (removed == null) {
+            return null;
+        }
+        int gap = slot;
+        int next = (slot + 1) & mask;
+        while (this.values[next] != null) {
+            int home = hash(this.keys[next]) & mask;
+            //A booking can fill the gap if the gap is between its home slot
+            // and its slot now.
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                this.keys[gap] = this.keys[next];
+                this.values[gap] = this.values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.values[gap] = null;
+        this.size--;
+        return removed;
+    }
+
+    /**
+     * Method to remove every booking from the index.
+     */
+    public void clear() {
+        allocate(16);
+        this.size = 0;
+    }
+
+    /**
+     * Method to store a booking in the table without resizing.
+     * @param booking Booking object to add.
+     * @return Booking that had the same ID before, or null if there was none.
+     */
+    private Booking insert(Booking booking) {
+        int bookingID = booking.getBookingID();
+        int mask = this.keys.length - 1;
+        int slot = hash(bookingID) & mask;
+        while (this.values[slot] != null) {
+            if (this.keys[slot] == bookingID) {
+                Booking previous = this.values[slot];
+                this.values[slot] = booking;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = bookingID;
+        this.values[slot] = booking;
+        return null;
+    }
+
+    /**
+     * Method to double the size of the table and add every booking again.
+     */
+    private void resize() {
+        Booking[] oldValues = this.values;
+        allocate(this.keys.length * 2);
+        for (Booking booking : oldValues) {
+            if (booking != null) {
+                insert(booking);
+            }
+        }
+    }
+
+    /**
+     * Method to create empty arrays for the table.
+     * @param capacity Number of slots, a power of two.
+     */
+    private void allocate(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Booking[capacity];
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Method to spread consecutive bookingIDs across the table.
+     * @param bookingID BookingID of the booking.
+     * @return Mixed hash of the ID.
+     */
+    private static int hash(int bookingID) {
+        int h = bookingID * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
\ No newline at end of file
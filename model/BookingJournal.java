@@ -0,0 +1,387 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is a write-ahead journal of bookings. Every new or changed
+ * booking is appended to the end of the journal as one line holding the
+ * whole booking, in the same form as the bookings files with an "F" or "H"
+ * in front. Saving only needs to force the journal onto the disk instead of
+ * writing every booking again. On loading, the journal is replayed over the
+ * latest snapshot; a later line for a bookingID replaces an earlier one, so
+ * replaying the same line twice does no harm.
+ * The journal is split into numbered generations, one file each. Rolling
+ * the journal closes the current generation so that the BookingCheckpoint
+ * can fold it into a snapshot while bookings go on being appended to the
+ * next one.
+ */
+public class BookingJournal {
+    //Interval used by the PERIODIC policy when none is given.
+    public static final long DEFAULT_SYNC_MILLIS = 1000;
+    private static final String EXTENSION = ".txt";
+    //Each appending thread formats records in its own reused buffer.
+    private static final ThreadLocal<BookingRecordCodec> CODECS =
+            ThreadLocal.withInitial(BookingRecordCodec::new);
+    private final Path directory;
+    private final String prefix;
+    private final JournalSyncPolicy policy;
+    private final long syncMillis;
+    private FileChannel channel;
+    private ScheduledExecutorService syncThread;
+    private boolean unsynced;
+    private int generation;
+    private long size;
+
+    /**
+     * Class constructor for the default journal in the working directory,
+     * forcing every record onto the disk.
+     */
+    public BookingJournal() {
+        this("BookingJournal", JournalSyncPolicy.EVERY_RECORD,
+                DEFAULT_SYNC_MILLIS);
+    }
+
+    /**
+     * Overloaded class constructor for a journal in another location or with
+     * another sync policy.
+     * @param name Path of the journal files without the generation number,
+     *             for example "BookingJournal" for BookingJournal.1.txt.
+     * @param policy When records are forced onto the disk.
+     * @param syncMillis Interval between forces for the PERIODIC policy.
+     */
+    public BookingJournal(String name, JournalSyncPolicy policy,
+                          long syncMillis) {
+        Path path = Paths.get(name).toAbsolutePath();
+        this.directory = path.getParent();
+        this.prefix = path.getFileName() + ".";
+        this.policy = policy;
+        this.syncMillis = syncMillis;
+    }
+
+    /**
+     * Method to read every booking in the journal from a generation onwards,
+     * in the order they were appended. A last line that was only partly
+     * written when the program stopped is ignored and cut off the file.
+     * New bookings are appended to the last generation read.
+     * @param fromGeneration First generation to read. Older generations are
+     *                       already in the snapshot.
+     * @return List of bookings; a bookingID may appear more than once.
+     * @throws IOException propagates to user when the journal cannot be read
+     *                      or a complete line in it cannot be understood.
+     */
+    public synchronized ArrayList<Booking> replay(int fromGeneration) throws IOException {
+        ArrayList<Booking> bookings = new ArrayList<>();
+        this.generation = fromGeneration;
+        for (int stored : getGenerations()) {
+            if (stored >= fromGeneration) {
+                bookings.addAll(readBookings(getFile(stored), true));
+                this.generation = stored;
+            }
+        }
+        this.size = Files.exists(getFile(this.generation)) ?
+                Files.size(getFile(this.generation)) : 0;
+        return bookings;
+    }
+
+    /**
+     * Method to append a booking to the journal. The record is forced onto
+     * the disk according to the sync policy.
+     * @param booking FlightBooking or HolidayBooking object that was added
+     *                or changed.
+     * @throws IOException propagates to user when the journal cannot be
+     *                      written.
+     */
+    public void append(Booking booking) throws IOException {
+        //Format outside the lock so appending threads only wait for the write.
+        BookingRecordCodec codec = CODECS.get();
+        codec.clear();
+        codec.writeTagged(booking);
+        appendRecords(codec.getBuffer(), codec.getLength());
+    }
+
+    /**
+     * Method to append records that are already formatted as journal lines
+     * with one write. Under the EVERY_RECORD policy they are forced onto the
+     * disk together, so a batch of bookings costs one force.
+     * @param records Array holding whole tagged lines.
+     * @param length Number of bytes to append from the start of the array.
+     * @throws IOException propagates to user when the journal cannot be
+     *                      written.
+     */
+    synchronized void appendRecords(byte[] records, int length)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(records, 0, length);
+        open();
+        this.size += length;
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        if (this.policy == JournalSyncPolicy.EVERY_RECORD) {
+            this.channel.force(false);
+        } else {
+            this.unsynced = true;
+        }
+    }
+
+    /**
+     * Method to close the current generation. Later bookings are appended to
+     * the next generation, so the closed one no longer changes.
+     * @return Number of the generation that was closed.
+     * @throws IOException propagates to user when the journal cannot be
+     *                      written.
+     */
+    public synchronized int roll() throws IOException {
+        sync();
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+        int closed = this.generation;
+        this.generation++;
+        this.size = 0;
+        return closed;
+    }
+
+    /**
+     * Method to get when the journal forces its records onto the disk.
+     * @return JournalSyncPolicy of the journal.
+     */
+    public JournalSyncPolicy getPolicy() {
+        return this.policy;
+    }
+
+    /**
+     * Method to get the number of bytes in the current generation.
+     * @return long value of number of bytes.
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Method to force every appended record onto the disk.
+     * @throws IOException propagates to user when the journal cannot be
+     *                      written.
+     */
+    public synchronized void sync() throws IOException {
+        if (this.channel != null && this.unsynced) {
+            this.channel.force(false);
+            this.unsynced = false;
+        }
+    }
+
+    /**
+     * Method to force the journal onto the disk and close it. It is opened
+     * again by the next append.
+     * @throws IOException propagates to user when the journal cannot be
+     *                      written.
+     */
+    public synchronized void close() throws IOException {
+        sync();
+        if (this.syncThread != null) {
+            this.syncThread.shutdown();
+            this.syncThread = null;
+        }
+        if (this.channel != null) {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    /**
+     * Method to read every booking in a closed generation.
+     * @param generation Number of the generation.
+     * @return List of bookings in the order they were appended.
+     * @throws IOException when the generation cannot be read.
+     */
+    ArrayList<Booking> read(int generation) throws IOException {
+        return readBookings(getFile(generation), false);
+    }
+
+    /**
+     * Method to get the numbers of the generations stored on disk.
+     * @return List of generation numbers in ascending order.
+     * @throws IOException when the directory cannot be read.
+     */
+    ArrayList<Integer> getGenerations() throws IOException {
+        return listGenerations(this.directory, this.prefix, EXTENSION);
+    }
+
+    /**
+     * Method to get the file of a generation.
+     * @param generation Number of the generation.
+     * @return Path of the journal file.
+     */
+    Path getFile(int generation) {
+        return this.directory.resolve(this.prefix + generation + EXTENSION);
+    }
+
+    /**
+     * Method to delete every closed generation up to and including one that
+     * has been folded into a snapshot.
+     * @param lastGeneration Number of the last generation to delete.
+     * @throws IOException when a file cannot be deleted.
+     */
+    void deleteThrough(int lastGeneration) throws IOException {
+        for (int stored : getGenerations()) {
+            if (stored <= lastGeneration) {
+                Files.deleteIfExists(getFile(stored));
+            }
+        }
+    }
+
+    /**
+     * Method to find the numbered files of a kind in a directory, such as
+     * journal generations or snapshots.
+     * @param directory Directory holding the files.
+     * @param prefix Start of the file names, up to the number.
+     * @param extension End of the file names, after the number.
+     * @return List of numbers in ascending order.
+     * @throws IOException when the directory cannot be read.
+     */
+    static ArrayList<Integer> listGenerations(Path directory, String prefix,
+                                              String extension)
+            throws IOException {
+        ArrayList<Integer> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                prefix + "*" + extension)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String number = name.substring(prefix.length(),
+                        name.length() - extension.length());
+                //Skip files that only look like generations.
+                if (!number.isEmpty() && number.chars().allMatch(
+                        Character::isDigit)) {
+                    generations.add(Integer.parseInt(number));
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Method to read every booking in a journal file.
+     * @param file Path of the file.
+     * @param truncateTorn true to cut off a last line that has no line
+     *                     separator, which was cut short by a crash.
+     * @return List of bookings in the order they were appended.
+     * @throws IOException when the file cannot be read or a complete line
+     *                      cannot be understood.
+     */
+    private static ArrayList<Booking> readBookings(Path file,
+                                                   boolean truncateTorn)
+            throws IOException {
+        ArrayList<Booking> bookings = new ArrayList<>();
+        BookingRecordCodec codec = new BookingRecordCodec();
+        byte[] bytes = readComplete(file, truncateTorn);
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+                if (end > start) {
+                    bookings.add(parse(codec, bytes, start, end - start));
+                }
+                start = i + 1;
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Method to read the bytes of a file up to the end of its last complete
+     * line.
+     * @param file Path of the file.
+     * @param truncateTorn true to cut off a last line that has no line
+     *                     separator, which was cut short by a crash.
+     * @return Array of bytes, empty if the file does not exist.
+     * @throws IOException when the file cannot be read.
+     */
+    private static byte[] readComplete(Path file, boolean truncateTorn)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return new byte[0];
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        int complete = bytes.length;
+        while (complete > 0 && bytes[complete - 1] != '\n') {
+            complete--;
+        }
+        if (truncateTorn && complete < bytes.length) {
+            try (FileChannel torn = FileChannel.open(file,
+                    StandardOpenOption.WRITE)) {
+                torn.truncate(complete);
+                torn.force(false);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Method to turn one journal line back into a booking.
+     * @param codec BookingRecordCodec used to read the line.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line, without its separator.
+     * @return FlightBooking or HolidayBooking object.
+     * @throws IOException when the line cannot be understood.
+     */
+    static Booking parse(BookingRecordCodec codec, byte[] line, int offset,
+                         int length) throws IOException {
+        //Malformed lines are reported the same way as unreadable files.
+        try {
+            return codec.readTagged(line, offset, length);
+        } catch (RuntimeException e) {
+            throw new IOException("Booking journal is malformed.", e);
+        }
+    }
+
+    /**
+     * Method to open the current generation for appending if it is not open
+     * yet, and to start the background sync for the PERIODIC policy.
+     * @throws IOException when the journal cannot be opened.
+     */
+    private void open() throws IOException {
+        if (this.channel != null) {
+            return;
+        }
+        this.channel = FileChannel.open(getFile(this.generation),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (this.policy == JournalSyncPolicy.PERIODIC &&
+                this.syncThread == null) {
+            this.syncThread = Executors.newSingleThreadScheduledExecutor(
+                    task -> {
+                        Thread thread = new Thread(task, "journal-sync");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.syncThread.scheduleWithFixedDelay(this::syncQuietly,
+                    this.syncMillis, this.syncMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Method run by the background sync. Errors are reported and the next
+     * sync tries again.
+     */
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println("The booking journal could not be saved.");
+        }
+    }
+}
\ No newline at end of file
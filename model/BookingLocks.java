@@ -0,0 +1,54 @@
+package model;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * This class holds a fixed set of read-write locks shared out among the
+ * bookings by bookingID. Changes to bookings on different stripes run in
+ * parallel, while a change to one booking is never seen half done by a
+ * reader of the same booking.
+ */
+public class BookingLocks {
+    //Number of stripes, a power of two.
+    private static final int STRIPES = 64;
+    private final ReentrantReadWriteLock[] stripes;
+
+    /**
+     * Class constructor to create the stripes.
+     */
+    public BookingLocks() {
+        this.stripes = new ReentrantReadWriteLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Method to get the lock to hold while reading a booking.
+     * @param bookingID BookingID of the booking.
+     * @return Read lock of the booking's stripe.
+     */
+    public Lock readLock(int bookingID) {
+        return stripeFor(bookingID).readLock();
+    }
+
+    /**
+     * Method to get the lock to hold while changing a booking.
+     * @param bookingID BookingID of the booking.
+     * @return Write lock of the booking's stripe.
+     */
+    public Lock writeLock(int bookingID) {
+        return stripeFor(bookingID).writeLock();
+    }
+
+    /**
+     * Method to get the stripe for a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Lock of the stripe.
+     */
+    private ReentrantReadWriteLock stripeFor(int bookingID) {
+        //Top bits of a multiplicative hash, so consecutive IDs spread out.
+        return this.stripes[(bookingID * 0x9E3779B9) >>> 26];
+    }
+}
\ No newline at end of file
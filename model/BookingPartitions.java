@@ -0,0 +1,577 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class stores bookings in one binary partition file per departure
+ * month, for example Bookings.2027-02.dat, so that work on current bookings
+ * does not touch years of completed travel. A month that has ended is
+ * sealed the first time it is saved: the bookings of its active partition
+ * are written once to Bookings.2027-02.sealed.dat, or
+ * Bookings.2027-02.sealed.dat.gz when compressed, and the file is never
+ * written again.
+ * Only the active partitions are read by readActive. A booking of an ended
+ * month that is added or changed later is written to an active partition
+ * for that month, which overrides the sealed one when every partition is
+ * read by readAll.
+ * The highest bookingID and invoice number ever written are kept in
+ * Bookings.manifest, so new bookings do not reuse the numbers of bookings
+ * that are only in sealed months.
+ * Partitions are used instead of the bookings files and the snapshots of
+ * the BookingCheckpoint when the directory is named by the system property
+ * bookings.partitions, for example -Dbookings.partitions=BookingPartitions.
+ * Sealed months are compressed unless -Dbookings.partitions.compress=false.
+ */
+public class BookingPartitions {
+    //Name of the system property that names the partitions directory.
+    public static final String PROPERTY = "bookings.partitions";
+    //Name of the system property that turns compression of sealed months
+    // on or off.
+    public static final String COMPRESS_PROPERTY =
+            "bookings.partitions.compress";
+    private static final String PREFIX = "Bookings.";
+    private static final String ACTIVE_EXTENSION = ".dat";
+    private static final String SEALED_EXTENSION = ".sealed.dat";
+    private static final String COMPRESSED_EXTENSION = ".sealed.dat.gz";
+    private static final String MANIFEST = PREFIX + "manifest";
+    private static final String LAST_BOOKING_ID = "lastBookingID";
+    private static final String LAST_INVOICE_NO = "lastInvoiceNo";
+    private static final String CHECKPOINT = "checkpoint";
+    private final Path directory;
+    private final boolean compress;
+    private final YearMonth activeFrom;
+
+    /**
+     * Class constructor for partitions in a directory. Months before the
+     * current month are sealed.
+     * @param directory Path of the directory holding the partitions. It is
+     *                  created when the first partition is written.
+     * @param compress true to compress sealed months.
+     */
+    public BookingPartitions(String directory, boolean compress) {
+        this(directory, compress, YearMonth.now());
+    }
+
+    /**
+     * Overloaded class constructor for partitions with a chosen first
+     * active month.
+     * @param directory Path of the directory holding the partitions.
+     * @param compress true to compress sealed months.
+     * @param activeFrom First month that is not sealed when saved.
+     */
+    public BookingPartitions(String directory, boolean compress,
+                             YearMonth activeFrom) {
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.compress = compress;
+        this.activeFrom = activeFrom;
+    }
+
+    /**
+     * Method to get the partitions named by the system properties.
+     * @return BookingPartitions object, or null if the property naming the
+     *         directory is not set.
+     */
+    public static BookingPartitions fromConfig() {
+        String directory = System.getProperty(PROPERTY);
+        if (directory == null || directory.trim().isEmpty()) {
+            return null;
+        }
+        return new BookingPartitions(directory.trim(), Boolean.parseBoolean(
+                System.getProperty(COMPRESS_PROPERTY, "true")));
+    }
+
+    /**
+     * Method to get the month a booking is stored under.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @return YearMonth of the departure date of the booking's flight.
+     */
+    public static YearMonth getMonth(Booking booking) {
+        FlightBooking flight = booking instanceof HolidayBooking ?
+                ((HolidayBooking) booking).getFlight() :
+                (FlightBooking) booking;
+        return YearMonth.from(flight.getDepartureDate());
+    }
+
+    /**
+     * Method to read the bookings of the active partitions only.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when a partition cannot be
+     *                      read.
+     */
+    public ArrayList<Booking> readActive() throws IOException {
+        ArrayList<Booking> bookings = new ArrayList<>();
+        for (YearMonth month : listMonths(ACTIVE_EXTENSION)) {
+            bookings.addAll(BinaryBookingFile.read(getFile(month,
+                    ACTIVE_EXTENSION)));
+        }
+        bookings.sort(Comparator.comparingInt(Booking::getBookingID));
+        return bookings;
+    }
+
+    /**
+     * Method to read the bookings of every partition, sealed ones included.
+     * A booking in an active partition replaces a sealed one with the same
+     * bookingID, and a booking sealed in a later month replaces one sealed
+     * in an earlier month.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when a partition cannot be
+     *                      read.
+     */
+    public ArrayList<Booking> readAll() throws IOException {
+        TreeMap<Integer, Booking> bookings = new TreeMap<>();
+        for (YearMonth month : getSealedMonths()) {
+            for (Booking booking : readSealed(month)) {
+                bookings.put(booking.getBookingID(), booking);
+            }
+        }
+        for (Booking booking : readActive()) {
+            bookings.put(booking.getBookingID(), booking);
+        }
+        return new ArrayList<>(bookings.values());
+    }
+
+    /**
+     * Method to write the bookings of the active window. Every active
+     * partition is replaced by the bookings given for its month, and active
+     * partitions with no bookings given are deleted, so the list must hold
+     * every active booking, as read by readActive.
+     * A month that has ended and is not sealed yet is sealed with the
+     * bookings that were already in its active partition. Bookings that
+     * arrive in a month after it has ended, because they were added late or
+     * moved there, stay in its active partition and are never sealed. A
+     * booking is then only sealed twice when it moved to a later month, and
+     * readAll lets later months win. A booking of a sealed month that is
+     * given again unchanged, because the caller still holds it from before
+     * the month was sealed, is left in the sealed partition only.
+     * @param bookings List of FlightBooking and HolidayBooking objects.
+     * @throws IOException propagates to user when a partition cannot be
+     *                      written.
+     */
+    public void write(List<Booking> bookings) throws IOException {
+        TreeMap<YearMonth, ArrayList<Booking>> months = groupByMonth(bookings);
+        Files.createDirectories(this.directory);
+        updateNumbers(bookings);
+        TreeSet<YearMonth> sealed = getSealedMonths();
+        for (Map.Entry<YearMonth, ArrayList<Booking>> entry :
+                months.entrySet()) {
+            YearMonth month = entry.getKey();
+            ArrayList<Booking> active = entry.getValue();
+            if (sealed.contains(month)) {
+                active = withoutSealedCopies(month, active);
+            } else if (month.isBefore(this.activeFrom)) {
+                active = sealActive(month, active);
+            }
+            if (active.isEmpty()) {
+                Files.deleteIfExists(getFile(month, ACTIVE_EXTENSION));
+            } else {
+                writeFile(getFile(month, ACTIVE_EXTENSION), active, false);
+            }
+        }
+        //Months whose bookings were all moved have no active partition left.
+        for (YearMonth month : listMonths(ACTIVE_EXTENSION)) {
+            if (!months.containsKey(month)) {
+                Files.deleteIfExists(getFile(month, ACTIVE_EXTENSION));
+            }
+        }
+    }
+
+    /**
+     * Method to write a complete set of bookings to a directory with no
+     * partitions yet, sealing every month that has ended.
+     * @param bookings List of every FlightBooking and HolidayBooking object.
+     * @throws IOException propagates to user when partitions already exist
+     *                      or a partition cannot be written.
+     */
+    public void archive(List<Booking> bookings) throws IOException {
+        if (!getActiveMonths().isEmpty() || !getSealedMonths().isEmpty()) {
+            throw new IOException("Partitions already exist in " +
+                    this.directory + ".");
+        }
+        Files.createDirectories(this.directory);
+        updateNumbers(bookings);
+        for (Map.Entry<YearMonth, ArrayList<Booking>> entry :
+                groupByMonth(bookings).entrySet()) {
+            if (entry.getKey().isBefore(this.activeFrom)) {
+                seal(entry.getKey(), entry.getValue());
+            } else {
+                writeFile(getFile(entry.getKey(), ACTIVE_EXTENSION),
+                        entry.getValue(), false);
+            }
+        }
+    }
+
+    /**
+     * Method to reserve the bookingIDs and invoice numbers of every booking
+     * ever written to the partitions, sealed months included, so that new
+     * bookings continue after them. A directory written before the
+     * manifest existed has its sealed months read once to find them.
+     * @throws IOException propagates to user when the manifest or a
+     *                      partition cannot be read.
+     */
+    public void reserveNumbers() throws IOException {
+        Properties manifest = readManifest();
+        if (manifest.getProperty(LAST_BOOKING_ID) == null &&
+                !getSealedMonths().isEmpty()) {
+            updateNumbers(readAll());
+            manifest = readManifest();
+        }
+        Booking.reserveLoadedNumbers(getNumber(manifest, LAST_BOOKING_ID),
+                getNumber(manifest, LAST_INVOICE_NO));
+    }
+
+    /**
+     * Method to get the number of the last checkpoint written to the
+     * partitions.
+     * @return Integer value of the checkpoint number, or 0 if none has been
+     *         written.
+     * @throws IOException when the manifest cannot be read.
+     */
+    public int getCheckpoint() throws IOException {
+        return getNumber(readManifest(), CHECKPOINT);
+    }
+
+    /**
+     * Method to record that the active partitions hold every journal
+     * generation before a checkpoint number. Called once the partitions of
+     * the checkpoint have been written.
+     * @param checkpoint Number of the checkpoint.
+     * @throws IOException when the manifest cannot be written.
+     */
+    public void setCheckpoint(int checkpoint) throws IOException {
+        Properties manifest = readManifest();
+        manifest.setProperty(CHECKPOINT, Integer.toString(checkpoint));
+        writeManifest(manifest);
+    }
+
+    /**
+     * Method to get the months that have an active partition.
+     * @return Set of months in order.
+     * @throws IOException when the directory cannot be read.
+     */
+    public TreeSet<YearMonth> getActiveMonths() throws IOException {
+        return listMonths(ACTIVE_EXTENSION);
+    }
+
+    /**
+     * Method to get the months that have been sealed.
+     * @return Set of months in order.
+     * @throws IOException when the directory cannot be read.
+     */
+    public TreeSet<YearMonth> getSealedMonths() throws IOException {
+        TreeSet<YearMonth> months = listMonths(SEALED_EXTENSION);
+        months.addAll(listMonths(COMPRESSED_EXTENSION));
+        return months;
+    }
+
+    /**
+     * Method to seal a month that has ended with the bookings that were in
+     * its active partition before this save.
+     * @param month Month to seal.
+     * @param bookings List of the month's bookings being saved.
+     * @return List of the bookings that arrived in the month after it ended,
+     *         which stay active.
+     * @throws IOException when a partition cannot be read or written.
+     */
+    private ArrayList<Booking> sealActive(YearMonth month,
+                                          List<Booking> bookings)
+            throws IOException {
+        HashSet<Integer> previous = new HashSet<>();
+        Path file = getFile(month, ACTIVE_EXTENSION);
+        if (Files.exists(file)) {
+            for (Booking booking : BinaryBookingFile.read(file)) {
+                previous.add(booking.getBookingID());
+            }
+        }
+        ArrayList<Booking> sealing = new ArrayList<>();
+        ArrayList<Booking> arrived = new ArrayList<>();
+        for (Booking booking : bookings) {
+            if (previous.contains(booking.getBookingID())) {
+                sealing.add(booking);
+            } else {
+                arrived.add(booking);
+            }
+        }
+        if (!sealing.isEmpty()) {
+            seal(month, sealing);
+        }
+        return arrived;
+    }
+
+    /**
+     * Method to leave out the bookings of a sealed month that are the same
+     * as their sealed copy and are not in the month's active partition, so
+     * that saving bookings read before the month was sealed does not bring
+     * them back into the active window.
+     * @param month Sealed month.
+     * @param bookings List of the month's bookings being saved.
+     * @return List of the bookings that belong in the active partition.
+     * @throws IOException when a partition cannot be read.
+     */
+    private ArrayList<Booking> withoutSealedCopies(YearMonth month,
+                                                   List<Booking> bookings)
+            throws IOException {
+        HashSet<Integer> active = new HashSet<>();
+        Path file = getFile(month, ACTIVE_EXTENSION);
+        if (Files.exists(file)) {
+            for (Booking booking : BinaryBookingFile.read(file)) {
+                active.add(booking.getBookingID());
+            }
+        }
+        HashMap<Integer, byte[]> sealedRecords = new HashMap<>();
+        for (Booking booking : readSealed(month)) {
+            sealedRecords.put(booking.getBookingID(), encode(booking));
+        }
+        ArrayList<Booking> kept = new ArrayList<>();
+        for (Booking booking : bookings) {
+            byte[] sealedRecord = sealedRecords.get(booking.getBookingID());
+            if (active.contains(booking.getBookingID()) ||
+                    sealedRecord == null ||
+                    !Arrays.equals(sealedRecord, encode(booking))) {
+                kept.add(booking);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Method to encode a booking as a binary record, to compare it with
+     * another.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @return Array holding the record.
+     * @throws IOException when the booking cannot be encoded.
+     */
+    private static byte[] encode(Booking booking) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinaryBookingFile.writeBooking(out, booking);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Method to write the bookings of a month that has ended to its sealed
+     * partition and make the file read-only.
+     * @param month Month to seal.
+     * @param bookings List of every booking of the month.
+     * @throws IOException when the partition cannot be written.
+     */
+    private void seal(YearMonth month, List<Booking> bookings)
+            throws IOException {
+        Path file = getFile(month, this.compress ? COMPRESSED_EXTENSION :
+                SEALED_EXTENSION);
+        writeFile(file, bookings, this.compress);
+        if (!file.toFile().setReadOnly()) {
+            System.out.println("Sealed partition " + month +
+                    " could not be made read-only.");
+        }
+    }
+
+    /**
+     * Method to raise the numbers kept in the manifest to the highest
+     * bookingID and invoice number of the bookings being written.
+     * @param bookings List of FlightBooking and HolidayBooking objects.
+     * @throws IOException when the manifest cannot be read or written.
+     */
+    private void updateNumbers(List<Booking> bookings) throws IOException {
+        Properties manifest = readManifest();
+        int lastBookingID = getNumber(manifest, LAST_BOOKING_ID);
+        int lastInvoiceNo = getNumber(manifest, LAST_INVOICE_NO);
+        boolean raised = manifest.getProperty(LAST_BOOKING_ID) == null;
+        for (Booking booking : bookings) {
+            if (booking.getBookingID() > lastBookingID) {
+                lastBookingID = booking.getBookingID();
+                raised = true;
+            }
+            if (booking.getInvoiceNo() > lastInvoiceNo) {
+                lastInvoiceNo = booking.getInvoiceNo();
+                raised = true;
+            }
+        }
+        if (raised) {
+            manifest.setProperty(LAST_BOOKING_ID,
+                    Integer.toString(lastBookingID));
+            manifest.setProperty(LAST_INVOICE_NO,
+                    Integer.toString(lastInvoiceNo));
+            writeManifest(manifest);
+        }
+    }
+
+    /**
+     * Method to read the manifest of the directory.
+     * @return Properties of the manifest, empty if it does not exist yet.
+     * @throws IOException when the manifest cannot be read.
+     */
+    private Properties readManifest() throws IOException {
+        Properties manifest = new Properties();
+        Path file = this.directory.resolve(MANIFEST);
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                manifest.load(in);
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Method to write the manifest to a temporary file and move it into
+     * place in one step.
+     * @param manifest Properties of the manifest.
+     * @throws IOException when the manifest cannot be written.
+     */
+    private void writeManifest(Properties manifest) throws IOException {
+        Files.createDirectories(this.directory);
+        Path file = this.directory.resolve(MANIFEST);
+        Path temporary = file.resolveSibling(MANIFEST + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            manifest.store(out, null);
+        }
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method to read a number from the manifest.
+     * @param manifest Properties of the manifest.
+     * @param key Name of the number.
+     * @return Integer value of the number, or 0 if it is not set.
+     * @throws IOException when the number is not a whole number.
+     */
+    private static int getNumber(Properties manifest, String key)
+            throws IOException {
+        String value = manifest.getProperty(key);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Partitions manifest is malformed.", e);
+        }
+    }
+
+    /**
+     * Method to group bookings by the month they are stored under.
+     * @param bookings List of FlightBooking and HolidayBooking objects.
+     * @return Map of month to the bookings of the month, in month order.
+     */
+    private static TreeMap<YearMonth, ArrayList<Booking>> groupByMonth(
+            List<Booking> bookings) {
+        TreeMap<YearMonth, ArrayList<Booking>> months = new TreeMap<>();
+        for (Booking booking : bookings) {
+            months.computeIfAbsent(getMonth(booking),
+                    month -> new ArrayList<>()).add(booking);
+        }
+        return months;
+    }
+
+    /**
+     * Method to read the bookings of a sealed month in whichever form it
+     * was written.
+     * @param month Sealed month.
+     * @return List of bookings of the month.
+     * @throws IOException when the partition cannot be read.
+     */
+    private ArrayList<Booking> readSealed(YearMonth month) throws IOException {
+        Path compressed = getFile(month, COMPRESSED_EXTENSION);
+        if (!Files.exists(compressed)) {
+            return BinaryBookingFile.read(getFile(month, SEALED_EXTENSION));
+        }
+        try (InputStream in = new GZIPInputStream(
+                Files.newInputStream(compressed))) {
+            return BinaryBookingFile.read(in);
+        }
+    }
+
+    /**
+     * Method to write a partition to a temporary file and move it into
+     * place in one step, so a crash never leaves a partial partition behind.
+     * @param file Path of the partition.
+     * @param bookings List of bookings of the month.
+     * @param compressed true to compress the partition with GZIP.
+     * @throws IOException when the file cannot be written.
+     */
+    private void writeFile(Path file, List<Booking> bookings,
+                           boolean compressed) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = compressed ?
+                new GZIPOutputStream(Files.newOutputStream(temporary)) :
+                Files.newOutputStream(temporary)) {
+            BinaryBookingFile.write(out, bookings);
+        }
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method to find the months that have a partition of a kind.
+     * @param extension End of the file names, after the month.
+     * @return Set of months in order, empty if the directory does not exist.
+     * @throws IOException when the directory cannot be read.
+     */
+    private TreeSet<YearMonth> listMonths(String extension)
+            throws IOException {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        if (!Files.isDirectory(this.directory)) {
+            return months;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                this.directory, PREFIX + "*" + extension)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    months.add(YearMonth.parse(name.substring(
+                            PREFIX.length(),
+                            name.length() - extension.length())));
+                } catch (DateTimeParseException e) {
+                    //Skip files that only look like partitions of this
+                    // kind, such as sealed partitions when listing active
+                    // ones.
+                }
+            }
+        }
+        return months;
+    }
+
+    /**
+     * Method to get the file of a partition.
+     * @param month Month of the partition.
+     * @param extension End of the file name, after the month.
+     * @return Path of the partition file.
+     */
+    private Path getFile(YearMonth month, String extension) {
+        return this.directory.resolve(PREFIX + month + extension);
+    }
+}
\ No newline at end of file
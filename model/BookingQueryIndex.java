@@ -0,0 +1,230 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * This class holds the secondary indexes over the bookings: bookingIDs by
+ * customer name, by destination, by departure date and by check-in date.
+ * The date indexes are sorted so that a date range only visits the
+ * bookings inside it. The maps are concurrent and each list of IDs is
+ * locked on its own, so bookings can be indexed by many threads at once.
+ */
+public class BookingQueryIndex {
+    private final ConcurrentHashMap<String, IntList> byCustomer;
+    private final ConcurrentHashMap<String, IntList> byDestination;
+    private final ConcurrentSkipListMap<LocalDate, IntList> byDeparture;
+    private final ConcurrentSkipListMap<LocalDate, IntList> byCheckIn;
+
+    /**
+     * Class constructor to create empty indexes.
+     */
+    public BookingQueryIndex() {
+        this.byCustomer = new ConcurrentHashMap<>();
+        this.byDestination = new ConcurrentHashMap<>();
+        this.byDeparture = new ConcurrentSkipListMap<>();
+        this.byCheckIn = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Method to remove every booking from the indexes.
+     */
+    public void clear() {
+        this.byCustomer.clear();
+        this.byDestination.clear();
+        this.byDeparture.clear();
+        this.byCheckIn.clear();
+    }
+
+    /**
+     * Method to add a booking to every index.
+     * @param booking Booking object to add.
+     */
+    public void add(Booking booking) {
+        int bookingID = booking.getBookingID();
+        FlightBooking flight = flightOf(booking);
+        addTo(this.byCustomer, normalise(booking.getCustomerName()), bookingID);
+        if (flight.getDestination() != null) {
+            addTo(this.byDestination, normalise(flight.getDestination()),
+                    bookingID);
+        }
+        if (flight.getDepartureDate() != null) {
+            addTo(this.byDeparture, flight.getDepartureDate(), bookingID);
+        }
+        if (booking instanceof HolidayBooking &&
+                ((HolidayBooking) booking).getCheckIn() != null) {
+            addTo(this.byCheckIn, ((HolidayBooking) booking).getCheckIn(),
+                    bookingID);
+        }
+    }
+
+    /**
+     * Method to move a booking in the departure date index after its
+     * departure date has changed.
+     * @param bookingID BookingID of the booking.
+     * @param oldDate Departure date before the change.
+     * @param newDate Departure date after the change.
+     */
+    public void moveDeparture(int bookingID, LocalDate oldDate,
+                              LocalDate newDate) {
+        move(this.byDeparture, bookingID, oldDate, newDate);
+    }
+
+    /**
+     * Method to move a booking in the check-in date index after its check-in
+     * date has changed.
+     * @param bookingID BookingID of the booking.
+     * @param oldDate Check-in date before the change.
+     * @param newDate Check-in date after the change.
+     */
+    public void moveCheckIn(int bookingID, LocalDate oldDate,
+                            LocalDate newDate) {
+        move(this.byCheckIn, bookingID, oldDate, newDate);
+    }
+
+    /**
+     * Method to get the IDs of the bookings made by a customer.
+     * @param customerName Customer's name, in any case.
+     * @return Array of bookingIDs in the order they were added.
+     */
+    public int[] findByCustomer(String customerName) {
+        return toArray(this.byCustomer.get(normalise(customerName)));
+    }
+
+    /**
+     * Method to get the IDs of the bookings to a destination.
+     * @param destination Destination, in any case.
+     * @return Array of bookingIDs in the order they were added.
+     */
+    public int[] findByDestination(String destination) {
+        return toArray(this.byDestination.get(normalise(destination)));
+    }
+
+    /**
+     * Method to get the IDs of the bookings departing in a date range.
+     * @param from First departure date, inclusive.
+     * @param to Last departure date, inclusive.
+     * @return Array of bookingIDs ordered by departure date.
+     */
+    public int[] findDepartingBetween(LocalDate from, LocalDate to) {
+        return findBetween(this.byDeparture, from, to);
+    }
+
+    /**
+     * Method to get the IDs of the holiday bookings checking in in a date
+     * range.
+     * @param from First check-in date, inclusive.
+     * @param to Last check-in date, inclusive.
+     * @return Array of bookingIDs ordered by check-in date.
+     */
+    public int[] findCheckingInBetween(LocalDate from, LocalDate to) {
+        return findBetween(this.byCheckIn, from, to);
+    }
+
+    /**
+     * Method to get the flight of a booking. A holiday booking's flight
+     * holds its destination and departure date.
+     * @param booking Booking object.
+     * @return FlightBooking object of the booking.
+     */
+    private static FlightBooking flightOf(Booking booking) {
+        if (booking instanceof HolidayBooking) {
+            return ((HolidayBooking) booking).getFlight();
+        }
+        return (FlightBooking) booking;
+    }
+
+    /**
+     * Method to get the IDs in a range of a date index.
+     * @param index Date index to search.
+     * @param from First date, inclusive.
+     * @param to Last date, inclusive.
+     * @return Array of bookingIDs ordered by date.
+     */
+    private static int[] findBetween(
+            ConcurrentSkipListMap<LocalDate, IntList> index, LocalDate from,
+            LocalDate to) {
+        IntList found = new IntList();
+        if (!to.isBefore(from)) {
+            ConcurrentNavigableMap<LocalDate, IntList> range =
+                    index.subMap(from, true, to, true);
+            for (IntList ids : range.values()) {
+                synchronized (ids) {
+                    for (int i = 0; i < ids.size(); i++) {
+                        found.add(ids.get(i));
+                    }
+                }
+            }
+        }
+        return found.toArray();
+    }
+
+    /**
+     * Method to add an ID to the list for a key, creating the list if needed.
+     * @param index Index to add to.
+     * @param key Key of the list.
+     * @param bookingID BookingID to add.
+     * @param <K> Type of the key.
+     */
+    private static <K> void addTo(ConcurrentMap<K, IntList> index, K key,
+                                  int bookingID) {
+        IntList ids = index.computeIfAbsent(key, k -> new IntList());
+        synchronized (ids) {
+            ids.add(bookingID);
+        }
+    }
+
+    /**
+     * Method to move an ID from the list for one date to another. Lists left
+     * empty stay in the index, so an ID added to one concurrently is never
+     * lost.
+     * @param index Date index to update.
+     * @param bookingID BookingID to move.
+     * @param oldDate Date the ID is listed under now.
+     * @param newDate Date the ID should be listed under.
+     */
+    private static void move(ConcurrentSkipListMap<LocalDate, IntList> index,
+                             int bookingID, LocalDate oldDate,
+                             LocalDate newDate) {
+        if (oldDate != null && oldDate.equals(newDate)) {
+            return;
+        }
+        if (oldDate != null) {
+            IntList ids = index.get(oldDate);
+            if (ids != null) {
+                synchronized (ids) {
+                    ids.remove(bookingID);
+                }
+            }
+        }
+        if (newDate != null) {
+            addTo(index, newDate, bookingID);
+        }
+    }
+
+    /**
+     * Method to copy a list of IDs into an array.
+     * @param ids List of IDs, may be null.
+     * @return Array of IDs, empty when the list is null.
+     */
+    private static int[] toArray(IntList ids) {
+        if (ids == null) {
+            return new int[0];
+        }
+        synchronized (ids) {
+            return ids.toArray();
+        }
+    }
+
+    /**
+     * Method to turn a name into the form used as a key in the indexes.
+     * @param name Customer name or destination.
+     * @return Name in the same form as FlightCatalog destinations.
+     */
+    private static String normalise(String name) {
+        return FlightCatalog.normaliseDestination(name);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,676 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * This class reads and writes bookings in the "<" separated form of the
+ * bookings files, where passengers are separated by ">". Numbers and dates
+ * are read straight from the bytes of a line and written straight into a
+ * byte buffer that is reused from one booking to the next, so only the text
+ * fields of a booking ever become Strings. Costs are written with two
+ * decimals, such as "840.00"; costs written as doubles by older versions,
+ * such as "839.9699999999999", are read to the nearest cent. Files saved
+ * by older versions have no line separators, so all their bookings are on
+ * one line; readFlights and readHolidays read every booking of a line.
+ * A "<", ">", backslash or line break in a text field is written with a
+ * backslash in front, "\n" and "\r" standing for the line breaks, so any
+ * name fits on one line. Files saved before names were escaped are read the
+ * same, unless a name in them has a backslash just before one of these.
+ * A codec keeps state between calls and must only be used by one thread at
+ * a time.
+ */
+public class BookingRecordCodec {
+    private static final byte FIELD = '<';
+    private static final byte PASSENGER = '>';
+    private static final byte ESCAPE = '\\';
+    //Largest number of whole digits read without BigDecimal.
+    private static final int EXACT_DIGITS = 16;
+    private final StringBuilder number;
+    private byte[] buffer;
+    private int length;
+    private byte[] input;
+    private int position;
+    private int end;
+
+    /**
+     * Class constructor to create a codec with an empty buffer.
+     */
+    public BookingRecordCodec() {
+        this.number = new StringBuilder(32);
+        this.buffer = new byte[512];
+    }
+
+    /**
+     * Accessor method for buffer. Only the first getLength() bytes are
+     * written.
+     * @return the buffer itself, not a copy.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Accessor method for length.
+     * @return number of bytes written since the last clear.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Method to empty the buffer so it can be written again.
+     */
+    public void clear() {
+        this.length = 0;
+    }
+
+    /**
+     * Method to write a FlightBooking to the buffer as one line.
+     * @param fb FlightBooking object to write.
+     */
+    public void writeFlight(FlightBooking fb) {
+        writeFlightFields(fb, fb);
+        writeByte('\n');
+    }
+
+    /**
+     * Method to write a HolidayBooking to the buffer as one line.
+     * @param hb HolidayBooking object to write.
+     */
+    public void writeHoliday(HolidayBooking hb) {
+        //The booking's own details go in front of its flight's fields.
+        writeFlightFields(hb, hb.getFlight());
+        writeText(hb.getAccommodationName());
+        writeText(hb.getAccommodationAddress());
+        writeDate(hb.getCheckIn());
+        writeDate(hb.getCheckOut());
+        writeMoney(hb.getSingleNightCostCents());
+        writeMoney(hb.getTotalCostCents());
+        writeByte('\n');
+    }
+
+    /**
+     * Method to write a booking to the buffer as one journal line, with "F"
+     * or "H" in front to tell flight and holiday bookings apart.
+     * @param booking FlightBooking or HolidayBooking object to write.
+     */
+    public void writeTagged(Booking booking) {
+        if (booking instanceof HolidayBooking) {
+            writeByte('H');
+            writeByte(FIELD);
+            writeHoliday((HolidayBooking) booking);
+        } else {
+            writeByte('F');
+            writeByte(FIELD);
+            writeFlight((FlightBooking) booking);
+        }
+    }
+
+    /**
+     * Method to read a FlightBooking from a line.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line, without its separator.
+     * @return FlightBooking object.
+     * @throws IllegalArgumentException when the line cannot be understood.
+     */
+    public FlightBooking readFlight(byte[] line, int offset, int length) {
+        start(line, offset, length);
+        FlightBooking fb = readFlightFields();
+        checkEnd();
+        return fb;
+    }
+
+    /**
+     * Method to read a HolidayBooking from a line.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line, without its separator.
+     * @return HolidayBooking object.
+     * @throws IllegalArgumentException when the line cannot be understood.
+     */
+    public HolidayBooking readHoliday(byte[] line, int offset, int length) {
+        start(line, offset, length);
+        HolidayBooking hb = readHolidayFields();
+        checkEnd();
+        return hb;
+    }
+
+    /**
+     * Method to read every FlightBooking in a line, one after another.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line, without its separator.
+     * @param action Consumer called with each booking in order.
+     * @return Number of bookings read.
+     * @throws IllegalArgumentException when a booking cannot be understood,
+     *                                  or the line ends part way through one.
+     */
+    public int readFlights(byte[] line, int offset, int length,
+                           Consumer<Booking> action) {
+        start(line, offset, length);
+        int count = 0;
+        while (this.position < this.end) {
+            action.accept(readFlightFields());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Method to read every HolidayBooking in a line, one after another.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line, without its separator.
+     * @param action Consumer called with each booking in order.
+     * @return Number of bookings read.
+     * @throws IllegalArgumentException when a booking cannot be understood,
+     *                                  or the line ends part way through one.
+     */
+    public int readHolidays(byte[] line, int offset, int length,
+                            Consumer<Booking> action) {
+        start(line, offset, length);
+        int count = 0;
+        while (this.position < this.end) {
+            action.accept(readHolidayFields());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Method to read a booking from a journal line.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line, without its separator.
+     * @return FlightBooking or HolidayBooking object.
+     * @throws IllegalArgumentException when the line cannot be understood.
+     */
+    public Booking readTagged(byte[] line, int offset, int length) {
+        if (length < 2 || line[offset + 1] != FIELD) {
+            throw malformed();
+        }
+        start(line, offset + 2, length - 2);
+        Booking booking;
+        if (line[offset] == 'F') {
+            booking = readFlightFields();
+        } else if (line[offset] == 'H') {
+            booking = readHolidayFields();
+        } else {
+            throw malformed();
+        }
+        checkEnd();
+        return booking;
+    }
+
+    /**
+     * Method to write the fields shared by flight and holiday bookings.
+     * @param booking Booking object being written.
+     * @param fb FlightBooking object with the flight fields.
+     */
+    private void writeFlightFields(Booking booking, FlightBooking fb) {
+        writeInt(booking.getBookingID());
+        writeText(booking.getCustomerName());
+        writeDate(booking.getBookingDate());
+        writeInt(booking.getInvoiceNo());
+        writeText(fb.getFlightNumber());
+        writeText(fb.getDestination());
+        writeDate(fb.getDepartureDate());
+        ArrayList<String> passengers = fb.getPassengers();
+        for (int i = 0; i < passengers.size(); i++) {
+            writeString(passengers.get(i));
+            writeByte(PASSENGER);
+        }
+        writeByte(FIELD);
+        writeMoney(fb.getSingleFlightCostCents());
+        writeMoney(fb.getTotalCostCents());
+    }
+
+    /**
+     * Method to read the fields of a flight booking from the current line.
+     * @return FlightBooking object.
+     */
+    private FlightBooking readFlightFields() {
+        int bookingID = readInt();
+        String customerName = readText();
+        LocalDate bookingDate = readDate();
+        int invoiceNo = readInt();
+        String flightNumber = readText();
+        String destination = readText();
+        LocalDate departureDate = readDate();
+        ArrayList<String> passengers = readPassengers();
+        Money singleFlightCost = Money.ofCents(readCents());
+        Money totalCost = Money.ofCents(readCents());
+        return new FlightBooking(bookingID, customerName, bookingDate,
+                invoiceNo, flightNumber, destination, departureDate,
+                passengers, singleFlightCost, totalCost);
+    }
+
+    /**
+     * Method to read the fields of a holiday booking from the current line.
+     * @return HolidayBooking object.
+     */
+    private HolidayBooking readHolidayFields() {
+        FlightBooking flight = readFlightFields();
+        String accommodationName = readText();
+        String accommodationAddress = readText();
+        LocalDate checkIn = readDate();
+        LocalDate checkOut = readDate();
+        Money singleNightCost = Money.ofCents(readCents());
+        Money totalCost = Money.ofCents(readCents());
+        return new HolidayBooking(flight.getBookingID(),
+                flight.getCustomerName(), flight.getBookingDate(),
+                flight.getInvoiceNo(), flight, accommodationName,
+                accommodationAddress, checkIn, checkOut, singleNightCost,
+                totalCost);
+    }
+
+    /**
+     * Method to make a line the current input.
+     * @param line Array holding the line.
+     * @param offset Index of the first byte of the line.
+     * @param length Number of bytes in the line.
+     */
+    private void start(byte[] line, int offset, int length) {
+        this.input = line;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Method to check that a booking used the whole of the current line.
+     * @throws IllegalArgumentException when bytes are left after it.
+     */
+    private void checkEnd() {
+        if (this.position != this.end) {
+            throw new IllegalArgumentException("Booking record has " +
+                    (this.end - this.position) + " bytes left over after " +
+                    "byte " + this.position + ".");
+        }
+    }
+
+    /**
+     * Method to find the end of the current field.
+     * @return Index of the "<" that ends the field.
+     */
+    private int fieldEnd() {
+        for (int i = this.position; i < this.end; i++) {
+            if (this.input[i] == FIELD) {
+                return i;
+            }
+            if (isEscape(i)) {
+                i++;
+            }
+        }
+        throw malformed();
+    }
+
+    /**
+     * Method to read a text field.
+     * @return String value of the field.
+     */
+    private String readText() {
+        int fieldEnd = fieldEnd();
+        String text = decode(this.position, fieldEnd);
+        this.position = fieldEnd + 1;
+        return text;
+    }
+
+    /**
+     * Method to read the passengers field.
+     * @return List of passenger names.
+     */
+    private ArrayList<String> readPassengers() {
+        int fieldEnd = fieldEnd();
+        ArrayList<String> passengers = new ArrayList<>();
+        int nameStart = this.position;
+        for (int i = this.position; i < fieldEnd; i++) {
+            if (this.input[i] == PASSENGER) {
+                passengers.add(decode(nameStart, i));
+                nameStart = i + 1;
+            } else if (isEscape(i)) {
+                i++;
+            }
+        }
+        this.position = fieldEnd + 1;
+        return passengers;
+    }
+
+    /**
+     * Method to check if a byte of the input is a backslash escaping the
+     * byte after it.
+     * @param index Index of the byte.
+     * @return true if the byte starts an escape.
+     */
+    private boolean isEscape(int index) {
+        if (this.input[index] != ESCAPE || index + 1 >= this.end) {
+            return false;
+        }
+        byte next = this.input[index + 1];
+        return next == FIELD || next == PASSENGER || next == ESCAPE ||
+                next == 'n' || next == 'r';
+    }
+
+    /**
+     * Method to turn a run of the input into a String, removing escapes.
+     * @param start Index of the first byte.
+     * @param stop Index just after the last byte.
+     * @return String value of the bytes.
+     */
+    private String decode(int start, int stop) {
+        int first = start;
+        while (first < stop && !isEscape(first)) {
+            first++;
+        }
+        //Most text has no escapes and is decoded where it is.
+        if (first == stop) {
+            return new String(this.input, start, stop - start,
+                    StandardCharsets.UTF_8);
+        }
+        byte[] text = new byte[stop - start];
+        int length = 0;
+        for (int i = start; i < stop; i++) {
+            byte b = this.input[i];
+            if (isEscape(i)) {
+                b = this.input[++i];
+                b = b == 'n' ? (byte) '\n' : b == 'r' ? (byte) '\r' : b;
+            }
+            text[length++] = b;
+        }
+        return new String(text, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to read a whole number field.
+     * @return Integer value of the field.
+     */
+    private int readInt() {
+        int fieldEnd = fieldEnd();
+        int i = this.position;
+        boolean negative = i < fieldEnd && this.input[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == fieldEnd || fieldEnd - i > 10) {
+            throw malformed();
+        }
+        long value = 0;
+        for (; i < fieldEnd; i++) {
+            value = value * 10 + digit(this.input[i]);
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw malformed();
+        }
+        this.position = fieldEnd + 1;
+        return (int) value;
+    }
+
+    /**
+     * Method to read a decimal field as a number of cents. Plain decimals are
+     * read from their digits, rounding anything past two decimals to the
+     * nearest cent; anything else, such as numbers written with an exponent,
+     * is passed to Money.parseCents.
+     * @return Amount in cents.
+     */
+    private long readCents() {
+        int fieldEnd = fieldEnd();
+        int i = this.position;
+        boolean negative = i < fieldEnd && this.input[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long cents = 0;
+        int digits = 0;
+        int decimals = -1;
+        boolean roundUp = false;
+        boolean plain = i < fieldEnd;
+        for (; plain && i < fieldEnd; i++) {
+            byte b = this.input[i];
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (decimals < 0) {
+                    cents = cents * 10 + (b - '0');
+                    plain = digits <= EXACT_DIGITS;
+                } else if (decimals < 2) {
+                    cents = cents * 10 + (b - '0');
+                    decimals++;
+                } else if (decimals == 2) {
+                    roundUp = b >= '5';
+                    decimals++;
+                }
+            } else if (b == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                plain = false;
+            }
+        }
+        if (plain && digits > 0) {
+            //Scale to cents when fewer than two decimals were written.
+            for (int d = Math.max(decimals, 0); d < 2; d++) {
+                cents *= 10;
+            }
+            cents += roundUp ? 1 : 0;
+            cents = negative ? -cents : cents;
+        } else {
+            try {
+                cents = Money.parseCents(new String(this.input,
+                        this.position, fieldEnd - this.position,
+                        StandardCharsets.US_ASCII));
+            } catch (RuntimeException e) {
+                throw malformed();
+            }
+        }
+        this.position = fieldEnd + 1;
+        return cents;
+    }
+
+    /**
+     * Method to read a date field written as yyyy-MM-dd.
+     * @return LocalDate object.
+     */
+    private LocalDate readDate() {
+        int fieldEnd = fieldEnd();
+        int start = this.position;
+        LocalDate date;
+        //Dates outside years 0 to 9999 have a sign and are parsed as text.
+        if (fieldEnd - start == 10 && this.input[start + 4] == '-' &&
+                this.input[start + 7] == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            try {
+                date = LocalDate.of(year, month, day);
+            } catch (RuntimeException e) {
+                throw malformed();
+            }
+        } else {
+            try {
+                date = LocalDate.parse(new String(this.input, start,
+                        fieldEnd - start, StandardCharsets.US_ASCII));
+            } catch (RuntimeException e) {
+                throw malformed();
+            }
+        }
+        this.position = fieldEnd + 1;
+        return date;
+    }
+
+    /**
+     * Method to read a run of digits as a number.
+     * @param start Index of the first digit.
+     * @param count Number of digits.
+     * @return Integer value of the digits.
+     */
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            value = value * 10 + digit(this.input[i]);
+        }
+        return value;
+    }
+
+    /**
+     * Method to get the value of a digit.
+     * @param b Byte holding an ASCII digit.
+     * @return Integer value between 0 and 9.
+     */
+    private int digit(byte b) {
+        if (b < '0' || b > '9') {
+            throw malformed();
+        }
+        return b - '0';
+    }
+
+    /**
+     * Method to create the exception thrown for a line that cannot be read.
+     * @return IllegalArgumentException with the position of the bad field.
+     */
+    private IllegalArgumentException malformed() {
+        return new IllegalArgumentException("Booking record is malformed " +
+                "near byte " + this.position + ".");
+    }
+
+    /**
+     * Method to write a whole number followed by "<".
+     * @param value Integer value to write.
+     */
+    private void writeInt(int value) {
+        this.number.setLength(0);
+        this.number.append(value);
+        writeNumber();
+    }
+
+    /**
+     * Method to write an amount of money followed by "<", with two
+     * decimals.
+     * @param cents Amount in cents.
+     */
+    private void writeMoney(long cents) {
+        this.number.setLength(0);
+        Money.appendTo(this.number, cents);
+        writeNumber();
+    }
+
+    /**
+     * Method to copy the number built in the StringBuilder into the buffer.
+     */
+    private void writeNumber() {
+        ensureCapacity(this.number.length() + 1);
+        for (int i = 0; i < this.number.length(); i++) {
+            this.buffer[this.length++] = (byte) this.number.charAt(i);
+        }
+        this.buffer[this.length++] = FIELD;
+    }
+
+    /**
+     * Method to write a date followed by "<", in the same form as
+     * LocalDate.toString.
+     * @param date LocalDate object to write.
+     */
+    private void writeDate(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            writeText(date.toString());
+            return;
+        }
+        ensureCapacity(11);
+        writeDigits(year, 4);
+        this.buffer[this.length++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        this.buffer[this.length++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+        this.buffer[this.length++] = FIELD;
+    }
+
+    /**
+     * Method to write a number with a fixed number of digits.
+     * @param value Integer value to write.
+     * @param count Number of digits, padded with zeros in front.
+     */
+    private void writeDigits(int value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            this.buffer[this.length + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        this.length += count;
+    }
+
+    /**
+     * Method to write a text field followed by "<".
+     * @param text String to write.
+     */
+    private void writeText(String text) {
+        writeString(text);
+        writeByte(FIELD);
+    }
+
+    /**
+     * Method to write a String as UTF-8, escaping the separators. ASCII
+     * characters are copied one by one; other text is encoded by the String
+     * itself.
+     * @param text String to write.
+     */
+    private void writeString(String text) {
+        //The text of a field the booking does not have yet is written as
+        // "null", the same as printing it.
+        if (text == null) {
+            text = "null";
+        }
+        int textLength = text.length();
+        ensureCapacity(textLength);
+        int start = this.length;
+        for (int i = 0; i < textLength; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                //Bytes of UTF-8 sequences are never separators.
+                this.length = start;
+                for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                    writeEscaped(b);
+                }
+                return;
+            }
+            writeEscaped(c);
+        }
+    }
+
+    /**
+     * Method to write one byte of text, with a backslash in front if it is
+     * a separator, a backslash or a line break.
+     * @param b Byte of text to write.
+     */
+    private void writeEscaped(int b) {
+        if (b == FIELD || b == PASSENGER || b == ESCAPE) {
+            writeByte(ESCAPE);
+        } else if (b == '\n' || b == '\r') {
+            writeByte(ESCAPE);
+            b = b == '\n' ? 'n' : 'r';
+        }
+        writeByte(b);
+    }
+
+    /**
+     * Method to write a single byte.
+     * @param b Byte to write.
+     */
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        this.buffer[this.length++] = (byte) b;
+    }
+
+    /**
+     * Method to grow the buffer if it has less room than needed.
+     * @param needed Number of bytes about to be written.
+     */
+    private void ensureCapacity(int needed) {
+        if (this.length + needed > this.buffer.length) {
+            byte[] grown = new byte[Math.max(this.length + needed,
+                    this.buffer.length * 2)];
+            System.arraycopy(this.buffer, 0, grown, 0, this.length);
+            this.buffer = grown;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This interface is the storage that the BookingDataModel reads bookings
+ * from and writes new and changed bookings to, when it is not keeping them
+ * in its own journal. FileBookingRepository keeps the bookings files;
+ * JdbcBookingRepository keeps them in an embedded database, so there can be
+ * more bookings than fit on the heap.
+ * The repository is chosen with the system property bookings.repository:
+ * "files" for the bookings files, or a JDBC URL such as
+ * jdbc:h2:./Bookings for a database.
+ */
+public interface BookingRepository extends Closeable {
+    //Name of the system property that chooses the repository.
+    String PROPERTY = "bookings.repository";
+
+    /**
+     * Method to get the booking with a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    Booking find(int bookingID) throws IOException;
+
+    /**
+     * Method to get the booking with the highest bookingID, which also has
+     * the highest invoice number.
+     * @return Booking object, or null if there are no bookings.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    Booking findLast() throws IOException;
+
+    /**
+     * Method to get every booking made by a customer.
+     * @param customerName Customer's name, in any case.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    List<Booking> findByCustomer(String customerName) throws IOException;
+
+    /**
+     * Method to get every booking to a destination.
+     * @param destination Destination, in any case.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    List<Booking> findByDestination(String destination) throws IOException;
+
+    /**
+     * Method to get every booking departing in a date range.
+     * @param from First departure date, inclusive.
+     * @param to Last departure date, inclusive.
+     * @return List of bookings ordered by departure date.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    List<Booking> findDepartingBetween(LocalDate from, LocalDate to)
+            throws IOException;
+
+    /**
+     * Method to get every holiday booking checking in in a date range.
+     * @param from First check-in date, inclusive.
+     * @param to Last check-in date, inclusive.
+     * @return List of bookings ordered by check-in date.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    List<Booking> findCheckingInBetween(LocalDate from, LocalDate to)
+            throws IOException;
+
+    /**
+     * Method to get every booking.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    List<Booking> findAll() throws IOException;
+
+    /**
+     * Method to hand every booking to an action in bookingID order. A
+     * repository that can read its bookings a few at a time overrides this
+     * so that they are never all held at once.
+     * @param action Consumer called with each booking.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    default void forEach(Consumer<Booking> action) throws IOException {
+        for (Booking booking : findAll()) {
+            action.accept(booking);
+        }
+    }
+
+    /**
+     * Method to get the number of bookings stored.
+     * @return Integer value of number of bookings.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      read.
+     */
+    int count() throws IOException;
+
+    /**
+     * Method to store new and changed bookings as one batch. A booking
+     * replaces the stored booking with the same bookingID.
+     * @param bookings Collection of FlightBooking and HolidayBooking objects.
+     * @throws IOException propagates to user when the bookings cannot be
+     *                      written. Then none of them are stored.
+     */
+    void saveAll(Collection<Booking> bookings) throws IOException;
+
+    /**
+     * Method to get the repository chosen by the system property.
+     * @return BookingRepository object, or null if the property is not set.
+     */
+    static BookingRepository fromConfig() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        if (value.trim().equalsIgnoreCase("files")) {
+            return new FileBookingRepository();
+        }
+        return new JdbcBookingRepository(value.trim());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class checks and times the bookings file formats. The text bookings
+ * files are read, written to a binary file, read back, written as text
+ * again and read back once more; every booking must come out of the round
+ * trip as it went in. Each step is run a number of times and its best time
+ * and throughput in MB/s are printed. The files of the round trip are
+ * written to a temporary directory, so the bookings files are only read.
+ * It is run from the directory holding the files:
+ * java model.BookingRoundTrip
+ */
+public class BookingRoundTrip {
+    //Number of times each step is run when no number is given.
+    public static final int DEFAULT_ROUNDS = 5;
+    private final Path flightBookingsFile;
+    private final Path holidayBookingsFile;
+    private final int rounds;
+
+    /**
+     * Class constructor for a round trip of a pair of text bookings files.
+     * @param flightBookingsFile Path of the flight bookings file.
+     * @param holidayBookingsFile Path of the holiday bookings file.
+     * @param rounds Number of times each step is run.
+     */
+    public BookingRoundTrip(Path flightBookingsFile, Path holidayBookingsFile,
+                            int rounds) {
+        this.flightBookingsFile = flightBookingsFile;
+        this.holidayBookingsFile = holidayBookingsFile;
+        this.rounds = Math.max(1, rounds);
+    }
+
+    /**
+     * Method to run the round trip and print the time of each step.
+     * @return true if every booking came back unchanged.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading or writing the bookings files.
+     */
+    public boolean run() throws IOException {
+        Path directory = Files.createTempDirectory("bookings-round-trip");
+        Path binaryFile = directory.resolve("Bookings.dat");
+        Path flightCopy = directory.resolve("FlightBookings.txt");
+        Path holidayCopy = directory.resolve("HolidayBookings.txt");
+        try {
+            ParallelBookingLoader loader = new ParallelBookingLoader();
+            long textSize = size(this.flightBookingsFile) +
+                    size(this.holidayBookingsFile);
+            List<Booking> original = null;
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < this.rounds; i++) {
+                long start = System.nanoTime();
+                original = loader.load(this.flightBookingsFile,
+                        this.holidayBookingsFile);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            printStep("Read text", original.size(), textSize, best);
+
+            best = Long.MAX_VALUE;
+            for (int i = 0; i < this.rounds; i++) {
+                long start = System.nanoTime();
+                BinaryBookingFile.write(binaryFile, original);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            printStep("Wrote binary", original.size(), size(binaryFile),
+                    best);
+
+            List<Booking> binary = null;
+            best = Long.MAX_VALUE;
+            for (int i = 0; i < this.rounds; i++) {
+                long start = System.nanoTime();
+                binary = BinaryBookingFile.read(binaryFile);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            printStep("Read binary", binary.size(), size(binaryFile), best);
+
+            best = Long.MAX_VALUE;
+            for (int i = 0; i < this.rounds; i++) {
+                long start = System.nanoTime();
+                SaveBookings.writeText(binary, flightCopy, holidayCopy);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            long copySize = size(flightCopy) + size(holidayCopy);
+            printStep("Wrote text", binary.size(), copySize, best);
+
+            List<Booking> text = null;
+            best = Long.MAX_VALUE;
+            for (int i = 0; i < this.rounds; i++) {
+                long start = System.nanoTime();
+                text = loader.load(flightCopy, holidayCopy);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            printStep("Read text again", text.size(), copySize, best);
+            return compare(original, text);
+        } finally {
+            Files.deleteIfExists(binaryFile);
+            Files.deleteIfExists(flightCopy);
+            Files.deleteIfExists(holidayCopy);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * Method to compare the bookings before and after the round trip. Two
+     * bookings are the same when they are written as the same journal line.
+     * @param before List of bookings read from the bookings files.
+     * @param after List of bookings read back after the round trip.
+     * @return true if both lists hold the same bookings in the same order.
+     */
+    private static boolean compare(List<Booking> before, List<Booking> after) {
+        BookingRecordCodec beforeCodec = new BookingRecordCodec();
+        BookingRecordCodec afterCodec = new BookingRecordCodec();
+        int matched = 0;
+        int firstDifference = -1;
+        for (int i = 0; i < Math.min(before.size(), after.size()); i++) {
+            beforeCodec.clear();
+            beforeCodec.writeTagged(before.get(i));
+            afterCodec.clear();
+            afterCodec.writeTagged(after.get(i));
+            if (Arrays.equals(beforeCodec.getBuffer(), 0,
+                    beforeCodec.getLength(), afterCodec.getBuffer(), 0,
+                    afterCodec.getLength())) {
+                matched++;
+            } else if (firstDifference < 0) {
+                firstDifference = before.get(i).getBookingID();
+            }
+        }
+        System.out.println("Matched " + matched + " of " + before.size() +
+                " bookings; " + after.size() + " came back.");
+        if (firstDifference >= 0) {
+            System.out.println("First booking changed: " + firstDifference);
+        }
+        return matched == before.size() && matched == after.size();
+    }
+
+    /**
+     * Method to print the best time of a step.
+     * @param step Name of the step.
+     * @param count Number of bookings handled by the step.
+     * @param bytes Number of bytes read or written by the step.
+     * @param nanos Best time of the step in nanoseconds.
+     */
+    private static void printStep(String step, int count, long bytes,
+                                  long nanos) {
+        double seconds = Math.max(nanos, 1) / 1e9;
+        System.out.printf("%-16s %9d bookings %10.1f MB %8.1f ms " +
+                        "%8.1f MB/s%n", step, count, bytes / 1e6,
+                nanos / 1e6, bytes / 1e6 / seconds);
+    }
+
+    /**
+     * Method to get the size of a file that may not exist.
+     * @param file Path of the file.
+     * @return Number of bytes in the file, 0 if it does not exist.
+     * @throws IOException when the file cannot be read.
+     */
+    private static long size(Path file) throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    /**
+     * Method to run the round trip from the command line. The arguments are
+     * optionally the number of rounds, then the flight and holiday bookings
+     * files to read instead of the ones in the current directory.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length != 0 && args.length != 1 && args.length != 3) {
+            System.out.println("Usage: java model.BookingRoundTrip " +
+                    "[rounds [flight bookings file holiday bookings file]]");
+            return;
+        }
+        try {
+            int rounds = args.length > 0 ? Integer.parseInt(args[0]) :
+                    DEFAULT_ROUNDS;
+            Path flights = Paths.get(args.length > 1 ? args[1] :
+                    "FlightBookings.txt");
+            Path holidays = Paths.get(args.length > 2 ? args[2] :
+                    "HolidayBookings.txt");
+            boolean passed = new BookingRoundTrip(flights, holidays, rounds)
+                    .run();
+            System.out.println(passed ? "Round trip passed." :
+                    "Round trip failed.");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("The round trip could not be run: " +
+                    e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,241 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * This class stores the bookings so that many agents can add and look up
+ * bookings at the same time. BookingIDs are spread over a number of
+ * segments, each a BookingIndex with its own lock, so threads working on
+ * different segments never wait for each other. For listing and saving,
+ * the bookings are also kept in a concurrent map sorted by bookingID, which
+ * is changed under the same segment lock so that both always agree.
+ * In lazy mode the store is backed by a LazyBookingFile. Bookings that are
+ * only in the file are decoded when they are looked up; a booking added to
+ * the store replaces the file's version.
+ */
+public class BookingStore {
+    //Number of segments, a power of two.
+    private static final int SEGMENTS = 16;
+    private final BookingIndex[] segments;
+    private final ConcurrentSkipListMap<Integer, Booking> ordered;
+    private volatile LazyBookingFile file;
+
+    /**
+     * Class constructor to create an empty store.
+     */
+    public BookingStore() {
+        this.segments = new BookingIndex[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new BookingIndex();
+        }
+        this.ordered = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * Method to add a booking. A booking with the same ID is replaced.
+     * @param booking Booking object to add.
+     */
+    public void add(Booking booking) {
+        BookingIndex segment = segmentFor(booking.getBookingID());
+        //The segment lock also publishes the booking safely to readers.
+        synchronized (segment) {
+            segment.put(booking);
+            this.ordered.put(booking.getBookingID(), booking);
+        }
+    }
+
+    /**
+     * Method to add a booking unless one with the same ID is already in the
+     * store, for example when a booking read from a BookingRepository is
+     * about to be changed.
+     * @param booking Booking object to add.
+     * @return Booking now in the store with the ID: the one already there,
+     *         or the one given.
+     */
+    public Booking addIfAbsent(Booking booking) {
+        BookingIndex segment = segmentFor(booking.getBookingID());
+        synchronized (segment) {
+            Booking stored = segment.get(booking.getBookingID());
+            if (stored != null) {
+                return stored;
+            }
+            segment.put(booking);
+            this.ordered.put(booking.getBookingID(), booking);
+            return booking;
+        }
+    }
+
+    /**
+     * Method to remove the booking with a bookingID, for example once a
+     * changed booking has been saved to a BookingRepository. A booking that
+     * is also in the lazy file is read from the file again.
+     * @param bookingID BookingID of the booking.
+     */
+    public void remove(int bookingID) {
+        BookingIndex segment = segmentFor(bookingID);
+        synchronized (segment) {
+            if (segment.remove(bookingID) != null) {
+                this.ordered.remove(bookingID);
+            }
+        }
+    }
+
+    /**
+     * Method to back the store with a file of bookings that are decoded when
+     * they are first looked up.
+     * @param file LazyBookingFile, or null to stop using one.
+     */
+    public void attach(LazyBookingFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Method to get the booking with a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     */
+    public Booking get(int bookingID) {
+        BookingIndex segment = segmentFor(bookingID);
+        Booking booking;
+        synchronized (segment) {
+            booking = segment.get(bookingID);
+        }
+        LazyBookingFile lazy = this.file;
+        if (booking == null && lazy != null) {
+            booking = lazy.get(bookingID);
+        }
+        return booking;
+    }
+
+    /**
+     * Method to get a booking that is about to be changed. A booking that is
+     * only in the lazy file is added to the store, so the change is not lost
+     * when the file's cache lets go of it.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     */
+    public Booking getForUpdate(int bookingID) {
+        BookingIndex segment = segmentFor(bookingID);
+        LazyBookingFile lazy = this.file;
+        synchronized (segment) {
+            Booking booking = segment.get(bookingID);
+            if (booking == null && lazy != null) {
+                booking = lazy.get(bookingID);
+                if (booking != null) {
+                    segment.put(booking);
+                    this.ordered.put(bookingID, booking);
+                }
+            }
+            return booking;
+        }
+    }
+
+    /**
+     * Method to check if a bookingID is in the store, without decoding it.
+     * @param bookingID BookingID of the booking.
+     * @return true if ID exists, false if it doesn't.
+     */
+    public boolean contains(int bookingID) {
+        BookingIndex segment = segmentFor(bookingID);
+        synchronized (segment) {
+            if (segment.containsKey(bookingID)) {
+                return true;
+            }
+        }
+        LazyBookingFile lazy = this.file;
+        return lazy != null && lazy.contains(bookingID);
+    }
+
+    /**
+     * Method to get the number of bookings in the store.
+     * @return Integer value of number of bookings.
+     */
+    public int size() {
+        int size = 0;
+        for (BookingIndex segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        LazyBookingFile lazy = this.file;
+        if (lazy != null) {
+            //Bookings in both places are only counted once.
+            size += lazy.size();
+            for (int bookingID : this.ordered.keySet()) {
+                if (lazy.contains(bookingID)) {
+                    size--;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Method to get the bookings in bookingID order. Bookings added while
+     * the list is being built may or may not be included. In lazy mode the
+     * file's bookings come first, in bookingID order, and are decoded
+     * without being cached.
+     * @return New ArrayList of the bookings.
+     */
+    public ArrayList<Booking> toList() {
+        LazyBookingFile lazy = this.file;
+        if (lazy == null) {
+            return new ArrayList<>(this.ordered.values());
+        }
+        ArrayList<Booking> bookings = new ArrayList<>(lazy.size());
+        forEach(bookings::add);
+        return bookings;
+    }
+
+    /**
+     * Method to hand every booking to an action in the same order as
+     * toList, without building a list. Bookings decoded from the lazy file
+     * can be let go of as soon as the action returns, so any number of
+     * bookings can be walked in constant memory.
+     * @param action Consumer called with each booking.
+     */
+    public void forEach(Consumer<Booking> action) {
+        LazyBookingFile lazy = this.file;
+        if (lazy != null) {
+            for (int i = 0; i < lazy.size(); i++) {
+                BookingIndex segment = segmentFor(lazy.getBookingID(i));
+                Booking stored;
+                synchronized (segment) {
+                    stored = segment.get(lazy.getBookingID(i));
+                }
+                action.accept(stored != null ? stored : lazy.read(i));
+            }
+        }
+        for (Booking booking : this.ordered.values()) {
+            if (lazy == null || !lazy.contains(booking.getBookingID())) {
+                action.accept(booking);
+            }
+        }
+    }
+
+    /**
+     * Method to remove every booking from the store and stop using the lazy
+     * file.
+     */
+    public void clear() {
+        for (BookingIndex segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        this.ordered.clear();
+        this.file = null;
+    }
+
+    /**
+     * Method to get the segment that holds a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Segment for the ID.
+     */
+    private BookingIndex segmentFor(int bookingID) {
+        //Top bits of a multiplicative hash, so consecutive IDs spread out.
+        return this.segments[(bookingID * 0x9E3779B9) >>> 28];
+    }
+}
\ No newline at end of file
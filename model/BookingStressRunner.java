@@ -0,0 +1,250 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class checks that bookings can be added, changed and read by many
+ * threads at once. Each thread adds holiday bookings and reads them back,
+ * then changes the dates of the bookings another thread added. Once every
+ * thread has finished, the bookings are saved and loaded again, and the
+ * check fails if two bookings got the same ID or a change is missing.
+ * It is run from a scratch directory holding copies of the record files,
+ * as the bookings it makes are saved there:
+ * java model.BookingStressRunner Sydney 8 1000
+ */
+public class BookingStressRunner {
+    //First departure date given to the bookings.
+    private static final LocalDate FIRST_DEPARTURE = LocalDate.of(2030, 1, 1);
+    private final BookingDataModel model;
+    private final String destination;
+    private final String accommodationName;
+    private final int threads;
+    private final int bookingsPerThread;
+
+    /**
+     * Class constructor for a run against a model.
+     * @param model BookingDataModel the bookings are added to.
+     * @param destination Destination with flights and accommodation.
+     * @param accommodationName Name of the accommodation booked.
+     * @param threads Number of threads adding bookings at once.
+     * @param bookingsPerThread Number of bookings each thread adds.
+     */
+    public BookingStressRunner(BookingDataModel model, String destination,
+                               String accommodationName, int threads,
+                               int bookingsPerThread) {
+        this.model = model;
+        this.destination = destination;
+        this.accommodationName = accommodationName;
+        this.threads = Math.max(1, threads);
+        this.bookingsPerThread = Math.max(1, bookingsPerThread);
+    }
+
+    /**
+     * Method to run the check.
+     * @return true if every booking has its own ID and its last change.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the record files or saving the bookings.
+     */
+    public boolean run() throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<int[]>> adds = new ArrayList<>();
+            for (int t = 0; t < this.threads; t++) {
+                final int thread = t;
+                adds.add(pool.submit(() -> addBookings(thread)));
+            }
+            int[][] bookingIDs = new int[this.threads][];
+            for (int t = 0; t < this.threads; t++) {
+                bookingIDs[t] = get(adds.get(t));
+            }
+            long added = System.nanoTime();
+
+            //Each thread changes the bookings of the next thread, so every
+            // change is made by another thread than the one that added it.
+            List<Future<int[]>> updates = new ArrayList<>();
+            for (int t = 0; t < this.threads; t++) {
+                final int[] others = bookingIDs[(t + 1) % this.threads];
+                updates.add(pool.submit(() -> updateBookings(others)));
+            }
+            for (Future<int[]> update : updates) {
+                get(update);
+            }
+            long updated = System.nanoTime();
+            int total = this.threads * this.bookingsPerThread;
+            System.out.println("Added " + total + " bookings on " +
+                    this.threads + " threads in " +
+                    (added - start) / 1_000_000 + " ms and changed them in " +
+                    (updated - added) / 1_000_000 + " ms.");
+        } finally {
+            pool.shutdown();
+        }
+        return checkBookings();
+    }
+
+    /**
+     * Method run by each thread to add its bookings. Each booking is looked
+     * up again straight after it is added.
+     * @param thread Number of the thread.
+     * @return Array of the bookingIDs added, in order.
+     * @throws BookingException when the destination has no flights.
+     * @throws IOException when the bookings cannot be written.
+     */
+    private int[] addBookings(int thread)
+            throws BookingException, IOException {
+        int[] bookingIDs = new int[this.bookingsPerThread];
+        ArrayList<String> passengers = new ArrayList<>();
+        passengers.add("Passenger");
+        for (int i = 0; i < this.bookingsPerThread; i++) {
+            LocalDate departure = FIRST_DEPARTURE.plusDays(i % 365);
+            bookingIDs[i] = this.model.addHolidayBooking(
+                    customerName(thread, i), this.destination, departure,
+                    passengers, this.accommodationName, departure,
+                    departure.plusDays(3));
+            if (!this.model.checkBookingIDExist(bookingIDs[i])) {
+                throw new IllegalStateException("Booking " + bookingIDs[i] +
+                        " could not be found after it was added.");
+            }
+        }
+        return bookingIDs;
+    }
+
+    /**
+     * Method run by each thread to change the dates of another thread's
+     * bookings. The check-in is moved before the departure, which moves the
+     * departure too.
+     * @param bookingIDs Array of the bookingIDs to change.
+     * @return Array of the bookingIDs changed.
+     * @throws IOException when the bookings cannot be written.
+     */
+    private int[] updateBookings(int[] bookingIDs) throws IOException {
+        for (int i = 0; i < bookingIDs.length; i++) {
+            LocalDate checkIn = expectedDeparture(i);
+            this.model.updateHolidayBooking(bookingIDs[i], checkIn,
+                    checkIn.plusDays(3));
+        }
+        return bookingIDs;
+    }
+
+    /**
+     * Method to save and load the bookings again, then check that no two
+     * have the same ID and that each has its changed departure date.
+     * @return true if no ID is repeated and no change is missing.
+     * @throws IOException when the bookings cannot be saved or loaded.
+     */
+    private boolean checkBookings() throws IOException {
+        this.model.saveToFiles();
+        this.model.loadFiles();
+        HashSet<Integer> seen = new HashSet<>();
+        int duplicates = 0;
+        int missing = 0;
+        int lostUpdates = 0;
+        for (int t = 0; t < this.threads; t++) {
+            for (int i = 0; i < this.bookingsPerThread; i++) {
+                List<Booking> found = this.model.findBookingsByCustomer(
+                        customerName(t, i));
+                if (found.isEmpty()) {
+                    missing++;
+                    continue;
+                }
+                for (Booking booking : found) {
+                    if (!seen.add(booking.getBookingID())) {
+                        duplicates++;
+                    }
+                    if (!expectedDeparture(i).equals(
+                            this.model.getDepartureDate(
+                                    booking.getBookingID()))) {
+                        lostUpdates++;
+                    }
+                }
+            }
+        }
+        System.out.println("Missing bookings: " + missing);
+        System.out.println("Duplicate bookingIDs: " + duplicates);
+        System.out.println("Lost updates: " + lostUpdates);
+        return missing == 0 && duplicates == 0 && lostUpdates == 0;
+    }
+
+    /**
+     * Method to get the result of a thread, passing on what it threw.
+     * @param future Future of the thread's work.
+     * @return Array of the bookingIDs the thread handled.
+     * @throws IOException when the thread failed to write the bookings.
+     */
+    private static int[] get(Future<int[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking bookings.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    /**
+     * Method to get the customer name of a booking, which is unique to it.
+     * @param thread Number of the thread that added the booking.
+     * @param index Position of the booking among that thread's bookings.
+     * @return String customer name.
+     */
+    private static String customerName(int thread, int index) {
+        return "Stress " + thread + "-" + index;
+    }
+
+    /**
+     * Method to get the departure date a booking should have once changed.
+     * @param index Position of the booking among its thread's bookings.
+     * @return LocalDate before the booking's first departure date.
+     */
+    private static LocalDate expectedDeparture(int index) {
+        return FIRST_DEPARTURE.plusDays(index % 365).minusDays(1 + index % 7);
+    }
+
+    /**
+     * Method to run the check from the command line. The arguments are the
+     * destination, then optionally the number of threads and the number of
+     * bookings each thread adds.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            System.out.println("Usage: java model.BookingStressRunner " +
+                    "<destination> [threads] [bookings per thread]");
+            return;
+        }
+        try {
+            int threads = args.length > 1 ? Integer.parseInt(args[1]) :
+                    Runtime.getRuntime().availableProcessors();
+            int bookingsPerThread = args.length > 2 ?
+                    Integer.parseInt(args[2]) : 1000;
+            BookingDataModel model = new BookingDataModel();
+            model.loadFiles();
+            String[] accommodation = model.getAccommodationList(args[0]);
+            if (accommodation == null || accommodation.length == 0) {
+                System.out.println("No accommodation was found in " +
+                        args[0] + ".");
+                return;
+            }
+            boolean passed = new BookingStressRunner(model, args[0],
+                    accommodation[0], threads, bookingsPerThread).run();
+            System.out.println(passed ? "Stress check passed." :
+                    "Stress check failed.");
+        } catch (IOException | RuntimeException e) {
+            System.out.println("The stress check could not be run: " +
+                    e.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,433 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * This class writes new and changed bookings to the BookingJournal on a
+ * background thread, so booking methods return without waiting for the
+ * disk. Under the EVERY_RECORD sync policy they do wait until their booking
+ * is forced onto the disk, but bookings marked by other threads meanwhile
+ * share the same write and force. A booking is formatted when it is marked
+ * dirty and kept in a dirty set by bookingID; a booking changed again
+ * before it is written is only written once, in its latest form. The dirty
+ * bookings are written as one group commit when the oldest has waited for
+ * the commit delay, or at once when a batch is full. Callers that mark bookings faster than they can be
+ * written wait until the set has room, so the bookings that are not on the
+ * disk yet are always bounded.
+ * flush is a barrier: it returns once every booking marked before it was
+ * called is in the journal.
+ * A writer for a BookingRepository commits each batch to the repository
+ * with one saveAll instead, and can tell a listener which bookings each
+ * batch saved, so copies kept until then can be let go. It keeps each
+ * booking as a BinaryBookingFile record, which holds any name.
+ */
+public class BookingWriter {
+    //Number of dirty bookings that are written without waiting for the delay.
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    //Longest time a dirty booking waits before it is written.
+    public static final long DEFAULT_DELAY_MILLIS = 20;
+    //Number of full batches that can be dirty before callers wait.
+    private static final int MAX_PENDING_BATCHES = 4;
+    //Shortest time between attempts to write a batch that failed.
+    private static final long RETRY_MILLIS = 1000;
+    //Each marking thread formats records in its own reused buffer.
+    private static final ThreadLocal<BookingRecordCodec> CODECS =
+            ThreadLocal.withInitial(BookingRecordCodec::new);
+    private final BookingJournal journal;
+    private final BookingRepository repository;
+    private final int batchSize;
+    private final long delayMillis;
+    //Whether markDirty waits until the booking is in the journal.
+    private final boolean waitForDisk;
+    private LinkedHashMap<Integer, byte[]> dirty;
+    //Batch the background thread is writing, or null.
+    private LinkedHashMap<Integer, byte[]> writing;
+    private Consumer<Collection<Integer>> writtenListener;
+    //Time the oldest booking in the dirty set was marked.
+    private long firstDirtyNanos;
+    //Number of bookings marked and written so far, used by flush.
+    private long marked;
+    private long written;
+    private boolean flushRequested;
+    private IOException failure;
+    private Thread writer;
+
+    /**
+     * Class constructor for a writer with the default batch size and commit
+     * delay.
+     * @param journal BookingJournal that the bookings are written to.
+     */
+    public BookingWriter(BookingJournal journal) {
+        this(journal, DEFAULT_BATCH_SIZE, DEFAULT_DELAY_MILLIS);
+    }
+
+    /**
+     * Overloaded class constructor for a writer with another batch size or
+     * commit delay.
+     * @param journal BookingJournal that the bookings are written to.
+     * @param batchSize Number of dirty bookings that are written at once.
+     * @param delayMillis Longest time a dirty booking waits to be written.
+     */
+    public BookingWriter(BookingJournal journal, int batchSize,
+                         long delayMillis) {
+        this(journal, null, batchSize, delayMillis);
+    }
+
+    /**
+     * Overloaded class constructor for a writer that commits to a
+     * repository, with the default batch size and commit delay.
+     * @param repository BookingRepository that the bookings are saved to.
+     */
+    public BookingWriter(BookingRepository repository) {
+        this(null, repository, DEFAULT_BATCH_SIZE, DEFAULT_DELAY_MILLIS);
+    }
+
+    /**
+     * Overloaded class constructor for a writer to either a journal or a
+     * repository.
+     * @param journal BookingJournal that the bookings are written to, or
+     *                null.
+     * @param repository BookingRepository that the bookings are saved to,
+     *                   used when there is no journal.
+     * @param batchSize Number of dirty bookings that are written at once.
+     * @param delayMillis Longest time a dirty booking waits to be written.
+     */
+    private BookingWriter(BookingJournal journal,
+                          BookingRepository repository, int batchSize,
+                          long delayMillis) {
+        this.journal = journal;
+        this.repository = repository;
+        this.batchSize = Math.max(1, batchSize);
+        this.delayMillis = Math.max(0, delayMillis);
+        this.waitForDisk = journal != null &&
+                journal.getPolicy() == JournalSyncPolicy.EVERY_RECORD;
+        this.dirty = new LinkedHashMap<>();
+    }
+
+    /**
+     * Method to mark a new or changed booking to be written. The booking is
+     * formatted straight away, so it must not be changed by another thread
+     * during the call; later changes need another call. Under the
+     * EVERY_RECORD policy the method returns once the booking is forced onto
+     * the disk.
+     * @param booking FlightBooking or HolidayBooking object that was added
+     *                or changed.
+     * @throws IOException propagates to user when the thread is interrupted
+     *                      while waiting for room in the dirty set, when the
+     *                      last batch could not be written and is still
+     *                      being tried again, or when the booking has to be
+     *                      on the disk and could not be written. Then this
+     *                      change is not written.
+     */
+    public void markDirty(Booking booking) throws IOException {
+        //Format outside the lock so marking threads only wait for the map.
+        byte[] record = format(booking);
+        synchronized (this) {
+            startWriter();
+            //Callers are told of a failing disk instead of queueing more
+            // bookings behind a batch that cannot be written.
+            if (this.failure != null) {
+                throw new IOException("The bookings could not be written.",
+                        this.failure);
+            }
+            //Wait for the writer when the disk cannot keep up.
+            while (this.dirty.size() >= this.batchSize * MAX_PENDING_BATCHES &&
+                    !this.dirty.containsKey(booking.getBookingID())) {
+                waitForWriter();
+            }
+            if (this.dirty.isEmpty()) {
+                this.firstDirtyNanos = System.nanoTime();
+                //The writer sleeps until woken while there is nothing to do.
+                notifyAll();
+            }
+            this.dirty.put(booking.getBookingID(), record);
+            this.marked++;
+            if (this.waitForDisk) {
+                try {
+                    awaitWritten(this.marked);
+                } catch (IOException e) {
+                    //The failed batch is tried again, but not this change.
+                    this.dirty.remove(booking.getBookingID(), record);
+                    throw e;
+                }
+            } else if (this.dirty.size() >= this.batchSize) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Method to set the listener told the bookingIDs of each batch the
+     * background thread has written.
+     * @param listener Consumer of the bookingIDs, called on the background
+     *                 thread without the writer locked, or null for none.
+     */
+    public synchronized void setWrittenListener(
+            Consumer<Collection<Integer>> listener) {
+        this.writtenListener = listener;
+    }
+
+    /**
+     * Method to check if a booking has been marked and is not written yet.
+     * @param bookingID BookingID of the booking.
+     * @return true if the booking is dirty or in the batch being written.
+     */
+    public synchronized boolean isDirty(int bookingID) {
+        return this.dirty.containsKey(bookingID) ||
+                (this.writing != null && this.writing.containsKey(bookingID));
+    }
+
+    /**
+     * Method to write a batch of new bookings at once and wait until they
+     * are in the journal. Bookings marked before are written first; the
+     * batch itself is written with one commit on the calling thread and
+     * never goes into the dirty set, so a batch that fails is not tried
+     * again later and none of its bookings are ever written.
+     * @param bookings Collection of FlightBooking and HolidayBooking objects
+     *                 that no other thread changes or marks during the call.
+     * @throws IOException propagates to user when the bookings could not be
+     *                      written.
+     */
+    public void commit(Collection<Booking> bookings) throws IOException {
+        LinkedHashMap<Integer, byte[]> batch = new LinkedHashMap<>();
+        for (Booking booking : bookings) {
+            batch.put(booking.getBookingID(), format(booking));
+        }
+        flush();
+        write(batch);
+    }
+
+    /**
+     * Method to write every booking marked so far and wait until it is in
+     * the journal.
+     * @throws IOException propagates to user when the bookings could not be
+     *                      written.
+     */
+    public synchronized void flush() throws IOException {
+        awaitWritten(this.marked);
+    }
+
+    /**
+     * Method to wait until a number of marked bookings have been written,
+     * asking the background thread to write them at once.
+     * @param target Number of bookings marked that must be written.
+     * @throws IOException when the bookings could not be written.
+     */
+    private void awaitWritten(long target) throws IOException {
+        while (this.written < target) {
+            if (this.failure != null) {
+                throw new IOException("The bookings could not be written.",
+                        this.failure);
+            }
+            //Only a new request wakes anyone, so waiting threads do not keep
+            // waking each other while the writer waits for the lock.
+            if (!this.flushRequested) {
+                this.flushRequested = true;
+                notifyAll();
+            }
+            waitForWriter();
+        }
+    }
+
+    /**
+     * Method to write every marked booking and stop the background thread.
+     * It is started again by the next booking marked.
+     * @throws IOException propagates to user when the bookings could not be
+     *                      written.
+     */
+    public void close() throws IOException {
+        Thread stopped;
+        synchronized (this) {
+            flush();
+            stopped = this.writer;
+            this.writer = null;
+            notifyAll();
+        }
+        if (stopped != null) {
+            try {
+                stopped.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Method to format a booking as a journal line, or as a binary record
+     * for a repository.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @return Array holding the line or record.
+     * @throws IOException when the booking cannot be formatted.
+     */
+    private byte[] format(Booking booking) throws IOException {
+        if (this.journal == null) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                BinaryBookingFile.writeBooking(out, booking);
+            }
+            return bytes.toByteArray();
+        }
+        BookingRecordCodec codec = CODECS.get();
+        codec.clear();
+        codec.writeTagged(booking);
+        return Arrays.copyOf(codec.getBuffer(), codec.getLength());
+    }
+
+    /**
+     * Method to start the background thread if it is not running.
+     */
+    private void startWriter() {
+        if (this.writer == null) {
+            this.writer = new Thread(this::run, "booking-writer");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+
+    /**
+     * Method to wait until the writer thread has written a batch.
+     * @throws IOException when the thread is interrupted while waiting.
+     */
+    private void waitForWriter() throws IOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing bookings.", e);
+        }
+    }
+
+    /**
+     * Method run by the background thread. It takes the dirty set once a
+     * threshold is reached and writes it to the journal with one append.
+     * A batch that fails is put back under any newer changes and tried
+     * again after the next delay; until it is written, markDirty and flush
+     * report the failure to their callers.
+     */
+    private void run() {
+        while (true) {
+            LinkedHashMap<Integer, byte[]> batch;
+            long target;
+            Consumer<Collection<Integer>> listener;
+            synchronized (this) {
+                try {
+                    while (this.writer == Thread.currentThread() &&
+                            !isDue()) {
+                        long waitMillis = this.dirty.isEmpty() ? 0 :
+                                Math.max(1, this.delayMillis -
+                                        (System.nanoTime() -
+                                                this.firstDirtyNanos) /
+                                                1_000_000);
+                        wait(waitMillis);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (this.dirty.isEmpty()) {
+                    //Only reached when the writer has been stopped.
+                    return;
+                }
+                batch = this.dirty;
+                target = this.marked;
+                this.writing = batch;
+                this.dirty = new LinkedHashMap<>();
+                this.flushRequested = false;
+            }
+
+            IOException error = null;
+            try {
+                write(batch);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (this) {
+                this.writing = null;
+                listener = this.writtenListener;
+                if (error == null) {
+                    this.written = Math.max(this.written, target);
+                    this.failure = null;
+                } else {
+                    System.out.println("The bookings could not be saved.");
+                    //Changes marked while writing are newer than the batch.
+                    for (Map.Entry<Integer, byte[]> entry : batch.entrySet()) {
+                        this.dirty.putIfAbsent(entry.getKey(),
+                                entry.getValue());
+                    }
+                    this.firstDirtyNanos = System.nanoTime();
+                    this.failure = error;
+                }
+                notifyAll();
+                if (error != null) {
+                    //Give the disk time to recover before trying again.
+                    try {
+                        wait(Math.max(RETRY_MILLIS, this.delayMillis));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            if (error == null && listener != null) {
+                listener.accept(batch.keySet());
+            }
+        }
+    }
+
+    /**
+     * Method to check if the dirty set should be written now.
+     * @return true if it is full, its oldest booking has waited for the
+     *         commit delay or a flush is waiting.
+     */
+    private boolean isDue() {
+        if (this.dirty.isEmpty()) {
+            return false;
+        }
+        return this.flushRequested || this.dirty.size() >= this.batchSize ||
+                System.nanoTime() - this.firstDirtyNanos >=
+                        this.delayMillis * 1_000_000;
+    }
+
+    /**
+     * Method to write a batch of formatted bookings to the journal, or to
+     * save them to the repository.
+     * @param batch Map of bookingIDs to journal lines, or to binary records
+     *              for a repository.
+     * @throws IOException when the journal or repository cannot be
+     *                      written.
+     */
+    private void write(Map<Integer, byte[]> batch) throws IOException {
+        if (this.journal == null) {
+            //Records are read back into new bookings, so the batch is saved
+            // as it was when marked.
+            ArrayList<Booking> bookings = new ArrayList<>(batch.size());
+            for (byte[] record : batch.values()) {
+                DataInputStream in = new DataInputStream(
+                        new ByteArrayInputStream(record));
+                bookings.add(BinaryBookingFile.readBooking(in, in.read()));
+            }
+            this.repository.saveAll(bookings);
+            return;
+        }
+        int length = 0;
+        for (byte[] record : batch.values()) {
+            length += record.length;
+        }
+        byte[] records = new byte[length];
+        int offset = 0;
+        for (byte[] record : batch.values()) {
+            System.arraycopy(record, 0, records, offset, record.length);
+            offset += record.length;
+        }
+        this.journal.appendRecords(records, length);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,439 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class imports a partner feed of bookings in bulk. The feed has one
+ * booking per line with comma separated fields:
+ * F,customer,destination,flight number,departure date,passengers
+ * H,customer,destination,flight number,departure date,passengers,
+ * accommodation,check-in date,number of nights
+ * Dates are yyyy-mm-dd, passengers are separated by ';' and an empty
+ * flight number books the cheapest flight. Lines starting with '#' are
+ * skipped.
+ * Rows go through four stages in batches: parse the fields, validate the
+ * destination, flight and accommodation against the records, price the
+ * booking, and append the batch to the BookingDataModel with one commit.
+ * Parsing, validating and pricing each run on their own pool of worker
+ * threads and the stages are connected by bounded queues, so a slow stage
+ * holds the others back instead of filling the heap. Every row is checked
+ * against the same RecordsSnapshot, which is read from memory.
+ * It is run from the directory holding the files:
+ * java model.BulkBookingImporter feed.csv
+ */
+public class BulkBookingImporter {
+    //Number of rows appended with one commit.
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    //Number of batches each queue holds for each worker reading from it.
+    private static final int QUEUE_BATCHES_PER_WORKER = 2;
+    //Batch put on a queue after the last one.
+    private static final Batch END = new Batch(new ArrayList<>());
+    private final BookingDataModel model;
+    private final RecordsSnapshot records;
+    private final int workers;
+    private final int batchSize;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private ArrayList<String> rejects;
+    private volatile IOException failure;
+
+    /**
+     * Class constructor for an importer with one worker per processor in
+     * each stage and the default batch size. Objects are created by the
+     * BookingDataModel.
+     * @param model BookingDataModel that bookings are appended to.
+     * @param records RecordsSnapshot that rows are validated and priced
+     *                against.
+     */
+    BulkBookingImporter(BookingDataModel model, RecordsSnapshot records) {
+        this(model, records, Runtime.getRuntime().availableProcessors(),
+                DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Overloaded class constructor for an importer with a chosen number of
+     * workers and batch size.
+     * @param model BookingDataModel that bookings are appended to.
+     * @param records RecordsSnapshot that rows are validated and priced
+     *                against.
+     * @param workers Number of threads in each worker stage.
+     * @param batchSize Number of rows appended with one commit.
+     */
+    BulkBookingImporter(BookingDataModel model, RecordsSnapshot records,
+                        int workers, int batchSize) {
+        this.model = model;
+        this.records = records;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Method to import every row of a feed file. Rows that are rejected are
+     * counted and reported; the rest are added to the model.
+     * @param filename Path of the feed file.
+     * @return ImportReport of the rows read, imported and rejected.
+     * @throws IOException propagates to user when the feed cannot be read or
+     *                      a batch cannot be saved. Batches saved before the
+     *                      error stay saved.
+     */
+    public synchronized ImportReport importFile(String filename)
+            throws IOException {
+        this.rowsRead = 0;
+        this.rowsImported = 0;
+        this.rowsRejected = 0;
+        this.rejects = new ArrayList<>();
+        this.failure = null;
+        long start = System.nanoTime();
+
+        int capacity = this.workers * QUEUE_BATCHES_PER_WORKER;
+        BlockingQueue<Batch> parseQueue = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Batch> validateQueue =
+                new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Batch> priceQueue = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<Batch> appendQueue = new ArrayBlockingQueue<>(capacity);
+        ExecutorService pool = Executors.newFixedThreadPool(
+                this.workers * 3 + 1, task -> {
+                    Thread thread = new Thread(task, "booking-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            pool.execute(() -> readRows(filename, parseQueue));
+            startStage(pool, parseQueue, validateQueue, this::parse);
+            startStage(pool, validateQueue, priceQueue, this::validate);
+            startStage(pool, priceQueue, appendQueue, this::price);
+            //Appending runs on this thread, one batch at a time.
+            Batch batch;
+            while ((batch = appendQueue.take()) != END) {
+                append(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted.", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (this.failure != null) {
+            throw this.failure;
+        }
+        return new ImportReport(this.rowsRead, this.rowsImported,
+                this.rowsRejected,
+                (System.nanoTime() - start) / 1_000_000, this.rejects);
+    }
+
+    /**
+     * Method to import a feed file into the bookings in the working
+     * directory and save them.
+     * @param args Path of the feed file.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java model.BulkBookingImporter " +
+                    "<feed file>");
+            return;
+        }
+        try {
+            BookingDataModel model = new BookingDataModel();
+            model.loadFiles();
+            ImportReport report = model.importBookings(args[0]);
+            model.saveToFiles();
+            report.printReport();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("The bookings could not be imported: " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Method run by the reader thread. Lines of the feed are split into
+     * fields and handed on in batches.
+     * @param filename Path of the feed file.
+     * @param out Queue of the parse stage.
+     */
+    private void readRows(String filename, BlockingQueue<Batch> out) {
+        try {
+            try (MappedRecordReader reader = new MappedRecordReader(filename,
+                    ',')) {
+                ArrayList<Row> rows = new ArrayList<>(this.batchSize);
+                int number = 0;
+                //Stop reading once a batch could not be saved.
+                while (this.failure == null && reader.nextRecord()) {
+                    number++;
+                    String[] fields = new String[reader.getFieldCount()];
+                    for (int i = 0; i < fields.length; i++) {
+                        fields[i] = reader.getField(i).trim();
+                    }
+                    if (fields[0].startsWith("#")) {
+                        continue;
+                    }
+                    rows.add(new Row(number, fields));
+                    if (rows.size() == this.batchSize) {
+                        out.put(new Batch(rows));
+                        rows = new ArrayList<>(this.batchSize);
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    out.put(new Batch(rows));
+                }
+            } catch (IOException e) {
+                this.failure = e;
+            }
+            out.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Method to start the workers of a stage. Each takes a batch, processes
+     * the rows that have not been rejected and passes the batch on. The last
+     * worker to finish passes END on.
+     * @param pool ExecutorService that runs the workers.
+     * @param in Queue the stage takes batches from.
+     * @param out Queue of the next stage.
+     * @param stage RowStage applied to every row.
+     */
+    private void startStage(ExecutorService pool, BlockingQueue<Batch> in,
+                            BlockingQueue<Batch> out, RowStage stage) {
+        AtomicInteger running = new AtomicInteger(this.workers);
+        for (int i = 0; i < this.workers; i++) {
+            pool.execute(() -> {
+                try {
+                    Batch batch;
+                    while ((batch = in.take()) != END) {
+                        for (Row row : batch.rows) {
+                            if (row.reject == null) {
+                                processRow(stage, row);
+                            }
+                        }
+                        out.put(batch);
+                    }
+                    //Leave END for the other workers of the stage.
+                    in.put(END);
+                    if (running.decrementAndGet() == 0) {
+                        out.put(END);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    /**
+     * Method to apply a stage to a row, rejecting the row if the stage
+     * fails unexpectedly.
+     * @param stage RowStage to apply.
+     * @param row Row to process.
+     */
+    private static void processRow(RowStage stage, Row row) {
+        try {
+            stage.process(row);
+        } catch (RuntimeException e) {
+            row.reject = "Row could not be processed: " + e;
+        }
+    }
+
+    /**
+     * Method for the parse stage. The fields of a row are turned into
+     * names, dates and passengers.
+     * @param row Row to parse.
+     */
+    private void parse(Row row) {
+        String[] fields = row.fields;
+        boolean holiday = fields[0].equalsIgnoreCase("H");
+        if (!holiday && !fields[0].equalsIgnoreCase("F")) {
+            row.reject = "Booking type must be F or H.";
+            return;
+        }
+        if (fields.length != (holiday ? 9 : 6)) {
+            row.reject = "Row has " + fields.length + " fields, " +
+                    (holiday ? 9 : 6) + " expected.";
+            return;
+        }
+        row.holiday = holiday;
+        row.customerName = fields[1];
+        row.destination = fields[2];
+        row.flightNumber = fields[3].isEmpty() ? null : fields[3];
+        row.passengers = new ArrayList<>();
+        for (String passenger : fields[5].split(";")) {
+            if (!passenger.trim().isEmpty()) {
+                row.passengers.add(passenger.trim());
+            }
+        }
+        if (row.customerName.isEmpty() || row.passengers.isEmpty()) {
+            row.reject = "Customer name and passengers are required.";
+            return;
+        }
+        try {
+            row.departureDate = LocalDate.parse(fields[4]);
+            if (holiday) {
+                row.accommodationName = fields[6];
+                row.checkIn = LocalDate.parse(fields[7]);
+                int nights = Integer.parseInt(fields[8]);
+                if (nights < 1) {
+                    row.reject = "Number of nights must be at least 1.";
+                    return;
+                }
+                row.checkOut = row.checkIn.plusDays(nights);
+            }
+        } catch (DateTimeParseException e) {
+            row.reject = "Dates must be in the form yyyy-mm-dd.";
+        } catch (NumberFormatException e) {
+            row.reject = "Number of nights is not a number.";
+        }
+    }
+
+    /**
+     * Method for the validate stage. The flight and accommodation of a row
+     * are looked up in the records.
+     * @param row Row to validate.
+     */
+    private void validate(Row row) {
+        row.flight = this.records.getFlightCatalog().getFlight(
+                row.destination, row.flightNumber);
+        if (row.flight == null) {
+            row.reject = "Destination not found in flights.";
+        } else if (row.departureDate.isBefore(LocalDate.now())) {
+            row.reject = "Departure date has passed.";
+        } else if (row.holiday) {
+            row.accommodation = this.records.getAccommodationCatalog()
+                    .getAccommodation(row.destination, row.accommodationName);
+            if (row.accommodation == null) {
+                row.reject = "Accommodation not found at destination.";
+            } else if (row.checkIn.isBefore(row.departureDate)) {
+                row.reject = "Check-in is before departure.";
+            }
+        }
+    }
+
+    /**
+     * Method for the price stage. The booking is created, which gives it
+     * its bookingID and invoice number, and its cost is calculated.
+     * @param row Row to price.
+     */
+    private void price(Row row) {
+        FlightRecords flight = row.flight;
+        if (row.holiday) {
+            FlightBooking flightBooking = new FlightBooking(row.customerName,
+                    flight.getFlightNumber(), row.departureDate,
+                    row.passengers);
+            flightBooking.setDestination(flight.getFlightDestination());
+            row.booking = new HolidayBooking(row.customerName, flightBooking,
+                    row.accommodation.getAccommodationName(),
+                    row.accommodation.getAccommodationAddress(),
+                    row.accommodation.getCostPerNight(), row.checkIn,
+                    row.checkOut);
+        } else {
+            row.booking = new FlightBooking(row.customerName,
+                    flight.getFlightNumber(), flight.getFlightDestination(),
+                    row.departureDate, row.passengers);
+        }
+        row.booking.calculateBookingCost(flight);
+    }
+
+    /**
+     * Method for the append stage. The bookings of a batch are added to the
+     * model with one commit and the rejected rows are counted.
+     * @param batch Batch that has been through every other stage.
+     */
+    private void append(Batch batch) {
+        ArrayList<Booking> bookings = new ArrayList<>(batch.rows.size());
+        for (Row row : batch.rows) {
+            if (row.reject == null) {
+                bookings.add(row.booking);
+            }
+        }
+        if (this.failure == null && !bookings.isEmpty()) {
+            try {
+                this.model.addBookingBatch(bookings);
+                this.rowsImported += bookings.size();
+            } catch (IOException e) {
+                this.failure = e;
+            }
+        }
+        for (Row row : batch.rows) {
+            this.rowsRead++;
+            //Rows of a batch that was not saved are rejected with it.
+            if (row.reject == null && this.failure != null) {
+                row.reject = "Batch could not be saved.";
+            }
+            if (row.reject != null) {
+                this.rowsRejected++;
+                if (this.rejects.size() < ImportReport.MAX_REJECTS_KEPT) {
+                    this.rejects.add(row.number + ": " + row.reject);
+                }
+            }
+        }
+    }
+
+    /**
+     * This interface is the work one stage does on a row. A row that fails
+     * is given a reason in its reject field.
+     */
+    private interface RowStage {
+        /**
+         * Method to process a row.
+         * @param row Row to process.
+         */
+        void process(Row row);
+    }
+
+    /**
+     * This class is a group of rows handed from stage to stage together.
+     */
+    private static class Batch {
+        private final List<Row> rows;
+
+        /**
+         * Class constructor for a batch.
+         * @param rows List of rows in the batch.
+         */
+        private Batch(List<Row> rows) {
+            this.rows = Collections.unmodifiableList(rows);
+        }
+    }
+
+    /**
+     * This class holds one row of the feed and what each stage found out
+     * about it. A row is only worked on by one stage at a time.
+     */
+    private static class Row {
+        private final int number;
+        private final String[] fields;
+        private boolean holiday;
+        private String customerName;
+        private String destination;
+        private String flightNumber;
+        private LocalDate departureDate;
+        private ArrayList<String> passengers;
+        private String accommodationName;
+        private LocalDate checkIn;
+        private LocalDate checkOut;
+        private FlightRecords flight;
+        private Accommodation accommodation;
+        private Booking booking;
+        private String reject;
+
+        /**
+         * Class constructor for a row read from the feed.
+         * @param number Number of the row in the feed, starting at 1.
+         * @param fields Array of the row's fields.
+         */
+        private Row(int number, String[] fields) {
+            this.number = number;
+            this.fields = fields;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class is a search index of destination names built as a trie over
+ * the normalised names. It finds every destination that starts with a
+ * prefix, and destinations within a small number of edits of a misspelt
+ * name, without reading the records files.
+ */
+public class DestinationIndex {
+    private final Node root;
+    private int size;
+
+    /**
+     * Class constructor to build the index from destination names.
+     * @param destinations Destination names as they should be shown to the
+     *                     user. Names that only differ in case are kept once.
+     */
+    public DestinationIndex(Collection<String> destinations) {
+        this.root = new Node();
+        for (String destination : destinations) {
+            insert(destination);
+        }
+    }
+
+    /**
+     * Method to get the number of destinations in the index.
+     * @return Integer value of number of destinations.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to check if a destination is in the index.
+     * @param destination Destination entered by the user.
+     * @return true if the destination exists, false if it doesn't.
+     */
+    public boolean contains(String destination) {
+        Node node = find(FlightCatalog.normaliseDestination(destination));
+        return node != null && node.destination != null;
+    }
+
+    /**
+     * Method to get the destinations that start with a prefix.
+     * @param prefix Start of a destination entered by the user.
+     * @param limit Largest number of destinations to return.
+     * @return List of destinations in alphabetical order.
+     */
+    public List<String> complete(String prefix, int limit) {
+        ArrayList<String> matches = new ArrayList<>();
+        Node node = find(FlightCatalog.normaliseDestination(prefix));
+        if (node != null) {
+            collect(node, matches, limit);
+        }
+        return matches;
+    }
+
+    /**
+     * Method to get the destinations closest to a name that may be misspelt,
+     * measured by the number of single character edits between them.
+     * @param query Destination entered by the user.
+     * @param maxEdits Largest number of edits a suggestion may be away from
+     *                 the query.
+     * @param limit Largest number of destinations to return.
+     * @return List of destinations, closest first.
+     */
+    public List<String> suggest(String query, int maxEdits, int limit) {
+        String key = FlightCatalog.normaliseDestination(query);
+        ArrayList<Suggestion> found = new ArrayList<>();
+        int[] firstRow = new int[key.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        for (int i = 0; i < this.root.size; i++) {
+            searchEdits(this.root.children[i], this.root.labels[i], key,
+                    firstRow, maxEdits, found);
+        }
+        found.sort(Comparator.comparingInt((Suggestion s) -> s.distance)
+                .thenComparing(s -> s.destination));
+
+        ArrayList<String> suggestions = new ArrayList<>();
+        for (int i = 0; i < found.size() && i < limit; i++) {
+            suggestions.add(found.get(i).destination);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Method to add a destination to the trie.
+     * @param destination Destination name as it should be shown to the user.
+     */
+    private void insert(String destination) {
+        String key = FlightCatalog.normaliseDestination(destination);
+        Node node = this.root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childFor(key.charAt(i));
+        }
+        if (node.destination == null) {
+            node.destination = destination;
+            this.size++;
+        }
+    }
+
+    /**
+     * Method to follow a key down the trie.
+     * @param key Normalised key.
+     * @return Node at the end of the key, or null if no destination starts
+     *         with the key.
+     */
+    private Node find(String key) {
+        Node node = this.root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Method to add the destinations under a node to a list in order.
+     * @param node Node to start from.
+     * @param matches List that the destinations are added to.
+     * @param limit Largest size of the list.
+     */
+    private void collect(Node node, List<String> matches, int limit) {
+        if (matches.size() >= limit) {
+            return;
+        }
+        if (node.destination != null) {
+            matches.add(node.destination);
+        }
+        for (int i = 0; i < node.size && matches.size() < limit; i++) {
+            collect(node.children[i], matches, limit);
+        }
+    }
+
+    /**
+     * Method to walk the trie computing the edit distance between the query
+     * and every path, one row of the distance table per character. Branches
+     * whose every distance is already above the limit are skipped.
+     * @param node Node reached by the character.
+     * @param letter Character on the edge to the node.
+     * @param key Normalised query.
+     * @param previousRow Row of distances for the parent node.
+     * @param maxEdits Largest number of edits allowed.
+     * @param found List that suggestions are added to.
+     */
+    private void searchEdits(Node node, char letter, String key,
+                             int[] previousRow, int maxEdits,
+                             List<Suggestion> found) {
+        int[] row = new int[previousRow.length];
+        row[0] = previousRow[0] + 1;
+        int smallest = row[0];
+        for (int i = 1; i < row.length; i++) {
+            int replace = previousRow[i - 1] +
+                    (key.charAt(i - 1) == letter ? 0 : 1);
+            int insert = row[i - 1] + 1;
+            int delete = previousRow[i] + 1;
+            row[i] = Math.min(replace, Math.min(insert, delete));
+            smallest = Math.min(smallest, row[i]);
+        }
+        if (node.destination != null && row[row.length - 1] <= maxEdits) {
+            found.add(new Suggestion(node.destination, row[row.length - 1]));
+        }
+        if (smallest <= maxEdits) {
+            for (int i = 0; i < node.size; i++) {
+                searchEdits(node.children[i], node.labels[i], key, row,
+                        maxEdits, found);
+            }
+        }
+    }
+
+    /**
+     * This class is a node of the trie. Children are kept in arrays sorted by
+     * character so that a node costs two small arrays instead of a map.
+     */
+    private static class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private String destination;
+
+        /**
+         * Method to get the child on the edge for a character.
+         * @param letter Character of the edge.
+         * @return Child node, or null if there is none.
+         */
+        private Node child(char letter) {
+            int index = Arrays.binarySearch(this.labels, 0, this.size, letter);
+            return index >= 0 ? this.children[index] : null;
+        }
+
+        /**
+         * Method to get the child on the edge for a character, adding it if
+         * it does not exist yet.
+         * @param letter Character of the edge.
+         * @return Child node.
+         */
+        private Node childFor(char letter) {
+            int index = Arrays.binarySearch(this.labels, 0, this.size, letter);
+            if (index >= 0) {
+                return this.children[index];
+            }
+            int insertAt = -index - 1;
+            if (this.size == this.labels.length) {
+                int capacity = Math.max(2, this.size * 2);
+                this.labels = Arrays.copyOf(this.labels, capacity);
+                this.children = Arrays.copyOf(this.children, capacity);
+            }
+            System.arraycopy(this.labels, insertAt, this.labels, insertAt + 1,
+                    this.size - insertAt);
+            System.arraycopy(this.children, insertAt, this.children,
+                    insertAt + 1, this.size - insertAt);
+            Node node = new Node();
+            this.labels[insertAt] = letter;
+            this.children[insertAt] = node;
+            this.size++;
+            return node;
+        }
+    }
+
+    /**
+     * This class pairs a suggested destination with its edit distance.
+     */
+    private static class Suggestion {
+        private final String destination;
+        private final int distance;
+
+        /**
+         * Class constructor for a suggestion.
+         * @param destination Suggested destination.
+         * @param distance Number of edits from the query.
+         */
+        private Suggestion(String destination, int distance) {
+            this.destination = destination;
+            this.distance = distance;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package model;
+
+import java.nio.file.Path;
+
+/**
+ * This enum lists the formats bookings can be exported in by a
+ * BookingExporter. Both have one booking per line.
+ */
+public enum ExportFormat {
+    /**
+     * Comma separated values with a header line. Passengers are separated
+     * by ";" and fields holding commas or quotes are quoted.
+     */
+    CSV(".csv"),
+    /**
+     * One JSON object per line, with the passengers as an array.
+     */
+    JSON_LINES(".jsonl");
+
+    private final String extension;
+
+    /**
+     * Constructor for a format.
+     * @param extension File name extension of files in the format.
+     */
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Accessor method for extension.
+     * @return copy of extension.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Method to get the format of a file from its extension.
+     * @param file Path of the file.
+     * @return ExportFormat of the file; CSV unless it ends with ".jsonl" or
+     *         ".json".
+     */
+    public static ExportFormat forFile(Path file) {
+        String name = file.getFileName().toString();
+        ExportFormat format = CSV;
+        if (name.endsWith(JSON_LINES.extension) || name.endsWith(".json")) {
+            format = JSON_LINES;
+        }
+        return format;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package model;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This class is the BookingRepository kept in the bookings files. The files
+ * are read with LoadBookings the first time a booking is needed and the
+ * bookings are held in memory with the same indexes the BookingDataModel
+ * uses. Saving a batch writes every booking back with SaveBookings, as the
+ * files cannot be changed in place.
+ */
+public class FileBookingRepository implements BookingRepository {
+    private BookingIndex bookings;
+    private BookingQueryIndex queryIndex;
+    private ArrayList<Booking> ordered;
+
+    /**
+     * Method to get the booking with a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized Booking find(int bookingID) throws IOException {
+        load();
+        return this.bookings.get(bookingID);
+    }
+
+    /**
+     * Method to get the booking with the highest bookingID.
+     * @return Booking object, or null if there are no bookings.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized Booking findLast() throws IOException {
+        load();
+        return this.ordered.isEmpty() ? null :
+                this.ordered.get(this.ordered.size() - 1);
+    }
+
+    /**
+     * Method to get every booking made by a customer.
+     * @param customerName Customer's name, in any case.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized List<Booking> findByCustomer(String customerName)
+            throws IOException {
+        load();
+        return getBookings(this.queryIndex.findByCustomer(customerName));
+    }
+
+    /**
+     * Method to get every booking to a destination.
+     * @param destination Destination, in any case.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized List<Booking> findByDestination(String destination)
+            throws IOException {
+        load();
+        return getBookings(this.queryIndex.findByDestination(destination));
+    }
+
+    /**
+     * Method to get every booking departing in a date range.
+     * @param from First departure date, inclusive.
+     * @param to Last departure date, inclusive.
+     * @return List of bookings ordered by departure date.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized List<Booking> findDepartingBetween(LocalDate from,
+                                                           LocalDate to)
+            throws IOException {
+        load();
+        return getBookings(this.queryIndex.findDepartingBetween(from, to));
+    }
+
+    /**
+     * Method to get every holiday booking checking in in a date range.
+     * @param from First check-in date, inclusive.
+     * @param to Last check-in date, inclusive.
+     * @return List of bookings ordered by check-in date.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized List<Booking> findCheckingInBetween(LocalDate from,
+                                                            LocalDate to)
+            throws IOException {
+        load();
+        return getBookings(this.queryIndex.findCheckingInBetween(from, to));
+    }
+
+    /**
+     * Method to get every booking.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized List<Booking> findAll() throws IOException {
+        load();
+        return new ArrayList<>(this.ordered);
+    }
+
+    /**
+     * Method to get the number of bookings stored.
+     * @return Integer value of number of bookings.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be read.
+     */
+    @Override
+    public synchronized int count() throws IOException {
+        load();
+        return this.ordered.size();
+    }
+
+    /**
+     * Method to store new and changed bookings and write every booking to
+     * the bookings files.
+     * @param changed Collection of FlightBooking and HolidayBooking objects.
+     * @throws IOException propagates to user when the bookings files cannot
+     *                      be written.
+     */
+    @Override
+    public synchronized void saveAll(Collection<Booking> changed)
+            throws IOException {
+        load();
+        boolean replaced = false;
+        ArrayList<Booking> added = new ArrayList<>();
+        for (Booking booking : changed) {
+            if (this.bookings.put(booking) != null) {
+                replaced = true;
+            } else {
+                added.add(booking);
+            }
+        }
+        //Changed bookings take the place of the versions they replace.
+        if (replaced) {
+            for (int i = 0; i < this.ordered.size(); i++) {
+                this.ordered.set(i, this.bookings.get(
+                        this.ordered.get(i).getBookingID()));
+            }
+        }
+        this.ordered.addAll(added);
+        this.ordered.sort(Comparator.comparingInt(Booking::getBookingID));
+        //The query index is rebuilt, as changed bookings may have moved.
+        this.queryIndex.clear();
+        for (Booking booking : this.ordered) {
+            this.queryIndex.add(booking);
+        }
+        new SaveBookings(this.ordered);
+    }
+
+    /**
+     * Method to release the bookings held in memory. They are read again
+     * the next time one is needed.
+     */
+    @Override
+    public synchronized void close() {
+        this.bookings = null;
+        this.queryIndex = null;
+        this.ordered = null;
+    }
+
+    /**
+     * Method to read the bookings files if they have not been read yet.
+     * @throws IOException when the bookings files cannot be read.
+     */
+    private void load() throws IOException {
+        if (this.ordered != null) {
+            return;
+        }
+        ArrayList<Booking> loaded = new LoadBookings().getBookings();
+        this.bookings = new BookingIndex(loaded.size());
+        this.queryIndex = new BookingQueryIndex();
+        for (Booking booking : loaded) {
+            this.bookings.put(booking);
+            this.queryIndex.add(booking);
+        }
+        this.ordered = loaded;
+    }
+
+    /**
+     * Method to turn bookingIDs found in an index into bookings.
+     * @param bookingIDs Array of bookingIDs.
+     * @return List of bookings in the same order as the IDs.
+     */
+    private List<Booking> getBookings(int[] bookingIDs) {
+        ArrayList<Booking> found = new ArrayList<>(bookingIDs.length);
+        for (int bookingID : bookingIDs) {
+            found.add(this.bookings.get(bookingID));
+        }
+        return found;
+    }
+}
\ No newline at end of file
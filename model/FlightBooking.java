@@ -12,8 +12,9 @@ public class FlightBooking extends Booking {
     private String destination;
     private LocalDate departureDate;
     private ArrayList<String> passengers;
-    private double singleFlightCost;
-    private double totalCost;
+    //Costs are held in cents.
+    private long singleFlightCost;
+    private long totalCost;
 
     /**
      * Accessor method for flightNumber.
@@ -35,7 +36,15 @@ public class FlightBooking extends Booking {
      * Accessor method for singleFlightCost.
      * @return copy of singleFlightCost.
      */
-    public double getSingleFlightCost() {
+    public Money getSingleFlightCost() {
+        return Money.ofCents(singleFlightCost);
+    }
+
+    /**
+     * Accessor method for singleFlightCost in cents.
+     * @return copy of singleFlightCost in cents.
+     */
+    public long getSingleFlightCostCents() {
         return singleFlightCost;
     }
 
@@ -43,7 +52,15 @@ public class FlightBooking extends Booking {
      * Accessor method for totalCost.
      * @return copy of totalCost.
      */
-    public double getTotalCost() {
+    public Money getTotalCost() {
+        return Money.ofCents(totalCost);
+    }
+
+    /**
+     * Accessor method for totalCost in cents.
+     * @return copy of totalCost in cents.
+     */
+    public long getTotalCostCents() {
         return totalCost;
     }
 
@@ -103,7 +120,8 @@ public class FlightBooking extends Booking {
 
     /**
      * Overloaded class constructor to instantiate a FlightBooking object for
-     * HolidayBooking objects.
+     * HolidayBooking objects. It takes no bookingID or invoiceNo of its own;
+     * the HolidayBooking gives it its own numbers.
      * @param customerName Customer's name.
      * @param flightNumber Flight number determined by the program obtained
      *                     from flight records.
@@ -113,9 +131,8 @@ public class FlightBooking extends Booking {
     public FlightBooking(String customerName, String flightNumber,
                          LocalDate departureDate,
                          ArrayList<String> passengers) {
-        super(customerName);
-        this.setBookingID(count);
-        this.setInvoiceNo(invCount);
+        this.setCustomerName(customerName);
+        this.setBookingDate(LocalDate.now());
         this.flightNumber = flightNumber;
         this.departureDate = departureDate;
         this.passengers = passengers;
@@ -143,8 +160,8 @@ public class FlightBooking extends Booking {
                          String destination,
                          LocalDate departureDate,
                          ArrayList<String> passengers,
-                         double singleFlightCost,
-                         double totalCost) {
+                         Money singleFlightCost,
+                         Money totalCost) {
         this.setCustomerName(customerName);
         this.setBookingID(bookingID);
         this.setInvoiceNo(invoiceNo);
@@ -153,8 +170,8 @@ public class FlightBooking extends Booking {
         this.destination = destination;
         this.departureDate = departureDate;
         this.passengers = passengers;
-        this.singleFlightCost = singleFlightCost;
-        this.totalCost = totalCost;
+        this.singleFlightCost = singleFlightCost.getCents();
+        this.totalCost = totalCost.getCents();
     }
 
     /**
@@ -163,8 +180,9 @@ public class FlightBooking extends Booking {
      */
     @Override
     public void calculateBookingCost(FlightRecords fr) {
-        this.singleFlightCost = fr.getFlightCost();
-        this.totalCost = this.singleFlightCost * this.passengers.size();
+        this.singleFlightCost = fr.getFlightCostCents();
+        this.totalCost = Math.multiplyExact(this.singleFlightCost,
+                (long) this.passengers.size());
     }
 
     /**
@@ -196,19 +214,21 @@ public class FlightBooking extends Booking {
     public void viewInvoice() {
         super.viewInvoice();
         printPassengerLine(this.singleFlightCost);
-        System.out.printf("%70s%.2f\n", "TOTAL COST: $", this.totalCost);
+        System.out.printf("%70s%s\n", "TOTAL COST: $",
+                Money.format(this.totalCost));
         System.out.println("-------\n");
     }
 
     /**
      * Method to iterate ArrayList of passengers to print it out for invoices.
-     * @param cost Cost per passenger.
+     * @param cost Cost per passenger in cents.
      */
-    public void printPassengerLine(double cost) {
+    public void printPassengerLine(long cost) {
+        String amount = Money.format(cost);
         //Iterate the passengers ArrayList to get details and print.
         for (String passenger: this.passengers) {
-            System.out.printf("%-50s%-10d%-10.2f%-20.2f\n",
-                    "Flight for " + passenger, 1, cost, cost);
+            System.out.printf("%-50s%-10d%-10s%-20s\n",
+                    "Flight for " + passenger, 1, amount, amount);
         }
     }
 
@@ -0,0 +1,90 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * This class describes one flight booking asked for in a batch, before it
+ * has been checked against the records. Batches are added with
+ * BookingDataModel.addFlightBookings.
+ */
+public class FlightBookingRequest {
+    private final String customerName;
+    private final String destination;
+    private final String flightNumber;
+    private final LocalDate departureDate;
+    private final ArrayList<String> passengers;
+
+    /**
+     * Class constructor for a request for the cheapest flight to a
+     * destination.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     */
+    public FlightBookingRequest(String customerName, String destination,
+                                LocalDate departureDate,
+                                ArrayList<String> passengers) {
+        this(customerName, destination, null, departureDate, passengers);
+    }
+
+    /**
+     * Overloaded class constructor for a request for a particular flight.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     */
+    public FlightBookingRequest(String customerName, String destination,
+                                String flightNumber, LocalDate departureDate,
+                                ArrayList<String> passengers) {
+        this.customerName = customerName;
+        this.destination = destination;
+        this.flightNumber = flightNumber;
+        this.departureDate = departureDate;
+        this.passengers = passengers;
+    }
+
+    /**
+     * Accessor method for customerName.
+     * @return copy of customerName.
+     */
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    /**
+     * Accessor method for destination.
+     * @return copy of destination.
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * Accessor method for flightNumber.
+     * @return copy of flightNumber, or null for the cheapest flight.
+     */
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    /**
+     * Accessor method for departureDate.
+     * @return copy of departureDate.
+     */
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    /**
+     * Accessor method for passengers.
+     * @return copy of passengers.
+     */
+    public ArrayList<String> getPassengers() {
+        return passengers;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This class holds every flight record from the flight records file in
+ * memory. The file is read once and the flights are indexed by destination
+ * so that looking up a flight does not read the file again. A destination
+ * can have several flights; they are kept sorted by cost so the cheapest
+ * flight is always the first one.
+ */
+public class FlightCatalog {
+    //Shared result for destinations that have no flights.
+    private static final FlightRecords[] NO_FLIGHTS = new FlightRecords[0];
+    private HashMap<String, FlightRecords[]> flights;
+    private HashMap<String, FlightRecords> flightsByNumber;
+    private String filename;
+
+    /**
+     * Class constructor to read the flight records file and build the
+     * destination index.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public FlightCatalog() throws IOException {
+        this("FlightRecords.txt");
+    }
+
+    /**
+     * Overloaded class constructor to read a flight records file other than the
+     * default one.
+     * @param filename Path of the flight records file.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public FlightCatalog(String filename) throws IOException {
+        this.filename = filename;
+        this.flights = new HashMap<>();
+        this.flightsByNumber = new HashMap<>();
+        populateMap();
+    }
+
+    /**
+     * Method for extracting every flight record from the file and adding it
+     * to the destination index.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    private void populateMap() throws IOException {
+        //Flights are grouped first, then sorted and frozen into arrays.
+        HashMap<String, ArrayList<FlightRecords>> grouped = new HashMap<>();
+        //Try-with-resources so the mapped file is closed after reading.
+        try (MappedRecordReader reader = new MappedRecordReader(this.filename,
+                ',')) {
+            //Loop through every line to index every flight record.
+            while (reader.nextRecord()) {
+                FlightRecords flight = new FlightRecords(reader.getField(0),
+                        reader.getField(1), reader.getMoneyField(2));
+                String destination =
+                        normaliseDestination(flight.getFlightDestination());
+                grouped.computeIfAbsent(destination,
+                        key -> new ArrayList<>()).add(flight);
+                //A later line with the same flight number to the same
+                // destination replaces the earlier one.
+                this.flightsByNumber.put(flightKey(destination,
+                        flight.getFlightNumber()), flight);
+            }
+        }
+
+        for (Map.Entry<String, ArrayList<FlightRecords>> entry :
+                grouped.entrySet()) {
+            ArrayList<FlightRecords> list = entry.getValue();
+            //Drop flights that were replaced by a later line.
+            list.removeIf(flight -> this.flightsByNumber.get(flightKey(
+                    entry.getKey(), flight.getFlightNumber())) != flight);
+            //Stable sort, so flights with equal cost stay in file order.
+            list.sort(Comparator.comparingLong(
+                    FlightRecords::getFlightCostCents));
+            this.flights.put(entry.getKey(),
+                    list.toArray(new FlightRecords[0]));
+        }
+    }
+
+    /**
+     * Method to get the cheapest flight to a destination.
+     * @param destination String destination entered by the user.
+     * @return FlightRecords object for the cheapest flight, or null if no
+     *         flight exists to the destination.
+     */
+    public FlightRecords getFlight(String destination) {
+        FlightRecords[] destinationFlights = getFlights(destination);
+        FlightRecords flight = null;
+        if (destinationFlights.length > 0) {
+            flight = destinationFlights[0];
+        }
+        return flight;
+    }
+
+    /**
+     * Method to get a flight to a destination by flight number.
+     * @param destination String destination entered by the user.
+     * @param flightNumber Flight number requested by the user. When null,
+     *                     the cheapest flight is returned.
+     * @return FlightRecords object for the flight, or null if the flight
+     *         does not fly to the destination.
+     */
+    public FlightRecords getFlight(String destination, String flightNumber) {
+        if (flightNumber == null) {
+            return getFlight(destination);
+        }
+        return this.flightsByNumber.get(flightKey(
+                normaliseDestination(destination), flightNumber));
+    }
+
+    /**
+     * Method to get every flight to a destination.
+     * @param destination String destination entered by the user.
+     * @return Array of flights sorted by cost, cheapest first. It is empty if
+     *         no flight exists to the destination.
+     */
+    public FlightRecords[] getFlights(String destination) {
+        FlightRecords[] destinationFlights =
+                this.flights.get(normaliseDestination(destination));
+        if (destinationFlights == null) {
+            destinationFlights = NO_FLIGHTS;
+        }
+        return destinationFlights;
+    }
+
+    /**
+     * Method to get the names of every destination with a flight.
+     * @return List of destination names as written in the records file.
+     */
+    public ArrayList<String> getDestinations() {
+        ArrayList<String> destinations = new ArrayList<>();
+        for (FlightRecords[] destinationFlights : this.flights.values()) {
+            destinations.add(destinationFlights[0].getFlightDestination());
+        }
+        return destinations;
+    }
+
+    /**
+     * Method to get the number of destinations in the catalog.
+     * @return Integer value of number of destinations.
+     */
+    public int size() {
+        return this.flights.size();
+    }
+
+    /**
+     * Method to turn a destination into the form used as a key in the
+     * index, so that lookups are case-insensitive.
+     * @param destination Destination entered by the user or read from file.
+     * @return Destination in lower case.
+     */
+    public static String normaliseDestination(String destination) {
+        return destination.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Method to create the key of the flight number index.
+     * @param destination Destination already in normalised form.
+     * @param flightNumber Flight number of the flight.
+     * @return Key combining the destination and flight number.
+     */
+    private static String flightKey(String destination, String flightNumber) {
+        return destination + "," + normaliseDestination(flightNumber);
+    }
+}
\ No newline at end of file
@@ -1,9 +1,5 @@
 package model;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-
 /**
  * This class contains the variables and methods that describe a FlightRecord
  * object extracted from a file.
@@ -11,9 +7,8 @@ import java.io.IOException;
 public class FlightRecords {
     private String flightNumber;
     private String flightDestination;
-    private double flightCost;
-    private BufferedReader objReader;
-    private String filename = "FlightRecords.txt";
+    //Cost of a single flight in cents.
+    private long flightCost;
 
     /**
      * Accessor method for flightNumber.
@@ -35,30 +30,29 @@ public class FlightRecords {
      * Accessor method for flightCost.
      * @return copy of flightCost.
      */
-    public double getFlightCost() {
+    public Money getFlightCost() {
+        return Money.ofCents(flightCost);
+    }
+
+    /**
+     * Accessor method for flightCost in cents.
+     * @return copy of flightCost in cents.
+     */
+    public long getFlightCostCents() {
         return flightCost;
     }
 
     /**
-     * Class constructor for FlightRecords to create a new object using the
-     * destination entered by the user.
-     * @param destination String destination entered by the user.
-     * @throws IOException propagates to user when an error occurs with opening
-     *                      the record files.
+     * Class constructor for FlightRecords to create a new object from a line
+     * of the flight records file. Objects are created by the FlightCatalog.
+     * @param flightNumber Flight number of the flight.
+     * @param flightDestination Destination of the flight.
+     * @param flightCost Cost of a single flight.
      */
-    public FlightRecords(String destination) throws IOException {
-            String line;
-            this.objReader = new BufferedReader(new FileReader(this.filename));
-            //While loop until line is null to iterate through all the lines
-            // in a txt file to find the right flight record.
-            while ((line = this.objReader.readLine()) != null) {
-                String[] values = line.split(",");
-                if (values[1].equalsIgnoreCase(destination)) {
-                    this.flightNumber = values[0];
-                    this.flightDestination = values[1];
-                    this.flightCost = Double.parseDouble(values[2]);
-                }
-            }
-            this.objReader.close();
+    public FlightRecords(String flightNumber, String flightDestination,
+                         Money flightCost) {
+        this.flightNumber = flightNumber;
+        this.flightDestination = flightDestination;
+        this.flightCost = flightCost.getCents();
     }
 }
\ No newline at end of file
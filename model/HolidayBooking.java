@@ -13,9 +13,10 @@ public class HolidayBooking extends Booking {
     private String accommodationAddress;
     private LocalDate checkIn;
     private LocalDate checkOut;
-    private double singleNightCost;
-    private double singleFlightCost;
-    private double totalCost;
+    //Costs are held in cents.
+    private long singleNightCost;
+    private long singleFlightCost;
+    private long totalCost;
 
     /**
      * Accessor method for flight.
@@ -61,7 +62,15 @@ public class HolidayBooking extends Booking {
      * Accessor method for singleNightCost.
      * @return copy of singleNightCost.
      */
-    public double getSingleNightCost() {
+    public Money getSingleNightCost() {
+        return Money.ofCents(singleNightCost);
+    }
+
+    /**
+     * Accessor method for singleNightCost in cents.
+     * @return copy of singleNightCost in cents.
+     */
+    public long getSingleNightCostCents() {
         return singleNightCost;
     }
 
@@ -69,7 +78,15 @@ public class HolidayBooking extends Booking {
      * Accessor method for totalCost.
      * @return copy of totalCost.
      */
-    public double getTotalCost() {
+    public Money getTotalCost() {
+        return Money.ofCents(totalCost);
+    }
+
+    /**
+     * Accessor method for totalCost in cents.
+     * @return copy of totalCost in cents.
+     */
+    public long getTotalCostCents() {
         return totalCost;
     }
 
@@ -108,16 +125,19 @@ public class HolidayBooking extends Booking {
                           FlightBooking flight,
                           String accommodationName,
                           String accommodationAddress,
-                          double singleNightCost,
+                          Money singleNightCost,
                           LocalDate checkIn,
                           LocalDate checkOut) {
         super(customerName);
         this.flight = flight;
+        //The flight shares this booking's numbers.
+        this.flight.setBookingID(this.getBookingID());
+        this.flight.setInvoiceNo(this.getInvoiceNo());
         this.accommodationName = accommodationName;
         this.accommodationAddress = accommodationAddress;
         this.checkIn = checkIn;
         this.checkOut = checkOut;
-        this.singleNightCost = singleNightCost;
+        this.singleNightCost = singleNightCost.getCents();
     }
 
     /**
@@ -144,8 +164,8 @@ public class HolidayBooking extends Booking {
                           String accommodationAddress,
                           LocalDate checkIn,
                           LocalDate checkOut,
-                          double singleNightCost,
-                          double totalCost) {
+                          Money singleNightCost,
+                          Money totalCost) {
         this.setCustomerName(customerName);
         this.setCustomerName(customerName);
         this.setBookingID(bookingID);
@@ -156,8 +176,8 @@ public class HolidayBooking extends Booking {
         this.accommodationAddress = accommodationAddress;
         this.checkIn = checkIn;
         this.checkOut = checkOut;
-        this.singleNightCost = singleNightCost;
-        this.totalCost = totalCost;
+        this.singleNightCost = singleNightCost.getCents();
+        this.totalCost = totalCost.getCents();
     }
 
     /**
@@ -166,10 +186,13 @@ public class HolidayBooking extends Booking {
      */
     @Override
     public void calculateBookingCost(FlightRecords fr) {
-        double accommodationTotalCost = this.singleNightCost*getNoNights();
-        this.singleFlightCost = fr.getFlightCost();
-        double totalFlightCost = this.singleFlightCost*this.flight.passengerCount();
-        this.totalCost = accommodationTotalCost + totalFlightCost;
+        long accommodationTotalCost =
+                Math.multiplyExact(this.singleNightCost, getNoNights());
+        this.singleFlightCost = fr.getFlightCostCents();
+        long totalFlightCost = Math.multiplyExact(this.singleFlightCost,
+                (long) this.flight.passengerCount());
+        this.totalCost = Math.addExact(accommodationTotalCost,
+                totalFlightCost);
     }
 
     /**
@@ -196,10 +219,12 @@ public class HolidayBooking extends Booking {
     public void viewInvoice() {
         super.viewInvoice();
         this.flight.printPassengerLine(this.singleFlightCost);
-        System.out.printf("%-50s%-10d%-10.2f%-20.2f\n",
+        System.out.printf("%-50s%-10d%-10s%-20s\n",
                 this.accommodationName + "(nights)", getNoNights(),
-                this.singleNightCost, this.singleNightCost*getNoNights());
-        System.out.printf("%70s%.2f\n", "TOTAL COST: $", this.totalCost);
+                Money.format(this.singleNightCost),
+                Money.format(this.singleNightCost * getNoNights()));
+        System.out.printf("%70s%s\n", "TOTAL COST: $",
+                Money.format(this.totalCost));
         System.out.println("-------\n");
     }
 
@@ -0,0 +1,85 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * This class describes one holiday booking asked for in a batch: a flight
+ * request together with a stay at an accommodation. Batches are added with
+ * BookingDataModel.addHolidayBookings.
+ */
+public class HolidayBookingRequest extends FlightBookingRequest {
+    private final String accommodationName;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+
+    /**
+     * Class constructor for a request with the cheapest flight to the
+     * destination.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     * @param accommodationName Name of the accommodation chosen by the user.
+     * @param checkIn Date of check-in entered by the user.
+     * @param checkOut Check-out date generated by the program by taking the
+     *                  number of nights from user.
+     */
+    public HolidayBookingRequest(String customerName, String destination,
+                                 LocalDate departureDate,
+                                 ArrayList<String> passengers,
+                                 String accommodationName, LocalDate checkIn,
+                                 LocalDate checkOut) {
+        this(customerName, destination, null, departureDate, passengers,
+                accommodationName, checkIn, checkOut);
+    }
+
+    /**
+     * Overloaded class constructor for a request with a particular flight.
+     * @param customerName Customer's name.
+     * @param destination Destination entered by user.
+     * @param flightNumber Flight number requested by the user, or null for
+     *                     the cheapest flight to the destination.
+     * @param departureDate Date of departure entered by user.
+     * @param passengers String array of passengers.
+     * @param accommodationName Name of the accommodation chosen by the user.
+     * @param checkIn Date of check-in entered by the user.
+     * @param checkOut Check-out date generated by the program by taking the
+     *                  number of nights from user.
+     */
+    public HolidayBookingRequest(String customerName, String destination,
+                                 String flightNumber, LocalDate departureDate,
+                                 ArrayList<String> passengers,
+                                 String accommodationName, LocalDate checkIn,
+                                 LocalDate checkOut) {
+        super(customerName, destination, flightNumber, departureDate,
+                passengers);
+        this.accommodationName = accommodationName;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    /**
+     * Accessor method for accommodationName.
+     * @return copy of accommodationName.
+     */
+    public String getAccommodationName() {
+        return accommodationName;
+    }
+
+    /**
+     * Accessor method for checkIn.
+     * @return copy of checkIn.
+     */
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Accessor method for checkOut.
+     * @return copy of checkOut.
+     */
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+}
\ No newline at end of file
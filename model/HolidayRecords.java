@@ -1,73 +1,142 @@
 package model;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 
 /**
  * This class describes a HolidayRecord object with variables and methods.
+ * It holds the accommodations at a single destination and is created by the
+ * AccommodationCatalog.
  */
 public class HolidayRecords {
-    private ArrayList<Accommodation> accommodationArrayList;
-    private BufferedReader objReader;
-    private String filename = "HolidayRecords.txt";
+    private Accommodation[] accommodations;
+    private String[] accommodationNames;
+    private HashMap<String, Accommodation> accommodationsByName;
+    private Accommodation[] accommodationsByCost;
+    //Costs per night in cents, in the order of accommodationsByCost.
+    private long[] costs;
 
     /**
-     * Accessor for the Accommodation ArrayList.
+     * Accessor for the Accommodation array.
      * @return copy of array.
      */
-    public ArrayList<Accommodation> getAccommodationArrayList() {
-        return accommodationArrayList;
+    public Accommodation[] getAccommodations() {
+        return accommodations;
+    }
+
+    /**
+     * Accessor for the names of the accommodations, in file order.
+     * @return copy of array.
+     */
+    public String[] getAccommodationNames() {
+        return accommodationNames;
     }
 
     /**
      * Class constructor to instantiate a HolidayRecords object.
-     * @param destination Destination entered by the user.
+     * @param accommodations Accommodations at the destination in file order.
+     */
+    public HolidayRecords(Accommodation[] accommodations) {
+        this.accommodations = accommodations;
+        this.accommodationNames = new String[accommodations.length];
+        this.accommodationsByName = new HashMap<>();
+        populateIndex();
+        populateCostIndex();
+    }
+
+    /**
+     * Method for building the name array and the name index from the
+     * accommodation array.
+     */
+    private void populateIndex() {
+        for (int i = 0; i < this.accommodations.length; i++) {
+            Accommodation accommodation = this.accommodations[i];
+            this.accommodationNames[i] = accommodation.getAccommodationName();
+            //A later accommodation with the same name replaces the earlier one.
+            this.accommodationsByName.put(
+                    normaliseName(accommodation.getAccommodationName()),
+                    accommodation);
+        }
+    }
+
+    /**
+     * Method for building the array of accommodations sorted by cost per
+     * night, with a matching array of costs to binary search.
+     */
+    private void populateCostIndex() {
+        this.accommodationsByCost = this.accommodations.clone();
+        //Stable sort, so accommodations with equal cost stay in file order.
+        Arrays.sort(this.accommodationsByCost,
+                Comparator.comparingLong(Accommodation::getCostPerNightCents));
+        this.costs = new long[this.accommodationsByCost.length];
+        for (int i = 0; i < this.costs.length; i++) {
+            this.costs[i] = this.accommodationsByCost[i].getCostPerNightCents();
+        }
+    }
+
+    /**
+     * Method to get the cheapest accommodations.
+     * @param limit Largest number of accommodations to return.
+     * @return Read-only list of accommodations, cheapest first. The list is a
+     *         view of the sorted array, not a copy.
      */
-    public HolidayRecords(String destination) {
-        this.accommodationArrayList = new ArrayList<>();
-        populateArray(destination);
+    public List<Accommodation> getCheapest(int limit) {
+        return findByCost(Money.ZERO, Money.ofCents(Long.MAX_VALUE), limit);
     }
 
     /**
-     * Method for extracting data from holiday record file and populating the
-     * array.
-     * @param destination Destination as entered by the user.
+     * Method to get the accommodations with a cost per night in a range.
+     * @param minCost Lowest cost per night, inclusive.
+     * @param maxCost Highest cost per night, inclusive.
+     * @param limit Largest number of accommodations to return.
+     * @return Read-only list of accommodations, cheapest first. The list is a
+     *         view of the sorted array, not a copy.
      */
-    private void populateArray(String destination){
-        String location, accommodationName, accommodationAddress;
-        double costPerNight;
+    public List<Accommodation> findByCost(Money minCost, Money maxCost,
+                                          int limit) {
+        int from = firstCostAbove(minCost.getCents(), false);
+        int to = firstCostAbove(maxCost.getCents(), true);
+        if (to < from) {
+            to = from;
+        }
+        to = Math.min(to, from + Math.max(limit, 0));
+        return Collections.unmodifiableList(
+                Arrays.asList(this.accommodationsByCost).subList(from, to));
+    }
 
-        //Try-catch statement to open a file, read it, extract the data and
-        // close it.
-        try {
-            String line;
-            this.objReader = new BufferedReader(new FileReader(this.filename));
-            while ((line = this.objReader.readLine()) != null) {
-                String[] values = line.split("/");
-                //Finding accommodations that matches the destination entered
-                // by the user.
-                if (values[0].equalsIgnoreCase(destination)) {
-                    location = values[0];
-                    accommodationName = values[1];
-                    accommodationAddress = values[2];
-                    costPerNight = Double.parseDouble(values[3]);
-                    //Create an accommodation object to add to the
-                    // accommodation array.
-                    Accommodation accommodation = new Accommodation(location,
-                            accommodationName, accommodationAddress,
-                            costPerNight);
-                    this.accommodationArrayList.add(accommodation);
-                }
+    /**
+     * Method to binary search the sorted costs.
+     * @param cost Cost to search for in cents.
+     * @param inclusive true to skip costs equal to the cost as well.
+     * @return Index of the first cost greater than the cost (or greater than
+     *         or equal to it when not inclusive).
+     */
+    private int firstCostAbove(long cost, boolean inclusive) {
+        int low = 0;
+        int high = this.costs.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.costs[middle] < cost ||
+                    (inclusive && this.costs[middle] == cost)) {
+                low = middle + 1;
+            } else {
+                high = middle;
             }
-            this.objReader.close();
-        } catch (FileNotFoundException e) {
-            System.out.println("File not found.");
-        } catch (IOException e) {
-            System.out.println("An error has occurred.");
         }
+        return low;
+    }
+
+    /**
+     * Method to get a single accommodation by name.
+     * @param accommodationName Accommodation name provided by the program by
+     *                         user choice.
+     * @return Accommodation object, or null if it is not at this destination.
+     */
+    public Accommodation getAccommodation(String accommodationName) {
+        return this.accommodationsByName.get(normaliseName(accommodationName));
     }
 
     /**
@@ -75,15 +144,14 @@ public class HolidayRecords {
      * accommodation array.
      * @param accommodationName Accommodation name provided by the program by
      *                         user choice.
-     * @return double cost per night value.
+     * @return Money cost per night value, zero if the accommodation is not
+     *         at this destination.
      */
-    public double getCost(String accommodationName) {
-        double cost = 0;
-        //Iterate the accommodation array to find the matching object.
-        for (Accommodation i: this.accommodationArrayList) {
-            if (i.getAccommodationName().equalsIgnoreCase(accommodationName)) {
-                cost = i.getCostPerNight();
-            }
+    public Money getCost(String accommodationName) {
+        Money cost = Money.ZERO;
+        Accommodation accommodation = getAccommodation(accommodationName);
+        if (accommodation != null) {
+            cost = accommodation.getCostPerNight();
         }
         return cost;
     }
@@ -96,12 +164,20 @@ public class HolidayRecords {
      */
     public String getAddress(String accommodationName) {
         String address = "";
-        //Iterate the accommodation array to find the matching object.
-        for (Accommodation i: this.accommodationArrayList) {
-            if (i.getAccommodationName().equalsIgnoreCase(accommodationName)) {
-                address = i.getAccommodationAddress();
-            }
+        Accommodation accommodation = getAccommodation(accommodationName);
+        if (accommodation != null) {
+            address = accommodation.getAccommodationAddress();
         }
         return address;
     }
+
+    /**
+     * Method to turn an accommodation name into the form used as a key in
+     * the name index, so that lookups are case-insensitive.
+     * @param accommodationName Accommodation name.
+     * @return Name in the same form as FlightCatalog destinations.
+     */
+    private static String normaliseName(String accommodationName) {
+        return FlightCatalog.normaliseDestination(accommodationName);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the outcome of a bulk import: how many rows were read,
+ * imported and rejected, how long it took, and why rows were rejected.
+ * Only the first rejections are kept with their reasons, so a feed of bad
+ * rows cannot fill the heap; every rejection is still counted.
+ */
+public class ImportReport {
+    //Largest number of rejected rows kept with their reasons.
+    public static final int MAX_REJECTS_KEPT = 1000;
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final long elapsedMillis;
+    private final ArrayList<String> rejects;
+
+    /**
+     * Class constructor for the outcome of an import. Objects are created by
+     * the BulkBookingImporter.
+     * @param rowsRead Number of rows read from the feed.
+     * @param rowsImported Number of bookings added.
+     * @param rowsRejected Number of rows that were not imported.
+     * @param elapsedMillis Time the import took in milliseconds.
+     * @param rejects List of the first rejected rows with their reasons.
+     */
+    public ImportReport(long rowsRead, long rowsImported, long rowsRejected,
+                        long elapsedMillis, List<String> rejects) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rejects = new ArrayList<>(rejects);
+    }
+
+    /**
+     * Accessor method for rowsRead.
+     * @return copy of rowsRead.
+     */
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Accessor method for rowsImported.
+     * @return copy of rowsImported.
+     */
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * Accessor method for rowsRejected.
+     * @return copy of rowsRejected.
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Accessor method for elapsedMillis.
+     * @return copy of elapsedMillis.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Accessor method for rejects.
+     * @return copy of rejects, each as "line number: reason".
+     */
+    public ArrayList<String> getRejects() {
+        return new ArrayList<>(rejects);
+    }
+
+    /**
+     * Method to get the rate rows were read and processed at.
+     * @return double value of rows per second.
+     */
+    public double getRowsPerSecond() {
+        return this.rowsRead * 1000.0 / Math.max(1, this.elapsedMillis);
+    }
+
+    /**
+     * Method to print a summary of the import and the rejected rows kept.
+     */
+    public void printReport() {
+        System.out.println("Read " + this.rowsRead + " rows in " +
+                this.elapsedMillis + " ms (" +
+                Math.round(getRowsPerSecond()) + " rows/sec).");
+        System.out.println("Imported " + this.rowsImported + " bookings, " +
+                "rejected " + this.rowsRejected + " rows.");
+        for (String reject : this.rejects) {
+            System.out.println("  Row " + reject);
+        }
+        if (this.rowsRejected > this.rejects.size()) {
+            System.out.println("  ... and " +
+                    (this.rowsRejected - this.rejects.size()) + " more.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * This class is a growable list of int values, used to hold bookingIDs in
+ * the booking indexes without boxing every ID into an Integer.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    /**
+     * Class constructor to create an empty list.
+     */
+    public IntList() {
+        this.values = new int[4];
+    }
+
+    /**
+     * Method to get the number of values in the list.
+     * @return Integer value of number of values.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to get a value from the list.
+     * @param index Index of the value, starting at 0.
+     * @return Value at the index.
+     */
+    public int get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index +
+                    " out of bounds for size " + this.size);
+        }
+        return this.values[index];
+    }
+
+    /**
+     * Method to add a value to the end of the list.
+     * @param value Value to add.
+     */
+    public void add(int value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size] = value;
+        this.size++;
+    }
+
+    /**
+     * Method to remove the first occurrence of a value from the list.
+     * @param value Value to remove.
+     * @return true if the value was found and removed.
+     */
+    public boolean remove(int value) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.values[i] == value) {
+                System.arraycopy(this.values, i + 1, this.values, i,
+                        this.size - i - 1);
+                this.size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to copy the values into an array.
+     * @return Array containing the values in list order.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,512 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * This class is the BookingRepository kept in an embedded database reached
+ * through JDBC, such as H2 (jdbc:h2:./Bookings) or SQLite
+ * (jdbc:sqlite:Bookings.db). The driver must be on the class path; only
+ * plain SQL that both understand is used.
+ * Each booking is one row. The booking itself is kept as a binary record in
+ * the format of BinaryBookingFile, led by its format version byte; rows
+ * saved before the version byte was added start with the type byte and
+ * are read as version 1. The record sits next to the columns that are
+ * searched:
+ * the bookingID as primary key, and the customer name, destination,
+ * departure date and check-in date, each with an index. Dates are stored as
+ * epoch days so that a date range is an integer range on the index. Only
+ * the rows a query needs are read, so there can be more bookings than fit
+ * on the heap.
+ * Every statement is prepared once per connection, and a batch of bookings
+ * is saved with batched statements in one transaction.
+ */
+public class JdbcBookingRepository implements BookingRepository {
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS bookings (" +
+                    "booking_id INTEGER PRIMARY KEY, " +
+                    "customer_key VARCHAR(255) NOT NULL, " +
+                    "destination_key VARCHAR(255), " +
+                    "departure_day INTEGER, " +
+                    "check_in_day INTEGER, " +
+                    "record BLOB NOT NULL)",
+            "CREATE INDEX IF NOT EXISTS bookings_customer ON bookings " +
+                    "(customer_key)",
+            "CREATE INDEX IF NOT EXISTS bookings_destination ON bookings " +
+                    "(destination_key)",
+            "CREATE INDEX IF NOT EXISTS bookings_departure ON bookings " +
+                    "(departure_day)",
+            "CREATE INDEX IF NOT EXISTS bookings_check_in ON bookings " +
+                    "(check_in_day)"
+    };
+    private static final String SELECT = "SELECT record FROM bookings ";
+    //Number of rows read from the database at a time by forEach.
+    private static final int PAGE_SIZE = 1000;
+    private final String url;
+    private Connection connection;
+    private PreparedStatement findStatement;
+    private PreparedStatement lastStatement;
+    private PreparedStatement pageStatement;
+    private PreparedStatement customerStatement;
+    private PreparedStatement destinationStatement;
+    private PreparedStatement departureStatement;
+    private PreparedStatement checkInStatement;
+    private PreparedStatement countStatement;
+    private PreparedStatement deleteStatement;
+    private PreparedStatement insertStatement;
+
+    /**
+     * Class constructor for a database. The connection is opened, and the
+     * table and indexes created if needed, when the database is first used.
+     * @param url JDBC URL of the database.
+     */
+    public JdbcBookingRepository(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Method to get the booking with a bookingID.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized Booking find(int bookingID) throws IOException {
+        try {
+            connect();
+            this.findStatement.setInt(1, bookingID);
+            List<Booking> found = query(this.findStatement);
+            return found.isEmpty() ? null : found.get(0);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get the booking with the highest bookingID.
+     * @return Booking object, or null if there are no bookings.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized Booking findLast() throws IOException {
+        try {
+            connect();
+            List<Booking> found = query(this.lastStatement);
+            return found.isEmpty() ? null : found.get(0);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get every booking made by a customer.
+     * @param customerName Customer's name, in any case.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized List<Booking> findByCustomer(String customerName)
+            throws IOException {
+        try {
+            connect();
+            this.customerStatement.setString(1, normalise(customerName));
+            return query(this.customerStatement);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get every booking to a destination.
+     * @param destination Destination, in any case.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized List<Booking> findByDestination(String destination)
+            throws IOException {
+        try {
+            connect();
+            this.destinationStatement.setString(1, normalise(destination));
+            return query(this.destinationStatement);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get every booking departing in a date range.
+     * @param from First departure date, inclusive.
+     * @param to Last departure date, inclusive.
+     * @return List of bookings ordered by departure date.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized List<Booking> findDepartingBetween(LocalDate from,
+                                                           LocalDate to)
+            throws IOException {
+        try {
+            connect();
+            return queryRange(this.departureStatement, from, to);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get every holiday booking checking in in a date range.
+     * @param from First check-in date, inclusive.
+     * @param to Last check-in date, inclusive.
+     * @return List of bookings ordered by check-in date.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized List<Booking> findCheckingInBetween(LocalDate from,
+                                                            LocalDate to)
+            throws IOException {
+        try {
+            connect();
+            return queryRange(this.checkInStatement, from, to);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get every booking. Every row is read, so this needs room on
+     * the heap for all of them.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized List<Booking> findAll() throws IOException {
+        try {
+            connect();
+            try (PreparedStatement all = this.connection.prepareStatement(
+                    SELECT + "ORDER BY booking_id")) {
+                return query(all);
+            }
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to hand every booking to an action in bookingID order. The rows
+     * are read a page at a time, so only the bookings of one page are held
+     * at once. The action is called once the page has been read, so other
+     * queries and saves can run between pages, including ones the action
+     * waits for.
+     * @param action Consumer called with each booking.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public void forEach(Consumer<Booking> action) throws IOException {
+        List<Booking> page;
+        int last = Integer.MIN_VALUE;
+        do {
+            page = findPage(last);
+            for (Booking booking : page) {
+                action.accept(booking);
+            }
+            if (!page.isEmpty()) {
+                last = page.get(page.size() - 1).getBookingID();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    /**
+     * Method to get the page of bookings that follows a bookingID.
+     * @param after BookingID the page starts after.
+     * @return List of at most PAGE_SIZE bookings in bookingID order.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    private synchronized List<Booking> findPage(int after)
+            throws IOException {
+        try {
+            connect();
+            this.pageStatement.setInt(1, after);
+            this.pageStatement.setInt(2, PAGE_SIZE);
+            return query(this.pageStatement);
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to get the number of bookings stored.
+     * @return Integer value of number of bookings.
+     * @throws IOException propagates to user when the database cannot be
+     *                      read.
+     */
+    @Override
+    public synchronized int count() throws IOException {
+        try {
+            connect();
+            try (ResultSet rows = this.countStatement.executeQuery()) {
+                return rows.next() ? rows.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to store new and changed bookings in one transaction. The rows
+     * of the bookings are deleted and inserted again with two batched
+     * statements, which every database supports, instead of an upsert.
+     * @param bookings Collection of FlightBooking and HolidayBooking objects.
+     * @throws IOException propagates to user when the database cannot be
+     *                      written. Then none of the bookings are stored.
+     */
+    @Override
+    public synchronized void saveAll(Collection<Booking> bookings)
+            throws IOException {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        try {
+            connect();
+            try {
+                for (Booking booking : bookings) {
+                    this.deleteStatement.setInt(1, booking.getBookingID());
+                    this.deleteStatement.addBatch();
+                    bindRow(this.insertStatement, booking);
+                    this.insertStatement.addBatch();
+                }
+                this.deleteStatement.executeBatch();
+                this.insertStatement.executeBatch();
+                this.connection.commit();
+            } catch (SQLException | IOException e) {
+                this.deleteStatement.clearBatch();
+                this.insertStatement.clearBatch();
+                this.connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw databaseError(e);
+        }
+    }
+
+    /**
+     * Method to close the connection. It is opened again the next time the
+     * database is used.
+     * @throws IOException propagates to user when the connection cannot be
+     *                      closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.connection == null) {
+            return;
+        }
+        try {
+            //Closing the connection also closes its statements.
+            this.connection.close();
+        } catch (SQLException e) {
+            throw databaseError(e);
+        } finally {
+            this.connection = null;
+        }
+    }
+
+    /**
+     * Method to open the connection, create the table and indexes if they do
+     * not exist, and prepare the statements.
+     * @throws SQLException when the database cannot be opened.
+     */
+    private void connect() throws SQLException {
+        if (this.connection != null) {
+            return;
+        }
+        Connection opened = DriverManager.getConnection(this.url);
+        try (Statement schema = opened.createStatement()) {
+            for (String sql : SCHEMA) {
+                schema.execute(sql);
+            }
+            opened.setAutoCommit(false);
+            opened.commit();
+            this.findStatement = opened.prepareStatement(SELECT +
+                    "WHERE booking_id = ?");
+            this.lastStatement = opened.prepareStatement(SELECT +
+                    "ORDER BY booking_id DESC LIMIT 1");
+            this.pageStatement = opened.prepareStatement(SELECT +
+                    "WHERE booking_id > ? ORDER BY booking_id LIMIT ?");
+            this.customerStatement = opened.prepareStatement(SELECT +
+                    "WHERE customer_key = ? ORDER BY booking_id");
+            this.destinationStatement = opened.prepareStatement(SELECT +
+                    "WHERE destination_key = ? ORDER BY booking_id");
+            this.departureStatement = opened.prepareStatement(SELECT +
+                    "WHERE departure_day BETWEEN ? AND ? " +
+                    "ORDER BY departure_day, booking_id");
+            this.checkInStatement = opened.prepareStatement(SELECT +
+                    "WHERE check_in_day BETWEEN ? AND ? " +
+                    "ORDER BY check_in_day, booking_id");
+            this.countStatement = opened.prepareStatement(
+                    "SELECT COUNT(*) FROM bookings");
+            this.deleteStatement = opened.prepareStatement(
+                    "DELETE FROM bookings WHERE booking_id = ?");
+            this.insertStatement = opened.prepareStatement(
+                    "INSERT INTO bookings (booking_id, customer_key, " +
+                            "destination_key, departure_day, check_in_day, " +
+                            "record) VALUES (?, ?, ?, ?, ?, ?)");
+        } catch (SQLException e) {
+            opened.close();
+            throw e;
+        }
+        this.connection = opened;
+    }
+
+    /**
+     * Method to run a query for a date range.
+     * @param statement PreparedStatement with the first and last epoch day
+     *                  as parameters.
+     * @param from First date, inclusive.
+     * @param to Last date, inclusive.
+     * @return List of bookings in the order of the query.
+     * @throws SQLException when the query fails.
+     * @throws IOException when a record cannot be decoded.
+     */
+    private List<Booking> queryRange(PreparedStatement statement,
+                                     LocalDate from, LocalDate to)
+            throws SQLException, IOException {
+        statement.setLong(1, from.toEpochDay());
+        statement.setLong(2, to.toEpochDay());
+        return query(statement);
+    }
+
+    /**
+     * Method to run a query for the record column and decode every row.
+     * Reading ends the transaction, so a later query sees later commits.
+     * @param statement PreparedStatement selecting the record column.
+     * @return List of bookings in the order of the query.
+     * @throws SQLException when the query fails.
+     * @throws IOException when a record cannot be decoded.
+     */
+    private List<Booking> query(PreparedStatement statement)
+            throws SQLException, IOException {
+        ArrayList<Booking> bookings = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                bookings.add(decode(rows.getBytes(1)));
+            }
+        }
+        this.connection.commit();
+        return bookings;
+    }
+
+    /**
+     * Method to set the parameters of the insert statement for a booking.
+     * @param statement PreparedStatement inserting a row.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @throws SQLException when a parameter cannot be set.
+     * @throws IOException when the booking cannot be encoded.
+     */
+    private static void bindRow(PreparedStatement statement, Booking booking)
+            throws SQLException, IOException {
+        FlightBooking flight = booking instanceof HolidayBooking ?
+                ((HolidayBooking) booking).getFlight() :
+                (FlightBooking) booking;
+        statement.setInt(1, booking.getBookingID());
+        statement.setString(2, normalise(booking.getCustomerName()));
+        if (flight.getDestination() != null) {
+            statement.setString(3, normalise(flight.getDestination()));
+        } else {
+            statement.setNull(3, Types.VARCHAR);
+        }
+        setDay(statement, 4, flight.getDepartureDate());
+        setDay(statement, 5, booking instanceof HolidayBooking ?
+                ((HolidayBooking) booking).getCheckIn() : null);
+        statement.setBytes(6, encode(booking));
+    }
+
+    /**
+     * Method to set a date parameter as an epoch day.
+     * @param statement PreparedStatement to set the parameter of.
+     * @param index Index of the parameter, starting at 1.
+     * @param date LocalDate to set, may be null.
+     * @throws SQLException when the parameter cannot be set.
+     */
+    private static void setDay(PreparedStatement statement, int index,
+                               LocalDate date) throws SQLException {
+        if (date != null) {
+            statement.setLong(index, date.toEpochDay());
+        } else {
+            statement.setNull(index, Types.INTEGER);
+        }
+    }
+
+    /**
+     * Method to encode a booking as a binary record.
+     * @param booking FlightBooking or HolidayBooking object.
+     * @return Array holding the record.
+     * @throws IOException when the booking cannot be encoded.
+     */
+    private static byte[] encode(Booking booking) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(BinaryBookingFile.VERSION);
+        BinaryBookingFile.writeBooking(out, booking);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Method to decode a binary record back into a booking.
+     * @param record Array holding the record.
+     * @return FlightBooking or HolidayBooking object.
+     * @throws IOException when the record cannot be decoded.
+     */
+    private static Booking decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(record));
+        int first = in.read();
+        //Rows without a version byte start with the type byte 'F' or 'H'.
+        if (first == 'F' || first == 'H') {
+            return BinaryBookingFile.readBooking(in, first, 1);
+        }
+        return BinaryBookingFile.readBooking(in, in.read(), first);
+    }
+
+    /**
+     * Method to turn a name into the form used as a key in the indexes.
+     * @param name Customer name or destination.
+     * @return Name in the same form as FlightCatalog destinations.
+     */
+    private static String normalise(String name) {
+        return FlightCatalog.normaliseDestination(name);
+    }
+
+    /**
+     * Method to report a database error the same way as a file error.
+     * @param e SQLException thrown by the database.
+     * @return IOException to throw.
+     */
+    private static IOException databaseError(SQLException e) {
+        return new IOException("Booking database error: " + e.getMessage(),
+                e);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package model;
+
+/**
+ * This enum lists when the BookingJournal forces its records onto the disk.
+ * Records that have been appended but not forced survive the program
+ * stopping, but may be lost if the whole machine stops.
+ */
+public enum JournalSyncPolicy {
+    /**
+     * Every record is forced onto the disk before the booking method
+     * returns. Slowest, but no confirmed booking can be lost. Bookings made
+     * at the same time by different threads share one force.
+     */
+    EVERY_RECORD,
+    /**
+     * Records are forced onto the disk by a background thread at a fixed
+     * interval, so at most one interval of bookings can be lost.
+     */
+    PERIODIC,
+    /**
+     * Records are only forced onto the disk when the bookings are saved.
+     */
+    ON_SAVE
+}
\ No newline at end of file
@@ -0,0 +1,283 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class gives access to the bookings in a binary bookings file without
+ * reading them all into memory. Opening the file maps it and walks over the
+ * records once to build an index of where each bookingID is; no booking is
+ * decoded. A booking is decoded the first time it is asked for, and the
+ * most recently used bookings are kept in a cache of fixed size so that the
+ * heap only holds the bookings in use.
+ */
+public class LazyBookingFile implements Closeable {
+    //Largest part of the file that is mapped as one buffer.
+    private static final int WINDOW_SIZE = 1 << 30;
+    private final FileChannel channel;
+    private final ArrayList<MappedByteBuffer> windows;
+    private final Map<Integer, Booking> cache;
+    private int[] bookingIDs;
+    private long[] locations;
+    private int[] lengths;
+    private int size;
+    //Format version read from the header.
+    private int version;
+
+    /**
+     * Class constructor to map a binary bookings file and index its records.
+     * @param file Path of the file.
+     * @param cacheSize Largest number of decoded bookings kept in memory.
+     * @throws IOException propagates to user when the file cannot be read or
+     *                      is not a bookings file of a known version.
+     */
+    public LazyBookingFile(Path file, int cacheSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.windows = new ArrayList<>();
+        this.bookingIDs = new int[1024];
+        this.locations = new long[1024];
+        this.lengths = new int[1024];
+        //Access order, so the eldest entry is the least recently used.
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Integer, Booking> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        //The mapped windows stay readable after the channel is closed.
+        try {
+            buildIndex();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Method to get the number of bookings in the file.
+     * @return Integer value of number of bookings.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to check if a bookingID is in the file without decoding it.
+     * @param bookingID BookingID of the booking.
+     * @return true if ID exists, false if it doesn't.
+     */
+    public boolean contains(int bookingID) {
+        return indexOf(bookingID) >= 0;
+    }
+
+    /**
+     * Method to get a booking, decoding it if it is not in the cache. The
+     * same object is returned for as long as it stays in the cache.
+     * @param bookingID BookingID of the booking.
+     * @return Booking object, or null if no booking has the ID.
+     */
+    public Booking get(int bookingID) {
+        synchronized (this.cache) {
+            Booking cached = this.cache.get(bookingID);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        int index = indexOf(bookingID);
+        if (index < 0) {
+            return null;
+        }
+        Booking booking = read(index);
+        synchronized (this.cache) {
+            //Another thread may have decoded it first; keep its object.
+            Booking cached = this.cache.putIfAbsent(bookingID, booking);
+            return cached != null ? cached : booking;
+        }
+    }
+
+    /**
+     * Method to get the bookingID of a record by its position in bookingID
+     * order.
+     * @param index Position of the record, from 0 to size() - 1.
+     * @return BookingID of the record.
+     */
+    public int getBookingID(int index) {
+        return this.bookingIDs[index];
+    }
+
+    /**
+     * Method to decode a record by its position in bookingID order, without
+     * putting it in the cache. Used to go through every booking once.
+     * @param index Position of the record, from 0 to size() - 1.
+     * @return New Booking object.
+     */
+    public Booking read(int index) {
+        long location = this.locations[index];
+        MappedByteBuffer window = this.windows.get((int) (location >>> 32));
+        byte[] record = new byte[this.lengths[index]];
+        window.get((int) location, record);
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(record));
+            return BinaryBookingFile.readBooking(in, in.read(),
+                    this.version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method to empty the cache. The mapped file is released once the object
+     * is no longer used.
+     */
+    @Override
+    public void close() {
+        synchronized (this.cache) {
+            this.cache.clear();
+        }
+    }
+
+    /**
+     * Method to walk over every record, mapping the file a window at a
+     * time, and record where each one is.
+     * @throws IOException when the file is not a bookings file.
+     */
+    private void buildIndex() throws IOException {
+        long fileSize = this.channel.size();
+        MappedByteBuffer window = map(0, fileSize);
+        this.version = BinaryBookingFile.readHeader(new DataInputStream(
+                new ByteArrayInputStream(headerOf(window))));
+        window.position(BinaryBookingFile.HEADER_SIZE);
+        long windowStart = 0;
+        boolean sorted = true;
+        while (windowStart + window.position() < fileSize) {
+            int start = window.position();
+            int bookingID;
+            try {
+                bookingID = BinaryBookingFile.skipBooking(window);
+            } catch (BufferUnderflowException e) {
+                //The record runs past the window, so map again from it.
+                if (start == 0 ||
+                        windowStart + window.limit() >= fileSize) {
+                    throw new IOException("Bookings file is malformed.");
+                }
+                windowStart += start;
+                window = map(windowStart, fileSize);
+                continue;
+            }
+            sorted &= this.size == 0 ||
+                    this.bookingIDs[this.size - 1] < bookingID;
+            add(bookingID, (long) (this.windows.size() - 1) << 32 | start,
+                    window.position() - start);
+        }
+        if (!sorted) {
+            sortByBookingID();
+        }
+    }
+
+    /**
+     * Method to map the part of the file starting at an offset.
+     * @param offset Offset in the file of the start of the window.
+     * @param fileSize Size of the file.
+     * @return MappedByteBuffer of the window.
+     * @throws IOException when the file cannot be mapped.
+     */
+    private MappedByteBuffer map(long offset, long fileSize)
+            throws IOException {
+        MappedByteBuffer window = this.channel.map(
+                FileChannel.MapMode.READ_ONLY, offset,
+                Math.min(WINDOW_SIZE, fileSize - offset));
+        this.windows.add(window);
+        return window;
+    }
+
+    /**
+     * Method to copy the header bytes from the start of the file.
+     * @param window First window of the file.
+     * @return Array of header bytes.
+     * @throws IOException when the file is shorter than a header.
+     */
+    private static byte[] headerOf(MappedByteBuffer window) throws IOException {
+        if (window.limit() < BinaryBookingFile.HEADER_SIZE) {
+            throw new IOException("File is not a bookings file.");
+        }
+        byte[] header = new byte[BinaryBookingFile.HEADER_SIZE];
+        window.get(0, header);
+        return header;
+    }
+
+    /**
+     * Method to add a record to the index, growing the arrays if needed.
+     * @param bookingID BookingID of the record.
+     * @param location Window number in the high half and position in the
+     *                 window in the low half.
+     * @param length Number of bytes in the record.
+     */
+    private void add(int bookingID, long location, int length) {
+        if (this.size == this.bookingIDs.length) {
+            int capacity = this.size * 2;
+            this.bookingIDs = Arrays.copyOf(this.bookingIDs, capacity);
+            this.locations = Arrays.copyOf(this.locations, capacity);
+            this.lengths = Arrays.copyOf(this.lengths, capacity);
+        }
+        this.bookingIDs[this.size] = bookingID;
+        this.locations[this.size] = location;
+        this.lengths[this.size] = length;
+        this.size++;
+    }
+
+    /**
+     * Method to put the index in bookingID order for a file that was not
+     * written in that order. A later record for a bookingID wins.
+     */
+    private void sortByBookingID() {
+        //Sort the bookingID and record number together in one long.
+        long[] keys = new long[this.size];
+        for (int i = 0; i < this.size; i++) {
+            keys[i] = (long) this.bookingIDs[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] sortedIDs = new int[this.size];
+        long[] sortedLocations = new long[this.size];
+        int[] sortedLengths = new int[this.size];
+        int count = 0;
+        for (long key : keys) {
+            int record = (int) key;
+            int bookingID = (int) (key >> 32);
+            //Keys with the same ID are next to each other, oldest first.
+            if (count > 0 && sortedIDs[count - 1] == bookingID) {
+                count--;
+            }
+            sortedIDs[count] = bookingID;
+            sortedLocations[count] = this.locations[record];
+            sortedLengths[count] = this.lengths[record];
+            count++;
+        }
+        this.bookingIDs = sortedIDs;
+        this.locations = sortedLocations;
+        this.lengths = sortedLengths;
+        this.size = count;
+    }
+
+    /**
+     * Method to find the position of a bookingID in the index.
+     * @param bookingID BookingID of the booking.
+     * @return Position in bookingID order, or a negative number if the ID is
+     *         not in the file.
+     */
+    private int indexOf(int bookingID) {
+        return Arrays.binarySearch(this.bookingIDs, 0, this.size, bookingID);
+    }
+}
\ No newline at end of file
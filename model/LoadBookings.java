@@ -1,20 +1,19 @@
 package model;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.time.LocalDate;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
 
 /**
  * This class functions as the file handling purpose of loading data from files.
  */
 public class LoadBookings {
-    private BufferedReader objReader;
     private final String flightBookingsFile = "FlightBookings.txt";
     private final String holidayBookingsFile = "HolidayBookings.txt";
+    private final String binaryBookingsFile = "Bookings.dat";
     private ArrayList<Booking> bookings;
 
     /**
@@ -28,114 +27,73 @@ public class LoadBookings {
     /**
      * Class constructor to instantiate a new bookings array and perform the
      * necessary reading and creation of new objects to be added to the
-     * bookings array.
+     * bookings array. When the bookings.partitions system property names a
+     * partitions directory, only its active partitions are read, and the
+     * numbers of the bookings in sealed months are reserved.
+     * Bookings.dat is read when the binary format is chosen by the
+     * bookings.storage.format system property and the file exists;
+     * otherwise the text files are read.
      * @throws IOException propagates to user when an error occurs with opening
      *                      the record files.
      */
     public LoadBookings() throws IOException {
-        this.bookings = new ArrayList<>();
-        readFlightBookings();
-        readHolidayBookings();
-        //Sorting the array by bookingID ascending
-        bookings.sort(Comparator.comparing(Booking::getBookingID));
+        BookingPartitions partitions = BookingPartitions.fromConfig();
+        if (partitions != null) {
+            this.bookings = partitions.readActive();
+            partitions.reserveNumbers();
+        } else {
+            readFiles(StorageFormat.fromConfig());
+        }
     }
 
     /**
-     * Method to open flight booking file to read, create FlightBooking
-     * objects and add to array.
-     * @throws IOException
+     * Overloaded class constructor to read the bookings files of a
+     * particular format. Text files are parsed in parallel by the
+     * ParallelBookingLoader. A bookings file that does not exist yet is
+     * treated as having no bookings.
+     * @param format StorageFormat to read. A binary format falls back to the
+     *               text files when Bookings.dat does not exist yet.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
      */
-    private void readFlightBookings() throws IOException {
-        int bookingID, invoiceNo;
-        String customerName, flightNumber, destination;
-        LocalDate bookingDate, departureDate;
-        ArrayList<String> passengers = new ArrayList<>();
-        double singleFlightCost, totalCost;
-
-        String line;
-        this.objReader =
-                new BufferedReader(new FileReader(this.flightBookingsFile));
-        //While loop until line is null to iterate through all the lines
-        // in a txt file to find the right flight record.
-        while ((line = this.objReader.readLine()) != null) {
-            String[] values = line.split("<");
-            bookingID = Integer.parseInt(values[0]);
-            customerName = values[1];
-            bookingDate = LocalDate.parse(values[2]);
-            invoiceNo = Integer.parseInt(values[3]);
-            flightNumber = values[4];
-            destination = values[5];
-            departureDate = LocalDate.parse(values[6]);
-            String[] passengerList = values[7].split(">");
-            passengers.addAll(Arrays.asList(passengerList));
-            singleFlightCost = Double.parseDouble(values[8]);
-            totalCost = Double.parseDouble(values[9]);
-            //Create a FlightBooking object to add to array
-            FlightBooking object = new FlightBooking(bookingID, customerName,
-                    bookingDate, invoiceNo, flightNumber, destination,
-                    departureDate, passengers, singleFlightCost, totalCost);
-            this.bookings.add(object);
-        }
-        this.objReader.close();
+    public LoadBookings(StorageFormat format) throws IOException {
+        readFiles(format);
     }
 
     /**
-     * Method to open holiday booking file to read, create objects and add to
-     * array.
-     * @throws IOException
+     * Overloaded class constructor to read bookings stored in partitions
+     * by departure month. The numbers of every stored booking are reserved,
+     * so new bookings do not reuse the numbers of sealed ones.
+     * @param partitions BookingPartitions to read.
+     * @param includeSealed true to read the sealed months as well as the
+     *                      active ones.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the partition files.
      */
-    public void readHolidayBookings() throws IOException {
-        //Variables for FlightBooking object in HolidayBooking
-        int bookingID, invoiceNo;
-        String customerName, flightNumber, destination;
-        LocalDate bookingDate, departureDate;
-        ArrayList<String> passengers = new ArrayList<>();
-        double singleFlightCost, totalCost;
-
-        //Variables for HolidayBooking
-        String accommodationName, accommodationAddress;
-        LocalDate checkIn, checkOut;
-        double singleNightCost, HolidayTotalCost;
-
-        String line;
-        this.objReader =
-                new BufferedReader(new FileReader(this.holidayBookingsFile));
-        //While loop until line is null to iterate through all the lines
-        // in a txt file to find the right flight record.
-        while ((line = this.objReader.readLine()) != null) {
-            String[] values = line.split("<");
-            bookingID = Integer.parseInt(values[0]);
-            customerName = values[1];
-            bookingDate = LocalDate.parse(values[2]);
-            invoiceNo = Integer.parseInt(values[3]);
-            flightNumber = values[4];
-            destination = values[5];
-            departureDate = LocalDate.parse(values[6]);
-            String[] passengerList = values[7].split(">");
-            passengers.addAll(Arrays.asList(passengerList));
-            singleFlightCost = Double.parseDouble(values[8]);
-            totalCost = Double.parseDouble(values[9]);
-            accommodationName = values[10];
-            accommodationAddress = values[11];
-            checkIn = LocalDate.parse(values[12]);
-            checkOut = LocalDate.parse(values[13]);
-            singleNightCost = Double.parseDouble(values[14]);
-            HolidayTotalCost = Double.parseDouble(values[15]);
-
-            //Create the FlightBooking object
-            FlightBooking flightObject = new FlightBooking(bookingID,
-                    customerName,
-                    bookingDate, invoiceNo, flightNumber, destination,
-                    departureDate, passengers, singleFlightCost, totalCost);
-
-            //Create the HolidayBooking object.
-            HolidayBooking holidayObject = new HolidayBooking(bookingID,
-                    customerName, bookingDate, invoiceNo, flightObject,
-                    accommodationName, accommodationAddress, checkIn,
-                    checkOut, singleNightCost, HolidayTotalCost);
+    public LoadBookings(BookingPartitions partitions, boolean includeSealed)
+            throws IOException {
+        this.bookings = includeSealed ? partitions.readAll() :
+                partitions.readActive();
+        partitions.reserveNumbers();
+    }
 
-            this.bookings.add(holidayObject);
+    /**
+     * Method to read the bookings files of a format.
+     * @param format StorageFormat to read.
+     * @throws IOException when the files cannot be read.
+     */
+    private void readFiles(StorageFormat format) throws IOException {
+        Path binaryFile = Paths.get(this.binaryBookingsFile);
+        if (format == StorageFormat.BINARY && Files.exists(binaryFile)) {
+            this.bookings = BinaryBookingFile.read(binaryFile);
+            //Already in order when written by the program, which makes
+            // this sort a single pass.
+            this.bookings.sort(Comparator.comparingInt(Booking::getBookingID));
+        } else {
+            //Bookings come back in bookingID order, so no sorting is needed.
+            this.bookings = new ParallelBookingLoader().load(
+                    Paths.get(this.flightBookingsFile),
+                    Paths.get(this.holidayBookingsFile));
         }
-        this.objReader.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads a delimited records file through a memory-mapped buffer.
+ * Each call to nextRecord finds the line and field boundaries directly in
+ * the mapped bytes; a field only becomes a String when it is asked for, so
+ * rows and fields that are not needed cost no allocation.
+ * Files smaller than MAP_THRESHOLD are read into a heap buffer instead of
+ * being mapped, as a mapping is only released when the garbage collector
+ * frees its buffer and the records files are opened again on every reload.
+ */
+public class MappedRecordReader implements Closeable {
+    //Largest part of the file that is mapped at one time.
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    //Files smaller than this are read into the heap rather than mapped.
+    private static final int MAP_THRESHOLD = 4 * 1024 * 1024;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final byte delimiter;
+    private ByteBuffer buffer;
+    private long windowStart;
+    private int position;
+    private int fieldCount;
+    private int[] fieldStarts;
+    private int[] fieldEnds;
+    private byte[] scratch;
+
+    /**
+     * Class constructor to open and map a records file, or to read it when
+     * it is small.
+     * @param filename Path of the records file.
+     * @param delimiter Character that separates fields on a line.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public MappedRecordReader(String filename, char delimiter)
+            throws IOException {
+        this.channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.READ);
+        this.fileSize = this.channel.size();
+        this.delimiter = (byte) delimiter;
+        this.fieldStarts = new int[8];
+        this.fieldEnds = new int[8];
+        this.scratch = new byte[256];
+        mapWindow(0);
+    }
+
+    /**
+     * Method to move to the next non-empty line of the file.
+     * @return true if a line was found, false at the end of the file.
+     * @throws IOException when a line is longer than the mapped window.
+     */
+    public boolean nextRecord() throws IOException {
+        while (this.windowStart + this.position < this.fileSize) {
+            int end = scanRecord();
+            //The line runs past the mapped window, so map again from the
+            // start of the line and scan it a second time.
+            if (end < 0) {
+                if (this.position == 0) {
+                    throw new IOException("Record is longer than " +
+                            WINDOW_SIZE + " bytes.");
+                }
+                mapWindow(this.windowStart + this.position);
+                continue;
+            }
+            int lineEnd = end;
+            if (lineEnd > this.position && this.buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            boolean empty = lineEnd == this.position;
+            if (!empty) {
+                splitFields(this.position, lineEnd);
+            }
+            this.position = Math.min(end + 1, this.buffer.limit());
+            if (!empty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to get the number of fields on the current line.
+     * @return Integer value of number of fields.
+     */
+    public int getFieldCount() {
+        return this.fieldCount;
+    }
+
+    /**
+     * Method to get a field of the current line as a String.
+     * @param index Index of the field, starting at 0.
+     * @return String value of the field.
+     */
+    public String getField(int index) {
+        checkIndex(index);
+        int start = this.fieldStarts[index];
+        int length = this.fieldEnds[index] - start;
+        if (length > this.scratch.length) {
+            this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+        }
+        this.buffer.get(start, this.scratch, 0, length);
+        return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to get a field of the current line as an amount of money.
+     * @param index Index of the field, starting at 0.
+     * @return Money value of the field.
+     * @throws NumberFormatException when the field is not a decimal.
+     */
+    public Money getMoneyField(int index) {
+        return Money.parse(getField(index));
+    }
+
+    /**
+     * Method to check if a field of the current line is equal to a String
+     * without creating a String from the field.
+     * @param index Index of the field, starting at 0.
+     * @param value String to compare with.
+     * @return true if the field holds exactly the same text.
+     */
+    public boolean fieldEquals(int index, String value) {
+        checkIndex(index);
+        int start = this.fieldStarts[index];
+        int length = this.fieldEnds[index] - start;
+        boolean equal = length == value.length();
+        for (int i = 0; equal && i < length; i++) {
+            byte b = this.buffer.get(start + i);
+            //Anything outside ASCII is compared as a decoded String.
+            if (b < 0) {
+                return getField(index).equals(value);
+            }
+            equal = b == value.charAt(i);
+        }
+        return equal;
+    }
+
+    /**
+     * Method to close the file.
+     * @throws IOException when the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Method to map the part of the file starting at an offset. A small file
+     * is read into a heap buffer whole instead.
+     * @param offset Offset in the file of the start of the window.
+     * @throws IOException when the file cannot be mapped or read.
+     */
+    private void mapWindow(long offset) throws IOException {
+        long size = Math.min(WINDOW_SIZE, this.fileSize - offset);
+        if (this.fileSize < MAP_THRESHOLD) {
+            this.buffer = ByteBuffer.allocate((int) size);
+            while (this.buffer.hasRemaining()) {
+                if (this.channel.read(this.buffer,
+                        offset + this.buffer.position()) < 0) {
+                    throw new IOException("The records file got shorter " +
+                            "while it was read.");
+                }
+            }
+            this.buffer.flip();
+        } else {
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY,
+                    offset, size);
+        }
+        this.windowStart = offset;
+        this.position = 0;
+    }
+
+    /**
+     * Method to find the end of the line starting at the current position.
+     * @return Index in the buffer of the line's newline, or of the end of the
+     *         file if the last line has none. -1 if the line is cut off by
+     *         the end of the mapped window.
+     */
+    private int scanRecord() {
+        int limit = this.buffer.limit();
+        for (int i = this.position; i < limit; i++) {
+            if (this.buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        if (this.windowStart + limit >= this.fileSize) {
+            return limit;
+        }
+        return -1;
+    }
+
+    /**
+     * Method to record the start and end of every field in a line.
+     * @param start Index in the buffer where the line starts.
+     * @param end Index in the buffer where the line ends.
+     */
+    private void splitFields(int start, int end) {
+        this.fieldCount = 0;
+        int fieldStart = start;
+        for (int i = start; i < end; i++) {
+            if (this.buffer.get(i) == this.delimiter) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        addField(fieldStart, end);
+    }
+
+    /**
+     * Method to add a field boundary, growing the boundary arrays if needed.
+     * @param start Index in the buffer where the field starts.
+     * @param end Index in the buffer where the field ends.
+     */
+    private void addField(int start, int end) {
+        if (this.fieldCount == this.fieldStarts.length) {
+            int[] starts = new int[this.fieldCount * 2];
+            int[] ends = new int[this.fieldCount * 2];
+            System.arraycopy(this.fieldStarts, 0, starts, 0, this.fieldCount);
+            System.arraycopy(this.fieldEnds, 0, ends, 0, this.fieldCount);
+            this.fieldStarts = starts;
+            this.fieldEnds = ends;
+        }
+        this.fieldStarts[this.fieldCount] = start;
+        this.fieldEnds[this.fieldCount] = end;
+        this.fieldCount++;
+    }
+
+    /**
+     * Method to check that a field exists on the current line.
+     * @param index Index of the field, starting at 0.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.fieldCount) {
+            throw new IndexOutOfBoundsException("Line has " + this.fieldCount +
+                    " fields, field " + index + " requested.");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * This class is an amount of money held exactly as a whole number of cents.
+ * Objects are immutable. Costs are stored in the bookings and records as
+ * long cents, and Money objects are only made where a cost is handed to or
+ * from the rest of the program, so adding up costs over many bookings can
+ * be done on the long values without creating any objects and without
+ * rounding errors.
+ */
+public final class Money implements Comparable<Money> {
+    //Amount of no money.
+    public static final Money ZERO = new Money(0);
+    private final long cents;
+
+    /**
+     * Class constructor for an amount. Objects are created with ofCents or
+     * parse.
+     * @param cents Amount in cents.
+     */
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Method to get an amount from a number of cents.
+     * @param cents Amount in cents.
+     * @return Money object of the amount.
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Method to read an amount written as a decimal, such as "450.50" or
+     * "300". Amounts with more than two decimals are rounded to the nearest
+     * cent, halves away from zero.
+     * @param text Decimal amount.
+     * @return Money object of the amount.
+     * @throws NumberFormatException when the text is not a decimal.
+     */
+    public static Money parse(String text) {
+        return ofCents(parseCents(text));
+    }
+
+    /**
+     * Method to read an amount written as a decimal into cents. Plain
+     * decimals are read digit by digit; anything else, such as a number
+     * written with an exponent by older versions, is read by BigDecimal.
+     * @param text Decimal amount.
+     * @return Amount in cents.
+     * @throws NumberFormatException when the text is not a decimal.
+     */
+    public static long parseCents(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        long whole = 0;
+        int wholeDigits = 0;
+        while (i < length && isDigit(text.charAt(i)) && wholeDigits < 16) {
+            whole = whole * 10 + (text.charAt(i) - '0');
+            wholeDigits++;
+            i++;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (i < length && text.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(text.charAt(i))) {
+                int digit = text.charAt(i) - '0';
+                if (fractionDigits < 2) {
+                    fraction = fraction * 10 + digit;
+                } else if (fractionDigits == 2) {
+                    roundUp = digit >= 5;
+                }
+                fractionDigits++;
+                i++;
+            }
+        }
+        if (i < length || wholeDigits + fractionDigits == 0) {
+            //Not a plain decimal, or too long to add up in a long.
+            return new BigDecimal(text.toString().trim())
+                    .setScale(2, RoundingMode.HALF_UP)
+                    .unscaledValue().longValueExact();
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long cents = whole * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Method to turn an amount that was stored as a double by older versions
+     * into cents, rounded to the nearest cent.
+     * @param value Amount as a double.
+     * @return Amount in cents.
+     */
+    public static long toCents(double value) {
+        return Math.round(value * 100);
+    }
+
+    /**
+     * Method to write an amount in cents as a decimal with two decimals,
+     * such as "450.50".
+     * @param cents Amount in cents.
+     * @return String of the amount.
+     */
+    public static String format(long cents) {
+        StringBuilder text = new StringBuilder(24);
+        appendTo(text, cents);
+        return text.toString();
+    }
+
+    /**
+     * Method to append an amount in cents to a StringBuilder as a decimal
+     * with two decimals, without creating a String for it.
+     * @param text StringBuilder to append to.
+     * @param cents Amount in cents.
+     */
+    public static void appendTo(StringBuilder text, long cents) {
+        if (cents < 0) {
+            text.append('-');
+        }
+        //Long.MIN_VALUE has no positive value, so work on the negative one.
+        long negated = cents < 0 ? cents : -cents;
+        text.append(-(negated / 100)).append('.');
+        int fraction = (int) -(negated % 100);
+        if (fraction < 10) {
+            text.append('0');
+        }
+        text.append(fraction);
+    }
+
+    /**
+     * Accessor method for cents.
+     * @return copy of cents.
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Method to add another amount to this one.
+     * @param other Money to add.
+     * @return Money object of the sum.
+     * @throws ArithmeticException when the sum does not fit in a long.
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(this.cents, other.cents));
+    }
+
+    /**
+     * Method to multiply this amount by a whole number.
+     * @param count Number to multiply by, such as a number of passengers.
+     * @return Money object of the product.
+     * @throws ArithmeticException when the product does not fit in a long.
+     */
+    public Money times(long count) {
+        return ofCents(Math.multiplyExact(this.cents, count));
+    }
+
+    /**
+     * Method to compare this amount with another.
+     * @param other Money to compare with.
+     * @return Negative, zero or positive as this amount is smaller, equal or
+     *         larger.
+     */
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(this.cents, other.cents);
+    }
+
+    /**
+     * Method to check if another object is the same amount.
+     * @param other Object to compare with.
+     * @return true if the other object is Money of the same amount.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == this.cents;
+    }
+
+    /**
+     * Method to get a hash code of the amount.
+     * @return Hash code of the cents.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.cents);
+    }
+
+    /**
+     * Method to write the amount as a decimal with two decimals.
+     * @return String such as "450.50".
+     */
+    @Override
+    public String toString() {
+        return format(this.cents);
+    }
+
+    /**
+     * Method to check if a character is an ASCII digit.
+     * @param c Character to check.
+     * @return true if the character is between '0' and '9'.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,327 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * This class reads bookings files on every core. A file is cut into byte
+ * ranges that each start at the beginning of a line; the ranges are mapped
+ * and parsed as separate tasks on a ForkJoinPool and their results are
+ * joined back in file order. Bookings are written in bookingID order, so
+ * the flight and holiday bookings are then merged in a single pass instead
+ * of being sorted. Each task reads its lines with its own
+ * BookingRecordCodec. A line of a bookings file may hold any number of
+ * bookings, as files saved by older versions have no line separators; such
+ * a file is one line and is parsed by a single task.
+ */
+public class ParallelBookingLoader {
+    //Smallest and largest number of bytes parsed by one task.
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private final ForkJoinPool pool;
+
+    /**
+     * Class constructor for a loader that uses the common ForkJoinPool.
+     */
+    public ParallelBookingLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Overloaded class constructor for a loader that uses its own pool.
+     * @param pool ForkJoinPool that runs the parsing tasks.
+     */
+    public ParallelBookingLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Method to load a flight bookings file and a holiday bookings file.
+     * Files that do not exist yet are treated as having no bookings.
+     * @param flightBookingsFile Path of the flight bookings file.
+     * @param holidayBookingsFile Path of the holiday bookings file.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the bookings files.
+     */
+    public ArrayList<Booking> load(Path flightBookingsFile,
+                                   Path holidayBookingsFile) throws IOException {
+        ArrayList<Booking> flights = loadFile(flightBookingsFile,
+                BookingRecordCodec::readFlights);
+        ArrayList<Booking> holidays = loadFile(holidayBookingsFile,
+                BookingRecordCodec::readHolidays);
+        return merge(flights, holidays);
+    }
+
+    /**
+     * Method to load a file of journal lines, such as a snapshot, where each
+     * line is tagged as a flight or holiday booking.
+     * @param file Path of the file.
+     * @return List of bookings in bookingID order.
+     * @throws IOException propagates to user when an error occurs with
+     *                      opening the file or a line cannot be understood.
+     */
+    public ArrayList<Booking> loadTagged(Path file) throws IOException {
+        return inOrder(loadFile(file,
+                (codec, line, offset, length, bookings) -> bookings.accept(
+                        BookingJournal.parse(codec, line, offset, length))));
+    }
+
+    /**
+     * Method to parse every line of a file in parallel.
+     * @param file Path of the file.
+     * @param parser Method that turns a line into bookings.
+     * @return List of bookings in file order.
+     * @throws IOException when the file cannot be read.
+     */
+    private ArrayList<Booking> loadFile(Path file, LineParser parser)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return new ArrayList<>();
+        }
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            long[] boundaries = findBoundaries(channel);
+            return this.pool.invoke(new ParseTask(channel, boundaries, 0,
+                    boundaries.length - 1, parser));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Method to cut a file into ranges that each start at the beginning of a
+     * line. Each range is about the same size, and there are a few ranges
+     * per core so cores that finish early can take more.
+     * @param channel FileChannel of the file.
+     * @return Array of offsets; range i runs from boundaries[i] up to
+     *         boundaries[i + 1].
+     * @throws IOException when the file cannot be read.
+     */
+    private long[] findBoundaries(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        long chunkSize = fileSize / (this.pool.getParallelism() * 4L);
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE,
+                chunkSize));
+        ArrayList<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long next = chunkSize;
+        while (next < fileSize) {
+            long lineStart = findLineStart(channel, next, probe);
+            //A line longer than a chunk moves the boundary past it.
+            if (lineStart > boundaries.get(boundaries.size() - 1) &&
+                    lineStart < fileSize) {
+                boundaries.add(lineStart);
+            }
+            next = Math.max(next + chunkSize, lineStart + 1);
+        }
+        boundaries.add(fileSize);
+
+        long[] offsets = new long[boundaries.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = boundaries.get(i);
+        }
+        return offsets;
+    }
+
+    /**
+     * Method to find the start of the first line at or after an offset.
+     * @param channel FileChannel of the file.
+     * @param offset Offset to search from.
+     * @param probe Buffer reused for reading.
+     * @return Offset just after the next line separator, or the size of the
+     *         file if there is none.
+     * @throws IOException when the file cannot be read.
+     */
+    private static long findLineStart(FileChannel channel, long offset,
+                                      ByteBuffer probe) throws IOException {
+        //Start one byte early so an offset already at a line start stays.
+        long position = offset - 1;
+        while (true) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Method to merge flight and holiday bookings into one list in
+     * bookingID order.
+     * @param flights Flight bookings in file order.
+     * @param holidays Holiday bookings in file order.
+     * @return List of all bookings in bookingID order.
+     */
+    private static ArrayList<Booking> merge(ArrayList<Booking> flights,
+                                            ArrayList<Booking> holidays) {
+        inOrder(flights);
+        inOrder(holidays);
+        ArrayList<Booking> merged =
+                new ArrayList<>(flights.size() + holidays.size());
+        int f = 0;
+        int h = 0;
+        while (f < flights.size() && h < holidays.size()) {
+            if (flights.get(f).getBookingID() <
+                    holidays.get(h).getBookingID()) {
+                merged.add(flights.get(f++));
+            } else {
+                merged.add(holidays.get(h++));
+            }
+        }
+        merged.addAll(flights.subList(f, flights.size()));
+        merged.addAll(holidays.subList(h, holidays.size()));
+        return merged;
+    }
+
+    /**
+     * Method to make sure bookings are in bookingID order. Files written by
+     * the program already are, so the list is only sorted if it was edited
+     * out of order.
+     * @param bookings List of bookings in file order.
+     * @return The same list, in bookingID order.
+     */
+    private static ArrayList<Booking> inOrder(ArrayList<Booking> bookings) {
+        for (int i = 1; i < bookings.size(); i++) {
+            if (bookings.get(i - 1).getBookingID() >
+                    bookings.get(i).getBookingID()) {
+                bookings.sort(Comparator.comparingInt(Booking::getBookingID));
+                break;
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * This interface turns one line of a file into bookings.
+     */
+    private interface LineParser {
+        /**
+         * Method to parse a line.
+         * @param codec BookingRecordCodec of the task parsing the line.
+         * @param line Array holding the line.
+         * @param offset Index of the first byte of the line.
+         * @param length Number of bytes in the line, without its separator.
+         * @param bookings Consumer called with each FlightBooking or
+         *                 HolidayBooking object in the line.
+         * @throws IOException when the line cannot be understood.
+         */
+        void parse(BookingRecordCodec codec, byte[] line, int offset,
+                   int length, Consumer<Booking> bookings)
+                throws IOException;
+    }
+
+    /**
+     * This class is a task that parses a run of ranges. Runs of more than
+     * one range are split in half and the halves run in parallel.
+     */
+    private static class ParseTask extends RecursiveTask<ArrayList<Booking>> {
+        private static final long serialVersionUID = 1L;
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final int first;
+        private final int last;
+        private final LineParser parser;
+
+        /**
+         * Class constructor for a task.
+         * @param channel FileChannel of the file.
+         * @param boundaries Offsets of the ranges of the file.
+         * @param first Index of the first range of the run.
+         * @param last Index after the last range of the run.
+         * @param parser Method that turns a line into bookings.
+         */
+        private ParseTask(FileChannel channel, long[] boundaries, int first,
+                          int last, LineParser parser) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.first = first;
+            this.last = last;
+            this.parser = parser;
+        }
+
+        /**
+         * Method to parse the run, splitting it if it has several ranges.
+         * @return List of bookings in file order.
+         */
+        @Override
+        protected ArrayList<Booking> compute() {
+            if (this.last - this.first == 1) {
+                try {
+                    return parseRange(this.boundaries[this.first],
+                            this.boundaries[this.last]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (this.first + this.last) >>> 1;
+            ParseTask left = new ParseTask(this.channel, this.boundaries,
+                    this.first, middle, this.parser);
+            ParseTask right = new ParseTask(this.channel, this.boundaries,
+                    middle, this.last, this.parser);
+            left.fork();
+            ArrayList<Booking> rightBookings = right.compute();
+            ArrayList<Booking> bookings = left.join();
+            bookings.addAll(rightBookings);
+            return bookings;
+        }
+
+        /**
+         * Method to map one range of the file and parse its lines.
+         * @param start Offset where the range starts.
+         * @param end Offset where the range ends.
+         * @return List of bookings in file order.
+         * @throws IOException when the range cannot be read or parsed.
+         */
+        private ArrayList<Booking> parseRange(long start, long end)
+                throws IOException {
+            ArrayList<Booking> bookings = new ArrayList<>();
+            BookingRecordCodec codec = new BookingRecordCodec();
+            MappedByteBuffer buffer = this.channel.map(
+                    FileChannel.MapMode.READ_ONLY, start, end - start);
+            byte[] line = new byte[256];
+            int lineStart = 0;
+            int limit = buffer.limit();
+            for (int i = 0; i <= limit; i++) {
+                //The last line of the file may have no line separator.
+                if (i == limit || buffer.get(i) == '\n') {
+                    int lineEnd = i;
+                    if (lineEnd > lineStart &&
+                            buffer.get(lineEnd - 1) == '\r') {
+                        lineEnd--;
+                    }
+                    int length = lineEnd - lineStart;
+                    if (length > 0) {
+                        if (length > line.length) {
+                            line = new byte[Math.max(length,
+                                    line.length * 2)];
+                        }
+                        buffer.get(lineStart, line, 0, length);
+                        this.parser.parse(codec, line, 0, length,
+                                bookings::add);
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return bookings;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,157 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+/**
+ * This class measures how fast a records file is scanned by the
+ * MappedRecordReader and by the BufferedReader, readLine and split
+ * pipeline the records classes used before it. Both look for the rows
+ * with a value in one field and make Strings of every field of those rows,
+ * as the records classes do. Each reader scans the file a number of times
+ * and its best time is printed in MB/s.
+ * It is run on a records file, for example:
+ * java model.RecordReaderBenchmark FlightRecords.txt , 1 Sydney
+ */
+public class RecordReaderBenchmark {
+    //Number of times each reader scans the file when no number is given.
+    public static final int DEFAULT_ROUNDS = 5;
+    private final String filename;
+    private final char delimiter;
+    private final int field;
+    private final String value;
+
+    /**
+     * Class constructor for a benchmark of a records file.
+     * @param filename Path of the records file.
+     * @param delimiter Character that separates fields on a line.
+     * @param field Index of the field that is compared, starting at 0.
+     * @param value Value the field is compared with.
+     */
+    public RecordReaderBenchmark(String filename, char delimiter, int field,
+                                 String value) {
+        this.filename = filename;
+        this.delimiter = delimiter;
+        this.field = field;
+        this.value = value;
+    }
+
+    /**
+     * Method to scan the file with the MappedRecordReader.
+     * @return Number of rows that matched.
+     * @throws IOException when the file cannot be read.
+     */
+    public int scanMapped() throws IOException {
+        int matches = 0;
+        try (MappedRecordReader reader = new MappedRecordReader(
+                this.filename, this.delimiter)) {
+            while (reader.nextRecord()) {
+                if (reader.getFieldCount() > this.field &&
+                        reader.fieldEquals(this.field, this.value)) {
+                    for (int i = 0; i < reader.getFieldCount(); i++) {
+                        reader.getField(i);
+                    }
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Method to scan the file with readLine and split.
+     * @return Number of rows that matched.
+     * @throws IOException when the file cannot be read.
+     */
+    public int scanSplit() throws IOException {
+        int matches = 0;
+        String separator = Pattern.quote(String.valueOf(this.delimiter));
+        try (BufferedReader reader = new BufferedReader(
+                new FileReader(this.filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(separator);
+                if (values.length > this.field &&
+                        values[this.field].equals(this.value)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Method to time both readers and print their throughput.
+     * @param rounds Number of times each reader scans the file.
+     * @return true if both readers matched the same number of rows.
+     * @throws IOException propagates to user when the file cannot be read.
+     */
+    public boolean run(int rounds) throws IOException {
+        long size = Files.size(Paths.get(this.filename));
+        int mappedMatches = 0;
+        int splitMatches = 0;
+        long mappedBest = Long.MAX_VALUE;
+        long splitBest = Long.MAX_VALUE;
+        //The readers take turns so both see the same disk cache.
+        for (int i = 0; i < Math.max(1, rounds); i++) {
+            long start = System.nanoTime();
+            splitMatches = scanSplit();
+            splitBest = Math.min(splitBest, System.nanoTime() - start);
+            start = System.nanoTime();
+            mappedMatches = scanMapped();
+            mappedBest = Math.min(mappedBest, System.nanoTime() - start);
+        }
+        printResult("readLine + split", splitMatches, size, splitBest);
+        printResult("MappedRecordReader", mappedMatches, size, mappedBest);
+        System.out.printf("Speed-up: %.1fx%n",
+                (double) splitBest / Math.max(mappedBest, 1));
+        return mappedMatches == splitMatches;
+    }
+
+    /**
+     * Method to print the best time of a reader.
+     * @param reader Name of the reader.
+     * @param matches Number of rows the reader matched.
+     * @param bytes Size of the file in bytes.
+     * @param nanos Best time of the reader in nanoseconds.
+     */
+    private static void printResult(String reader, int matches, long bytes,
+                                    long nanos) {
+        double seconds = Math.max(nanos, 1) / 1e9;
+        System.out.printf("%-20s %9d matches %10.1f MB %8.1f ms " +
+                        "%8.1f MB/s%n", reader, matches, bytes / 1e6,
+                nanos / 1e6, bytes / 1e6 / seconds);
+    }
+
+    /**
+     * Method to run the benchmark from the command line. The arguments are
+     * the records file, the delimiter, the index of the field to compare,
+     * the value to look for and optionally the number of rounds.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        if ((args.length != 4 && args.length != 5) ||
+                args[1].length() != 1) {
+            System.out.println("Usage: java model.RecordReaderBenchmark " +
+                    "<records file> <delimiter> <field> <value> [rounds]");
+            return;
+        }
+        try {
+            int rounds = args.length > 4 ? Integer.parseInt(args[4]) :
+                    DEFAULT_ROUNDS;
+            RecordReaderBenchmark benchmark = new RecordReaderBenchmark(
+                    args[0], args[1].charAt(0), Integer.parseInt(args[2]),
+                    args[3]);
+            if (!benchmark.run(rounds)) {
+                System.out.println("The readers matched different rows.");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("The benchmark could not be run: " +
+                    e.getMessage());
+        }
+    }
+}
\ No newline at end of file
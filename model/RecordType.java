@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * This enum lists the kinds of records that destinations are read from.
+ * Each kind has its own destination index, so a destination is only offered
+ * to the user for the kind of booking it can be used in.
+ */
+public enum RecordType {
+    /**
+     * Flights read from the flight records file.
+     */
+    FLIGHT,
+    /**
+     * Accommodation read from the holiday records file.
+     */
+    ACCOMMODATION
+}
\ No newline at end of file
@@ -0,0 +1,187 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class keeps the flight and holiday records in memory and reloads them
+ * when either records file changes. The files are watched on a background
+ * thread; a changed file is read into a new RecordsSnapshot which replaces
+ * the current one in a single reference swap. Bookings always read whichever
+ * snapshot is current and never wait on a reload.
+ */
+public class RecordsReloadService {
+    //Time to let a file finish being written before it is read.
+    private static final long SETTLE_MILLIS = 200;
+    private final AtomicReference<RecordsSnapshot> snapshot;
+    private final Path flightRecordsFile;
+    private final Path holidayRecordsFile;
+    private WatchService watcher;
+    private Thread watchThread;
+
+    /**
+     * Class constructor for the default records files in the working
+     * directory.
+     */
+    public RecordsReloadService() {
+        this("FlightRecords.txt", "HolidayRecords.txt");
+    }
+
+    /**
+     * Overloaded class constructor for records files in other locations.
+     * @param flightRecordsFile Path of the flight records file.
+     * @param holidayRecordsFile Path of the holiday records file.
+     */
+    public RecordsReloadService(String flightRecordsFile,
+                                String holidayRecordsFile) {
+        this.snapshot = new AtomicReference<>();
+        this.flightRecordsFile = Paths.get(flightRecordsFile).toAbsolutePath();
+        this.holidayRecordsFile =
+                Paths.get(holidayRecordsFile).toAbsolutePath();
+    }
+
+    /**
+     * Method to get the current snapshot of the records.
+     * @return The most recently loaded RecordsSnapshot, or null if the
+     *         service has not been started.
+     */
+    public RecordsSnapshot getSnapshot() {
+        return this.snapshot.get();
+    }
+
+    /**
+     * Method to read both records files and start watching them for changes.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public synchronized void start() throws IOException {
+        if (this.watchThread != null) {
+            return;
+        }
+        reload();
+        this.watcher = FileSystems.getDefault().newWatchService();
+        registerDirectory(this.flightRecordsFile.getParent());
+        //Both files usually share a directory, which only needs one watch.
+        if (!this.holidayRecordsFile.getParent().equals(
+                this.flightRecordsFile.getParent())) {
+            registerDirectory(this.holidayRecordsFile.getParent());
+        }
+        this.watchThread = new Thread(this::watchFiles, "records-reload");
+        this.watchThread.setDaemon(true);
+        this.watchThread.start();
+    }
+
+    /**
+     * Method to stop watching the records files. The current snapshot stays
+     * available.
+     * @throws IOException when the watch service cannot be closed.
+     */
+    public synchronized void stop() throws IOException {
+        if (this.watcher != null) {
+            this.watcher.close();
+            this.watcher = null;
+            this.watchThread = null;
+        }
+    }
+
+    /**
+     * Method to read both records files into a new snapshot and publish it.
+     * The previous snapshot stays current if either file cannot be read.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
+     */
+    public void reload() throws IOException {
+        RecordsSnapshot loaded;
+        //Malformed lines are reported the same way as unreadable files.
+        try {
+            loaded = new RecordsSnapshot(
+                    new FlightCatalog(this.flightRecordsFile.toString()),
+                    new AccommodationCatalog(
+                            this.holidayRecordsFile.toString()));
+        } catch (RuntimeException e) {
+            throw new IOException("Records file is malformed.", e);
+        }
+        this.snapshot.set(loaded);
+    }
+
+    /**
+     * Method to register a directory with the watch service.
+     * @param directory Directory that contains a records file.
+     * @throws IOException when the directory cannot be watched.
+     */
+    private void registerDirectory(Path directory) throws IOException {
+        directory.register(this.watcher,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Method run by the background thread. Waits for changes in the watched
+     * directories and reloads the records when a records file changes.
+     */
+    private void watchFiles() {
+        WatchService service = this.watcher;
+        boolean running = true;
+        while (running) {
+            try {
+                WatchKey key = service.take();
+                boolean changed = isRecordsFileChanged(key);
+                running = key.reset();
+                if (changed) {
+                    //Wait for the writer to finish, then drop the events that
+                    // the rest of the write produced.
+                    Thread.sleep(SETTLE_MILLIS);
+                    drainEvents(service);
+                    reload();
+                }
+            } catch (IOException e) {
+                System.out.println("Records could not be reloaded, keeping " +
+                        "the previous records.");
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Method to check if any event on a watch key is for a records file.
+     * @param key WatchKey returned by the watch service.
+     * @return true if a records file was created or modified.
+     */
+    private boolean isRecordsFileChanged(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else {
+                Path file = directory.resolve((Path) event.context());
+                if (file.equals(this.flightRecordsFile) ||
+                        file.equals(this.holidayRecordsFile)) {
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Method to discard events that are already waiting on the watch service.
+     * @param service WatchService being drained.
+     */
+    private void drainEvents(WatchService service) {
+        WatchKey key;
+        while ((key = service.poll()) != null) {
+            key.pollEvents();
+            key.reset();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package model;
+
+/**
+ * This class holds one consistent version of the flight and accommodation
+ * catalogs. A snapshot is never changed after it is created, so it can be
+ * read by any number of bookings at once without locking.
+ */
+public class RecordsSnapshot {
+    private final FlightCatalog flightCatalog;
+    private final AccommodationCatalog accommodationCatalog;
+    private final DestinationIndex flightDestinationIndex;
+    private final DestinationIndex accommodationDestinationIndex;
+
+    /**
+     * Accessor method for flightCatalog.
+     * @return copy of flightCatalog.
+     */
+    public FlightCatalog getFlightCatalog() {
+        return flightCatalog;
+    }
+
+    /**
+     * Accessor method for accommodationCatalog.
+     * @return copy of accommodationCatalog.
+     */
+    public AccommodationCatalog getAccommodationCatalog() {
+        return accommodationCatalog;
+    }
+
+    /**
+     * Method to get the index of the destinations of one kind of record.
+     * @param type Kind of record the destinations are needed for.
+     * @return DestinationIndex of the destinations found in those records.
+     */
+    public DestinationIndex getDestinationIndex(RecordType type) {
+        if (type == RecordType.FLIGHT) {
+            return flightDestinationIndex;
+        }
+        return accommodationDestinationIndex;
+    }
+
+    /**
+     * Class constructor to create a snapshot from catalogs that have already
+     * been read.
+     * @param flightCatalog Catalog of flight records.
+     * @param accommodationCatalog Catalog of accommodation records.
+     */
+    public RecordsSnapshot(FlightCatalog flightCatalog,
+                           AccommodationCatalog accommodationCatalog) {
+        this.flightCatalog = flightCatalog;
+        this.accommodationCatalog = accommodationCatalog;
+        //Each file gets its own index, so a destination with only
+        // accommodation is never offered for a flight.
+        this.flightDestinationIndex = new DestinationIndex(
+                flightCatalog.getDestinations());
+        this.accommodationDestinationIndex = new DestinationIndex(
+                accommodationCatalog.getDestinations());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,205 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class reprices existing bookings after flight prices change. The old
+ * and new price tables are compared to find the destinations with a changed
+ * flight, and the bookings to those destinations are found through the
+ * destination index, so bookings to other destinations are never touched.
+ * The bookings found are split into ranges that are repriced as separate
+ * tasks on a ForkJoinPool. Each booking is repriced under its write lock
+ * and a changed booking is marked dirty in the BookingWriter like any other
+ * change.
+ * It is run from the directory holding the files, with the new price table
+ * in a separate file:
+ * java model.RepricingEngine FlightRecords.new.txt
+ */
+public class RepricingEngine {
+    //Largest number of bookings repriced by one task.
+    private static final int TASK_SIZE = 4096;
+    private final BookingDataModel model;
+    private final ForkJoinPool pool;
+
+    /**
+     * Class constructor for an engine that uses the common ForkJoinPool.
+     * Objects are created by the BookingDataModel.
+     * @param model BookingDataModel holding the bookings.
+     */
+    RepricingEngine(BookingDataModel model) {
+        this(model, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Overloaded class constructor for an engine that uses its own pool.
+     * @param model BookingDataModel holding the bookings.
+     * @param pool ForkJoinPool that runs the repricing tasks.
+     */
+    RepricingEngine(BookingDataModel model, ForkJoinPool pool) {
+        this.model = model;
+        this.pool = pool;
+    }
+
+    /**
+     * Method to reprice every booking on a flight whose price changed.
+     * Flights that are not in the new table keep their old prices.
+     * @param oldPrices FlightCatalog the bookings were priced with, or null
+     *                  to check the bookings to every destination.
+     * @param newPrices FlightCatalog with the new prices.
+     * @return RepricingReport of the bookings checked and changed.
+     * @throws IOException propagates to user when an error occurs with
+     *                      reading or writing the bookings.
+     */
+    public RepricingReport reprice(FlightCatalog oldPrices,
+                                   FlightCatalog newPrices)
+            throws IOException {
+        long start = System.nanoTime();
+        IntList found = new IntList();
+        for (String destination : changedDestinations(oldPrices, newPrices)) {
+            int[] bookingIDs =
+                    this.model.findBookingIDsByDestination(destination);
+            for (int bookingID : bookingIDs) {
+                found.add(bookingID);
+            }
+        }
+        int[] bookingIDs = new int[found.size()];
+        for (int i = 0; i < bookingIDs.length; i++) {
+            bookingIDs[i] = found.get(i);
+        }
+
+        ArrayList<RepricingReport.Change> changes;
+        try {
+            changes = this.pool.invoke(new RepriceTask(bookingIDs, 0,
+                    bookingIDs.length, newPrices));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        changes.sort(Comparator.comparingInt(
+                RepricingReport.Change::getBookingID));
+        return new RepricingReport(bookingIDs.length,
+                (System.nanoTime() - start) / 1_000_000, changes);
+    }
+
+    /**
+     * Method to reprice the bookings in the working directory with a new
+     * price table and save them.
+     * @param args Path of the file with the new flight prices, in the same
+     *             form as FlightRecords.txt.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java model.RepricingEngine " +
+                    "<new flight records file>");
+            return;
+        }
+        try {
+            BookingDataModel model = new BookingDataModel();
+            model.loadFiles();
+            RepricingReport report = model.repriceBookings(args[0]);
+            model.saveToFiles();
+            report.printReport();
+        } catch (IOException | RuntimeException e) {
+            System.out.println("The bookings could not be repriced: " +
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Method to find the destinations with a flight that is new or has a
+     * different price in the new table.
+     * @param oldPrices FlightCatalog with the old prices, or null.
+     * @param newPrices FlightCatalog with the new prices.
+     * @return List of destination names.
+     */
+    private static ArrayList<String> changedDestinations(
+            FlightCatalog oldPrices, FlightCatalog newPrices) {
+        ArrayList<String> changed = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        for (String destination : newPrices.getDestinations()) {
+            boolean differs = oldPrices == null;
+            for (FlightRecords flight : newPrices.getFlights(destination)) {
+                if (differs) {
+                    break;
+                }
+                FlightRecords old = oldPrices.getFlight(destination,
+                        flight.getFlightNumber());
+                differs = old == null ||
+                        old.getFlightCostCents() !=
+                                flight.getFlightCostCents();
+            }
+            if (differs && seen.add(
+                    FlightCatalog.normaliseDestination(destination))) {
+                changed.add(destination);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * This class is a task that reprices a range of bookings. Ranges of
+     * more than TASK_SIZE bookings are split in half and the halves run in
+     * parallel.
+     */
+    private class RepriceTask
+            extends RecursiveTask<ArrayList<RepricingReport.Change>> {
+        private static final long serialVersionUID = 1L;
+        private final int[] bookingIDs;
+        private final int first;
+        private final int last;
+        private final FlightCatalog prices;
+
+        /**
+         * Class constructor for a task.
+         * @param bookingIDs Array of the bookingIDs to reprice.
+         * @param first Index of the first booking of the range.
+         * @param last Index after the last booking of the range.
+         * @param prices FlightCatalog with the new prices.
+         */
+        private RepriceTask(int[] bookingIDs, int first, int last,
+                            FlightCatalog prices) {
+            this.bookingIDs = bookingIDs;
+            this.first = first;
+            this.last = last;
+            this.prices = prices;
+        }
+
+        /**
+         * Method to reprice the range, splitting it if it is large.
+         * @return List of the bookings whose cost changed.
+         */
+        @Override
+        protected ArrayList<RepricingReport.Change> compute() {
+            if (this.last - this.first <= TASK_SIZE) {
+                ArrayList<RepricingReport.Change> changes = new ArrayList<>();
+                try {
+                    for (int i = this.first; i < this.last; i++) {
+                        RepricingReport.Change change = model.repriceBooking(
+                                this.bookingIDs[i], this.prices);
+                        if (change != null) {
+                            changes.add(change);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return changes;
+            }
+            int middle = (this.first + this.last) >>> 1;
+            RepriceTask left = new RepriceTask(this.bookingIDs, this.first,
+                    middle, this.prices);
+            RepriceTask right = new RepriceTask(this.bookingIDs, middle,
+                    this.last, this.prices);
+            left.fork();
+            ArrayList<RepricingReport.Change> rightChanges = right.compute();
+            ArrayList<RepricingReport.Change> changes = left.join();
+            changes.addAll(rightChanges);
+            return changes;
+        }
+    }
+}
\ No newline at end of file
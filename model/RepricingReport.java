@@ -0,0 +1,178 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the outcome of repricing bookings after a change of
+ * flight prices: how many bookings were checked, which of them changed
+ * cost and by how much, and how long it took.
+ */
+public class RepricingReport {
+    //Number of changed bookings listed by printReport.
+    public static final int CHANGES_PRINTED = 20;
+    private final int bookingsChecked;
+    private final long elapsedMillis;
+    private final ArrayList<Change> changes;
+    //Sums are held in cents.
+    private final long oldTotal;
+    private final long newTotal;
+
+    /**
+     * Class constructor for the outcome of a repricing. Objects are created
+     * by the RepricingEngine.
+     * @param bookingsChecked Number of bookings on a changed flight.
+     * @param elapsedMillis Time the repricing took in milliseconds.
+     * @param changes List of the bookings whose cost changed.
+     */
+    public RepricingReport(int bookingsChecked, long elapsedMillis,
+                           List<Change> changes) {
+        this.bookingsChecked = bookingsChecked;
+        this.elapsedMillis = elapsedMillis;
+        this.changes = new ArrayList<>(changes);
+        long oldSum = 0;
+        long newSum = 0;
+        for (Change change : changes) {
+            oldSum = Math.addExact(oldSum, change.oldTotal);
+            newSum = Math.addExact(newSum, change.newTotal);
+        }
+        this.oldTotal = oldSum;
+        this.newTotal = newSum;
+    }
+
+    /**
+     * Accessor method for bookingsChecked.
+     * @return copy of bookingsChecked.
+     */
+    public int getBookingsChecked() {
+        return bookingsChecked;
+    }
+
+    /**
+     * Accessor method for elapsedMillis.
+     * @return copy of elapsedMillis.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Accessor method for changes.
+     * @return copy of changes, in bookingID order.
+     */
+    public ArrayList<Change> getChanges() {
+        return new ArrayList<>(changes);
+    }
+
+    /**
+     * Accessor method for oldTotal.
+     * @return sum of the old costs of the changed bookings.
+     */
+    public Money getOldTotal() {
+        return Money.ofCents(oldTotal);
+    }
+
+    /**
+     * Accessor method for newTotal.
+     * @return sum of the new costs of the changed bookings.
+     */
+    public Money getNewTotal() {
+        return Money.ofCents(newTotal);
+    }
+
+    /**
+     * Method to print a summary of the repricing and the first changed
+     * bookings.
+     */
+    public void printReport() {
+        System.out.println("Checked " + this.bookingsChecked +
+                " bookings in " + this.elapsedMillis + " ms, " +
+                this.changes.size() + " changed cost.");
+        long difference = this.newTotal - this.oldTotal;
+        System.out.printf("Old total: %s, new total: %s, " +
+                        "difference: %s%s\n", Money.format(this.oldTotal),
+                Money.format(this.newTotal), difference < 0 ? "" : "+",
+                Money.format(difference));
+        for (int i = 0; i < this.changes.size() && i < CHANGES_PRINTED;
+             i++) {
+            Change change = this.changes.get(i);
+            System.out.printf("  Booking %d (%s %s): %s -> %s\n",
+                    change.getBookingID(), change.getDestination(),
+                    change.getFlightNumber(), change.getOldTotal(),
+                    change.getNewTotal());
+        }
+        if (this.changes.size() > CHANGES_PRINTED) {
+            System.out.println("  ... and " +
+                    (this.changes.size() - CHANGES_PRINTED) + " more.");
+        }
+    }
+
+    /**
+     * This class is the change of cost of one booking.
+     */
+    public static class Change {
+        private final int bookingID;
+        private final String destination;
+        private final String flightNumber;
+        //Totals are held in cents.
+        private final long oldTotal;
+        private final long newTotal;
+
+        /**
+         * Class constructor for the change of one booking.
+         * @param bookingID BookingID of the booking.
+         * @param destination Destination of the booking's flight.
+         * @param flightNumber Flight number of the booking's flight.
+         * @param oldTotal Total cost before repricing.
+         * @param newTotal Total cost after repricing.
+         */
+        public Change(int bookingID, String destination, String flightNumber,
+                      Money oldTotal, Money newTotal) {
+            this.bookingID = bookingID;
+            this.destination = destination;
+            this.flightNumber = flightNumber;
+            this.oldTotal = oldTotal.getCents();
+            this.newTotal = newTotal.getCents();
+        }
+
+        /**
+         * Accessor method for bookingID.
+         * @return copy of bookingID.
+         */
+        public int getBookingID() {
+            return bookingID;
+        }
+
+        /**
+         * Accessor method for destination.
+         * @return copy of destination.
+         */
+        public String getDestination() {
+            return destination;
+        }
+
+        /**
+         * Accessor method for flightNumber.
+         * @return copy of flightNumber.
+         */
+        public String getFlightNumber() {
+            return flightNumber;
+        }
+
+        /**
+         * Accessor method for oldTotal.
+         * @return copy of oldTotal.
+         */
+        public Money getOldTotal() {
+            return Money.ofCents(oldTotal);
+        }
+
+        /**
+         * Accessor method for newTotal.
+         * @return copy of newTotal.
+         */
+        public Money getNewTotal() {
+            return Money.ofCents(newTotal);
+        }
+    }
+}
\ No newline at end of file
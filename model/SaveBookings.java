@@ -1,112 +1,133 @@
 package model;
 
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class functions as the file handling purpose of saving data onto files.
  */
 public class SaveBookings {
-    private final PrintWriter flightWriter;
-    private final PrintWriter holidayWriter;
+    //Size the codec buffers reach before they are written to file.
+    private static final int FLUSH_SIZE = 64 * 1024;
     private final String flightBookingsFile = "FlightBookings.txt";
     private final String holidayBookingsFile = "HolidayBookings.txt";
+    private final String binaryBookingsFile = "Bookings.dat";
 
     /**
-     * Class constructor to create new PrintWriter objects for different
-     * files. Write objects from different files depending on its class type.
+     * Class constructor to write bookings to the partitions directory named
+     * by the bookings.partitions system property, or otherwise in the format
+     * chosen by the bookings.storage.format system property.
      * @param bookings ArrayList passed into this method from controller.
      * @throws IOException propagates to user when an error occurs with opening
      *                      the record files.
      */
     public SaveBookings(ArrayList<Booking> bookings) throws IOException {
-        this.flightWriter =
-                new PrintWriter(new FileWriter(this.flightBookingsFile));
-        this.holidayWriter =
-                new PrintWriter(new FileWriter(this.holidayBookingsFile));
-
-        /* Iterate the bookings array to write into designated files depending
-         * on class type.
-         */
-        for (int i = 0; i < bookings.size(); i++) {
-            if (bookings.get(i) instanceof FlightBooking) {
-                writeFlight(this.flightWriter,bookings, i);
-            } else if (bookings.get(i) instanceof HolidayBooking) {
-                writeHoliday(this.holidayWriter, bookings, i);
-            }
+        BookingPartitions partitions = BookingPartitions.fromConfig();
+        if (partitions != null) {
+            partitions.write(bookings);
+        } else {
+            writeFiles(bookings, StorageFormat.fromConfig());
         }
-        this.flightWriter.close();
-        this.holidayWriter.close();
     }
 
     /**
-     * Method to write FlightBooking objects to file.
-     * @param writer PrintWriter object for this purpose.
+     * Overloaded class constructor to write bookings in a particular format.
+     * In the text format flight and holiday bookings go to different files
+     * depending on their class type; in the binary format they all go to
+     * Bookings.dat.
      * @param bookings ArrayList passed into this method from controller.
-     * @param i index number of object in array.
+     * @param format StorageFormat to write.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the record files.
      */
-    private void writeFlight(PrintWriter writer, ArrayList<Booking> bookings,
-                             int i) {
-        ArrayList passengers;
-        FlightBooking fb = ((FlightBooking) bookings.get(i));
-        //Split by "<" as addresses have commas.
-        writer.print(fb.getBookingID() + "<");
-        writer.print(fb.getCustomerName() + "<");
-        writer.print(fb.getBookingDate() + "<");
-        writer.print(fb.getInvoiceNo() + "<");
-        writer.print(fb.getFlightNumber() + "<");
-        writer.print(fb.getDestination() + "<");
-        writer.print(fb.getDepartureDate() + "<");
-
-        //Iterating passengers arraylist to write every item
-        passengers = fb.getPassengers();
-        for (int j = 0; j < passengers.size(); j++) {
-            writer.print(passengers.get(j) + ">");
-        }
-        writer.print("<");
-
-        writer.print(fb.getSingleFlightCost() + "<");
-        writer.print(fb.getTotalCost() + "<");
+    public SaveBookings(ArrayList<Booking> bookings, StorageFormat format)
+            throws IOException {
+        writeFiles(bookings, format);
     }
 
     /**
-     * Method to write HolidayBooking objects to file
-     * @param writer PrintWriter object for this purpose.
-     * @param bookings ArrayList passed into this method from controller.
-     * @param i index number of object in array.
+     * Overloaded class constructor to write bookings to partitions by
+     * departure month. Only the active partitions are rewritten; months
+     * that have ended are sealed.
+     * @param bookings ArrayList holding every active booking.
+     * @param partitions BookingPartitions to write.
+     * @throws IOException propagates to user when an error occurs with opening
+     *                      the partition files.
      */
-    private void writeHoliday(PrintWriter writer, ArrayList<Booking> bookings,
-                              int i) {
-        ArrayList<String> passengers;
-        HolidayBooking hb = ((HolidayBooking) bookings.get(i));
-        writer.print(hb.getBookingID() + "<");
-        writer.print(hb.getCustomerName() + "<");
-        writer.print(hb.getBookingDate() + "<");
-        writer.print(hb.getInvoiceNo() + "<");
-
-        //Getting the flight in holiday and writing to file
-        FlightBooking fb = hb.getFlight();
-        writer.print(fb.getFlightNumber() + "<");
-        writer.print(fb.getDestination() + "<");
-        writer.print(fb.getDepartureDate() + "<");
+    public SaveBookings(ArrayList<Booking> bookings,
+                        BookingPartitions partitions) throws IOException {
+        partitions.write(bookings);
+    }
 
-        //Iterating passengers arraylist to write every item
-        passengers = fb.getPassengers();
-        for (int j = 0; j < passengers.size(); j++) {
-            writer.print(passengers.get(j) + ">");
+    /**
+     * Method to write bookings to the bookings files of a format.
+     * @param bookings ArrayList of bookings to write.
+     * @param format StorageFormat to write.
+     * @throws IOException when the files cannot be written.
+     */
+    private void writeFiles(ArrayList<Booking> bookings, StorageFormat format)
+            throws IOException {
+        if (format == StorageFormat.BINARY) {
+            BinaryBookingFile.write(Paths.get(this.binaryBookingsFile),
+                    bookings);
+        } else {
+            writeText(bookings, Paths.get(this.flightBookingsFile),
+                    Paths.get(this.holidayBookingsFile));
         }
-        writer.print("<");
+    }
 
-        writer.print(fb.getSingleFlightCost() + "<");
-        writer.print(fb.getTotalCost() + "<");
+    /**
+     * Method to write bookings to a pair of text files.
+     * @param bookings List of bookings to write.
+     * @param flightBookingsFile Path of the flight bookings file.
+     * @param holidayBookingsFile Path of the holiday bookings file.
+     * @throws IOException when the files cannot be written.
+     */
+    static void writeText(List<Booking> bookings, Path flightBookingsFile,
+                          Path holidayBookingsFile) throws IOException {
+        //Each file has its own codec, whose buffer is written out when full.
+        BookingRecordCodec flightCodec = new BookingRecordCodec();
+        BookingRecordCodec holidayCodec = new BookingRecordCodec();
+        try (OutputStream flightFile =
+                     new FileOutputStream(flightBookingsFile.toFile());
+             OutputStream holidayFile =
+                     new FileOutputStream(holidayBookingsFile.toFile())) {
+            /* Iterate the bookings array to write into designated files
+             * depending on class type.
+             */
+            for (int i = 0; i < bookings.size(); i++) {
+                if (bookings.get(i) instanceof FlightBooking) {
+                    flightCodec.writeFlight((FlightBooking) bookings.get(i));
+                    flushIfFull(flightCodec, flightFile, FLUSH_SIZE);
+                } else if (bookings.get(i) instanceof HolidayBooking) {
+                    holidayCodec.writeHoliday(
+                            (HolidayBooking) bookings.get(i));
+                    flushIfFull(holidayCodec, holidayFile, FLUSH_SIZE);
+                }
+            }
+            flushIfFull(flightCodec, flightFile, 0);
+            flushIfFull(holidayCodec, holidayFile, 0);
+        }
+    }
 
-        writer.print(hb.getAccommodationName() + "<");
-        writer.print(hb.getAccommodationAddress() + "<");
-        writer.print(hb.getCheckIn() + "<");
-        writer.print(hb.getCheckOut() + "<");
-        writer.print(hb.getSingleNightCost() + "<");
-        writer.print(hb.getTotalCost() + "<");
+    /**
+     * Method to write the codec's buffer to file once it has grown enough.
+     * @param codec BookingRecordCodec holding written bookings.
+     * @param file OutputStream of the bookings file.
+     * @param size Number of bytes the buffer must hold to be written.
+     * @throws IOException when the file cannot be written.
+     */
+    private static void flushIfFull(BookingRecordCodec codec,
+                                    OutputStream file, int size)
+            throws IOException {
+        if (codec.getLength() > 0 && codec.getLength() >= size) {
+            file.write(codec.getBuffer(), 0, codec.getLength());
+            codec.clear();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package model;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * This enum lists the formats the bookings can be stored in. The format is
+ * chosen with the system property bookings.storage.format, for example
+ * -Dbookings.storage.format=binary. Text is used when it is not set.
+ */
+public enum StorageFormat {
+    /**
+     * Lines of "<" separated fields, readable in any text editor.
+     */
+    TEXT(".txt"),
+    /**
+     * Records with a versioned header, length-prefixed strings, dates as
+     * epoch days and fixed-width numbers. Written by BinaryBookingFile.
+     */
+    BINARY(".dat");
+
+    //Name of the system property that selects the format.
+    public static final String PROPERTY = "bookings.storage.format";
+    private final String extension;
+
+    /**
+     * Constructor for a format.
+     * @param extension File name extension of files in the format.
+     */
+    StorageFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Accessor method for extension.
+     * @return copy of extension.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Method to get the format chosen by the system property.
+     * @return StorageFormat named by the property, or TEXT if the property is
+     *         not set or names no format.
+     */
+    public static StorageFormat fromConfig() {
+        String value = System.getProperty(PROPERTY, "text");
+        StorageFormat format = TEXT;
+        try {
+            format = valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown storage format " + value +
+                    ", using text.");
+        }
+        return format;
+    }
+
+    /**
+     * Method to get the format of a file from its extension.
+     * @param file Path of the file.
+     * @return StorageFormat of the file; TEXT unless it ends with ".dat".
+     */
+    public static StorageFormat forFile(Path file) {
+        StorageFormat format = TEXT;
+        if (file.getFileName().toString().endsWith(BINARY.extension)) {
+            format = BINARY;
+        }
+        return format;
+    }
+}
\ No newline at end of file
@@ -1,11 +1,15 @@
 package view;
 
 import controller.BookingManagementController;
+import model.Accommodation;
 import model.BookingException;
+import model.Money;
+import model.RecordType;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -60,6 +64,9 @@ public class BookingManagementSystem {
                 case "F":
                     updateHolidayBooking();
                     break;
+                case "G":
+                    searchAccommodation();
+                    break;
             }
         } while (!userChoice.equalsIgnoreCase("X"));
 
@@ -109,6 +116,7 @@ public class BookingManagementSystem {
                     "booking ID: " + bookingID + ".");
         } catch (BookingException e) {
             System.out.println(e.getMessage());
+            printDestinationSuggestions(RecordType.FLIGHT, destination);
         } catch (IOException e) {
             System.out.println("An error has occurred.");
         }
@@ -191,6 +199,78 @@ public class BookingManagementSystem {
         } else {
             System.out.println("Sorry, no accommodations found in " +
                     destination + ".");
+            printDestinationSuggestions(RecordType.ACCOMMODATION,
+                    destination);
+        }
+    }
+
+    /**
+     * Method to list the cheapest accommodations at a destination within a
+     * price range per night entered by the user.
+     */
+    private void searchAccommodation() {
+        String destination;
+        int minCost, maxCost, count = 1;
+        List<Accommodation> accommodations;
+
+        System.out.println("***** Search Accommodation By Price *****");
+        destination = getUserInput("Enter the destination: ");
+        minCost = getValidInteger("Lowest price per night: ");
+        maxCost = getValidInteger("Highest price per night: ");
+        //Check that the range is not empty.
+        while (maxCost < minCost) {
+            maxCost = getValidInteger("Highest price cannot be lower than " +
+                    minCost + ". Re-enter: ");
+        }
+
+        try {
+            accommodations = this.controller.findAccommodations(destination,
+                    Money.ofCents(minCost * 100L),
+                    Money.ofCents(maxCost * 100L), 10);
+            if (accommodations.isEmpty()) {
+                System.out.println("Sorry, no accommodations found in " +
+                        destination + " in that price range.");
+            } else {
+                System.out.println("***** Cheapest accommodations in " +
+                        destination + " *****");
+                //Print each accommodation with its price and address.
+                for (Accommodation a : accommodations) {
+                    System.out.printf("%d) %s - $%s per night - %s\n", count,
+                            a.getAccommodationName(), a.getCostPerNight(),
+                            a.getAccommodationAddress());
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("An error has occurred.");
+        }
+    }
+
+    /**
+     * Method to print destinations the user may have meant when a
+     * destination is not found. Destinations starting with what was typed
+     * are offered first, then destinations with a similar spelling. Only
+     * destinations of the kind of record that was looked for are offered.
+     * @param type Kind of record the destination was not found in.
+     * @param destination Destination entered by the user.
+     */
+    private void printDestinationSuggestions(RecordType type,
+                                             String destination) {
+        List<String> suggestions;
+        //Suggestions are only a help, so a problem finding them is ignored.
+        try {
+            suggestions = this.controller.searchDestinations(type,
+                    destination, 5);
+            if (suggestions.isEmpty()) {
+                suggestions = this.controller.suggestDestinations(type,
+                        destination, 5);
+            }
+            if (!suggestions.isEmpty()) {
+                System.out.println("Did you mean: " +
+                        String.join(", ", suggestions) + "?");
+            }
+        } catch (IOException e) {
+            System.out.println("An error has occurred.");
         }
     }
 
@@ -212,7 +292,7 @@ public class BookingManagementSystem {
             if (bookingIsHoliday) {
                 departureDate = this.controller.getDepartureDate(bookingID);
                 System.out.println("***** Update Holiday Booking *****");
-                checkIn = updateCheckIn(bookingID, departureDate);
+                checkIn = updateCheckIn(departureDate);
                 nights = getValidInteger("Enter the number of nights you wish" +
                         " to stay: ");
                 checkOut = checkIn.plusDays(nights);
@@ -234,23 +314,22 @@ public class BookingManagementSystem {
     }
 
     /**
-     * Method to change the Flight departure date if user enters earlier
-     * check-in date than departure while updating.
-     * @param bookingID BookingID generated by the program assigned to each
-     *                  booking.
+     * Method to tell the user the Flight departure date will change if user
+     * enters earlier check-in date than departure while updating. The
+     * departure date is changed together with the check-in when the update
+     * is saved.
      * @param departureDate Departure date for flight.
      * @return The check-in date for Holiday Booking.
      */
-    private LocalDate updateCheckIn(int bookingID, LocalDate departureDate) {
+    private LocalDate updateCheckIn(LocalDate departureDate) {
         LocalDate checkIn;
         checkIn = getValidDate("Enter Check-In Date: ");
         //Check if check-in is before departure.
         if (checkIn.isBefore(departureDate)) {
             System.out.println("Flight departure date is after " + checkIn +
                     ".");
-            System.out.println("Amending departure date");
-            sleep();
-            this.controller.setDepartureDate(bookingID, checkIn);
+            System.out.println("Departure date will be amended to " +
+                    checkIn + ".");
         }
         return checkIn;
     }
@@ -405,6 +484,7 @@ public class BookingManagementSystem {
         mainMenu += "D) Print Itinerary\n";
         mainMenu += "E) View Bookings\n";
         mainMenu += "F) Update Check-In Details\n";
+        mainMenu += "G) Search Accommodation By Price\n";
         mainMenu += "X) Exit\n";
         mainMenu += "*********************\n";
         mainMenu += "Your choice: ";
@@ -417,6 +497,7 @@ public class BookingManagementSystem {
                 !userChoice.equalsIgnoreCase("D") &&
                 !userChoice.equalsIgnoreCase("E") &&
                 !userChoice.equalsIgnoreCase("F") &&
+                !userChoice.equalsIgnoreCase("G") &&
                 !userChoice.equalsIgnoreCase("X")) {
             userChoice = getUserInput("No such option, Re-enter: ");
         }